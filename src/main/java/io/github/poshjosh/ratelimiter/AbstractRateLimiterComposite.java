@@ -2,11 +2,12 @@ package io.github.poshjosh.ratelimiter;
 
 import io.github.poshjosh.ratelimiter.bandwidths.Bandwidth;
 import io.github.poshjosh.ratelimiter.bandwidths.Bandwidths;
-import io.github.poshjosh.ratelimiter.model.Rates;
 import io.github.poshjosh.ratelimiter.node.Node;
+import io.github.poshjosh.ratelimiter.util.LatencyHistograms;
 import io.github.poshjosh.ratelimiter.util.Matcher;
-import io.github.poshjosh.ratelimiter.util.Matchers;
+import io.github.poshjosh.ratelimiter.util.MatcherProvider;
 import io.github.poshjosh.ratelimiter.util.Operator;
+import io.github.poshjosh.ratelimiter.util.Ticker;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -20,26 +21,176 @@ abstract class AbstractRateLimiterComposite<K> implements RateLimiter {
     private static final Logger LOG = LoggerFactory.getLogger(AbstractRateLimiterComposite.class);
     private final K key;
     private final RateLimiterProvider rateLimiterProvider;
+    private final MatcherProvider<K> matcherProvider;
+    private final Ticker ticker;
+    private final RateLimiterMetrics metrics;
+    private final LatencyHistograms latencyHistograms;
+    private final DecisionTracer decisionTracer;
+    // Null, unless fair queueing is enabled
+    private final FifoWaitQueues<K> waitQueues;
 
-    protected AbstractRateLimiterComposite(K key, RateLimiterProvider rateLimiterProvider) {
+    protected AbstractRateLimiterComposite(K key, RateLimiterProvider rateLimiterProvider,
+            MatcherProvider<K> matcherProvider, Ticker ticker, RateLimiterMetrics metrics, DecisionTracer decisionTracer,
+            FifoWaitQueues<K> waitQueues) {
         this.key = Objects.requireNonNull(key);
         this.rateLimiterProvider = Objects.requireNonNull(rateLimiterProvider);
+        this.matcherProvider = Objects.requireNonNull(matcherProvider);
+        this.ticker = Objects.requireNonNull(ticker);
+        this.metrics = Objects.requireNonNull(metrics);
+        this.latencyHistograms = metrics.getLatencyHistograms();
+        this.decisionTracer = Objects.requireNonNull(decisionTracer);
+        this.waitQueues = waitQueues;
     }
 
     protected abstract void visitNodes(BiConsumer<String, RateLimiter> visitor);
 
+    private void visitNodesMatchingKey(BiConsumer<String, RateLimiter> visitor) {
+        // Conditions shared by multiple nodes are evaluated only once per traversal.
+        matcherProvider.traverse(key, () -> visitNodes(visitor));
+    }
+
     @Override
     public double acquire(int permits) {
-        PermitAcquiringVisitor visitor = new PermitAcquiringVisitor(permits);
-        visitNodes(visitor);
-        return visitor.getTotalTimeSpent();
+        if (waitQueues != null) {
+            return acquireInTurn(permits);
+        }
+        return acquireUnqueued(permits);
+    }
+
+    /**
+     * Wait in the queue of this key, then acquire. Only the head of the queue acquires,
+     * so permits are handed off in arrival order. The head waits for permits by parking,
+     * outside of any monitor of the rate limiters.
+     */
+    private double acquireInTurn(int permits) {
+        final long startNanos = System.nanoTime();
+        final FifoWaitQueue waitQueue = waitQueues.open(key);
+        try {
+            if (!waitQueue.awaitTurn(-1L)) {
+                throw new WaitQueueFullException(key, waitQueue.getMaxDepth());
+            }
+            try {
+                final double secondsQueued =
+                        (double) (System.nanoTime() - startNanos) / TimeUnit.SECONDS.toNanos(1L);
+                return secondsQueued + acquireUnqueued(permits);
+            } finally {
+                waitQueue.leave();
+            }
+        } finally {
+            waitQueues.close(key);
+        }
+    }
+
+    /**
+     * Permits are acquired after visiting, from all the matched rate limiters at once. Rate
+     * limiters may wait within {@code acquire}, while holding a monitor. That would pin a
+     * virtual thread to its carrier thread. So for virtual threads, permits are reserved, and
+     * the wait happens outside of any monitor.
+     */
+    private double acquireUnqueued(int permits) {
+        final AllOrNothingReservation reservation = new AllOrNothingReservation();
+        final DecisionTrace.Builder trace = beginTraceIfSampled(permits);
+        final TracingVisitor tracingVisitor = trace == null ? null : TracingVisitor.of(reservation, trace);
+        visitNodesMatchingKey(tracingVisitor == null ? reservation : tracingVisitor);
+        final double secondsWaited = reservation.acquire(ticker, permits);
+        if (tracingVisitor != null) {
+            tracingVisitor.complete();
+        }
+        endTrace(trace);
+        return secondsWaited;
     }
 
     @Override
     public boolean tryAcquire(int permits, long timeout, TimeUnit unit) {
+        if (waitQueues == null) {
+            return tryAcquireUnqueued(permits, timeout, unit);
+        }
+        if (timeout <= 0) {
+            // Permits are not taken ahead of the threads already waiting for them.
+            return waitQueues.isEmpty(key) && tryAcquireUnqueued(permits, 0, unit);
+        }
+        final long startNanos = System.nanoTime();
+        final long timeoutNanos = unit.toNanos(timeout);
+        final FifoWaitQueue waitQueue = waitQueues.open(key);
+        try {
+            if (!waitQueue.awaitTurn(timeoutNanos)) {
+                return false;
+            }
+            try {
+                final long remainingNanos = timeoutNanos - (System.nanoTime() - startNanos);
+                return tryAcquireUnqueued(permits, Math.max(remainingNanos, 0), TimeUnit.NANOSECONDS);
+            } finally {
+                waitQueue.leave();
+            }
+        } finally {
+            waitQueues.close(key);
+        }
+    }
+
+    private boolean tryAcquireUnqueued(int permits, long timeout, TimeUnit unit) {
+        // Permits are acquired after visiting, from either all or none of the matched rate
+        // limiters. So a request denied at one node, does not consume the permits of others.
         PermitAttemptingVisitor visitor = new PermitAttemptingVisitor(permits, timeout, unit);
-        visitNodes(visitor);
-        return visitor.isNoLimitExceeded();
+        final DecisionTrace.Builder trace = beginTraceIfSampled(permits);
+        final TracingVisitor tracingVisitor = trace == null ? null : TracingVisitor.of(visitor, trace);
+        visitNodesMatchingKey(tracingVisitor == null ? visitor : tracingVisitor);
+        final boolean acquired = visitor.tryAcquire(ticker);
+        if (tracingVisitor != null) {
+            tracingVisitor.complete();
+        }
+        endTrace(trace);
+        return acquired;
+    }
+
+    /**
+     * Reserve permits from the matched rate limiters, without waiting; under the same locks
+     * as {@link #tryAcquire(int, long, TimeUnit)}.
+     * @param permits The number of permits to reserve
+     * @return The time, in micros, until the reserved permits are available
+     */
+    long reserve(int permits) {
+        final AllOrNothingReservation reservation = new AllOrNothingReservation();
+        final DecisionTrace.Builder trace = beginTraceIfSampled(permits);
+        final TracingVisitor tracingVisitor = trace == null ? null : TracingVisitor.of(reservation, trace);
+        visitNodesMatchingKey(tracingVisitor == null ? reservation : tracingVisitor);
+        final long waitMicros = reservation.reserve(permits);
+        if (tracingVisitor != null) {
+            tracingVisitor.complete();
+        }
+        endTrace(trace);
+        return waitMicros;
+    }
+
+    /**
+     * Trace the decision {@link #tryAcquire(int)} would make, without acquiring any permits.
+     * @param ticker The ticker used by the rate limiters
+     * @param trace The trace to add steps to
+     */
+    void explain(Ticker ticker, DecisionTrace.Builder trace) {
+        visitNodesMatchingKey(TracingVisitor.explaining(ticker, trace));
+    }
+
+    /**
+     * Visit the rate limiters of the nodes matching the key, without acquiring any permits.
+     * @param visitor The visitor to pass each matching rate limiter to
+     */
+    void visitRateLimiters(BiConsumer<String, RateLimiter> visitor) {
+        visitNodesMatchingKey(visitor);
+    }
+
+    private DecisionTrace.Builder beginTraceIfSampled(int permits) {
+        if (decisionTracer == DecisionTracer.NONE || !decisionTracer.isSampled()) {
+            return null;
+        }
+        return DecisionTrace.builder(key, permits);
+    }
+
+    private void endTrace(DecisionTrace.Builder trace) {
+        // Where no rate limiter matched (e.g the annotations of a key limited by properties
+        // only), no decision was made here.
+        if (trace != null && trace.hasLimiterSteps()) {
+            decisionTracer.onTraced(trace.build());
+        }
     }
 
     @Override
@@ -47,7 +198,7 @@ abstract class AbstractRateLimiterComposite<K> implements RateLimiter {
         List<Bandwidth> bandwidths = new ArrayList<>();
         BiConsumer<String, RateLimiter> visitor = (match, rateLimiter) ->
                 bandwidths.add(rateLimiter.getBandwidth());
-        visitNodes(visitor);
+        visitNodesMatchingKey(visitor);
         // For multiple Bandwidths conjugated with Operator.OR, the composed Bandwidth
         // succeeds only when all Bandwidths succeed. This is the case here.
         return Bandwidths.of(Operator.OR, bandwidths.toArray(new Bandwidth[0]));
@@ -67,16 +218,17 @@ abstract class AbstractRateLimiterComposite<K> implements RateLimiter {
         if (rateContext == null) {
             return -1;
         }
-        final String mainMatch = match(rateContext);
+        final String mainMatch = match(rateContext, visitor);
         if (rateContext.hasSubConditions()) {
             final int count = rateContext.getLimitMatchers().size();
             int matchCount = 0;
             for(int i = 0; i < count; i++) {
-                final String match = matchAt(rateContext, i, mainMatch);
-                if (Matcher.isMatch(match)) {
+                final MatchKey matchKey = matchAt(rateContext, i, mainMatch, visitor);
+                if (matchKey != null && Matcher.isMatch(matchKey.getValue())) {
                     ++matchCount;
-                    RateLimiter rateLimiter =
-                            rateLimiterProvider.getRateLimiter(match, rateContext.getRate(i));
+                    final String match = matchKey.getValue();
+                    RateLimiter rateLimiter = meter(rateContext, matchKey,
+                            rateContext.getRateLimiter(rateLimiterProvider, matchKey, i));
 
                     visitor.accept(match, rateLimiter);
 
@@ -102,8 +254,9 @@ abstract class AbstractRateLimiterComposite<K> implements RateLimiter {
                 // we have to rely on other means. This fallback to the parent here gives
                 // matchers based on this config an avenue to match the rate source's parent.
                 //
-                final Rates rates = rateContext.getRatesWithParentRatesAsFallback();
-                final RateLimiter rateLimiter = rateLimiterProvider.getRateLimiter(mainMatch, rates);
+                final MatchKey mainMatchKey = rateContext.getMatchKey(mainMatch);
+                final RateLimiter rateLimiter = meter(rateContext, mainMatchKey,
+                        rateContext.getRateLimiter(rateLimiterProvider, mainMatchKey));
 
                 visitor.accept(mainMatch, rateLimiter);
 
@@ -117,9 +270,15 @@ abstract class AbstractRateLimiterComposite<K> implements RateLimiter {
         }
     }
 
-    private String match(RateContext<K> rateContext) {
+    private String match(RateContext<K> rateContext, BiConsumer<String, RateLimiter> visitor) {
         final Matcher<K> matcher = rateContext.getMainMatcher();
+        final long startNanos = latencyHistograms.startNanos();
         final String match = matcher.match(key);
+        latencyHistograms.record(LatencyHistograms.Phase.MATCH, startNanos);
+        recordMatcherEvaluated(rateContext, match);
+        if (visitor instanceof TracingVisitor) {
+            ((TracingVisitor)visitor).getTrace().matcher(rateContext.getId(), -1, matcher, match);
+        }
         if (LOG.isTraceEnabled()) {
             LOG.trace("Match: {}, toMatch: {}, matcher: {}",
                     Matcher.isMatch(match), key, matcher);
@@ -127,11 +286,18 @@ abstract class AbstractRateLimiterComposite<K> implements RateLimiter {
         return match;
     }
 
-    private String matchAt(RateContext<K> rateContext, int i, String mainMatch) {
+    private MatchKey matchAt(RateContext<K> rateContext, int i, String mainMatch,
+            BiConsumer<String, RateLimiter> visitor) {
 
         final Matcher<K> matcher = rateContext.getLimitMatchers().get(i);
 
+        final long startNanos = latencyHistograms.startNanos();
         final String match = matcher.match(key);
+        latencyHistograms.record(LatencyHistograms.Phase.MATCH, startNanos);
+        recordMatcherEvaluated(rateContext, match);
+        if (visitor instanceof TracingVisitor) {
+            ((TracingVisitor)visitor).getTrace().matcher(rateContext.getId(), i, matcher, match);
+        }
 
         if (LOG.isTraceEnabled()) {
             LOG.trace("Match: {}, node[{}] toMatch: {}, matcher: {}",
@@ -139,10 +305,23 @@ abstract class AbstractRateLimiterComposite<K> implements RateLimiter {
         }
 
         if (!Matcher.isMatch(match)) {
-            return Matchers.NO_MATCH;
+            return null;
+        }
+
+        return rateContext.getMatchKey(i, mainMatch, match);
+    }
+
+    private void recordMatcherEvaluated(RateContext<K> rateContext, String match) {
+        if (metrics != RateLimiterMetrics.NONE) {
+            rateContext.getRecorder(metrics).onMatcherEvaluated(Matcher.isMatch(match));
         }
+    }
 
-        return Matcher.composeResults(mainMatch, match);
+    private RateLimiter meter(RateContext<K> rateContext, MatchKey matchKey, RateLimiter rateLimiter) {
+        if (metrics == RateLimiterMetrics.NONE) {
+            return rateLimiter;
+        }
+        return matchKey.getMeteredRateLimiter(metrics, rateContext.getId(), rateLimiter);
     }
 
     private boolean matchSucceeded(RateContext<K> rateContext, int matchCount) {
@@ -166,7 +345,7 @@ abstract class AbstractRateLimiterComposite<K> implements RateLimiter {
         final int lengthBeforeVisit = builder.length();
         BiConsumer<String, RateLimiter> visitor = (match, rateLimiter) ->
                 builder.append("\n\tmatch=").append(match).append(", limiter=").append(rateLimiter);
-        visitNodes(visitor);
+        visitNodesMatchingKey(visitor);
         if (builder.length() > lengthBeforeVisit) {
             builder.append('\n');
         }
@@ -0,0 +1,301 @@
+package io.github.poshjosh.ratelimiter;
+
+import io.github.poshjosh.ratelimiter.util.Ticker;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * Collects rate limiters, then acquires permits from either all or none of them.
+ *
+ * <p>The bandwidths of all the collected rate limiters are first queried, and permits
+ * acquired only if every bandwidth would grant them. So a request denied by one rate
+ * limiter, does not consume the permits of the others.</p>
+ *
+ * <p>When more than one rate limiter is collected, the lock of each is held while querying
+ * and acquiring; locks are taken in a fixed order, and never held while waiting. For the
+ * rate limiters of the default {@link RateLimiterProvider}, that is the lock they take
+ * themselves, so acquisitions directly from them are excluded too. Other rate limiters are
+ * locked on as objects, and asked first, as they may still deny meanwhile.</p>
+ */
+final class AllOrNothingReservation implements BiConsumer<String, RateLimiter> {
+
+    private static final long DENIED = -1;
+
+    // Locks whose identity hash codes are equal, may be taken in either order. So this lock
+    // is taken first, in which case.
+    private static final Object TIE_LOCK = new Object();
+
+    private static final Comparator<Object> LOCK_ORDER =
+            Comparator.comparingInt(System::identityHashCode);
+
+    // Usually a single rate limiter is matched, for which no array is allocated.
+    private RateLimiter first;
+    private RateLimiter[] rateLimiters;
+    private int count;
+
+    // Set under the locks, when permits may only be acquired after waiting for rate limiters
+    // from which permits may not be reserved. Waits happen after the locks are released.
+    private long retryAfterMicros;
+
+    @Override
+    public void accept(String match, RateLimiter rateLimiter) {
+        if (rateLimiter == RateLimiters.NO_LIMIT) {
+            return;
+        }
+        if (count == 0) {
+            first = rateLimiter;
+            count = 1;
+            return;
+        }
+        // A rate limiter matched more than once, is charged once; however it is wrapped.
+        final RateLimiter unwrapped = ReservingRateLimiter.unwrap(rateLimiter);
+        for (int i = 0; i < count; i++) {
+            if (ReservingRateLimiter.unwrap(get(i)) == unwrapped) {
+                return;
+            }
+        }
+        if (rateLimiters == null) {
+            rateLimiters = new RateLimiter[4];
+            rateLimiters[0] = first;
+        } else if (count == rateLimiters.length) {
+            rateLimiters = Arrays.copyOf(rateLimiters, count * 2);
+        }
+        rateLimiters[count++] = rateLimiter;
+    }
+
+    private RateLimiter get(int i) {
+        return rateLimiters == null ? first : rateLimiters[i];
+    }
+
+    /**
+     * No rate limiter ever waits, unless it is the only one and the current thread is not
+     * virtual. Rather, the longest wait of the rate limiters is computed under the locks. If
+     * within the timeout, permits are reserved from all the rate limiters, then this method
+     * waits once via {@link Ticker#sleepMicrosWithoutInterruption(long)}, outside of any lock.
+     * @param ticker The ticker used by the collected rate limiters
+     * @param permits The number of permits to acquire from each rate limiter
+     * @param timeout The maximum time to wait for permits
+     * @param unit The time unit of the timeout
+     * @return true if permits were acquired from all the rate limiters, otherwise false;
+     * in which case no permits were acquired.
+     */
+    boolean tryAcquire(Ticker ticker, int permits, long timeout, TimeUnit unit) {
+        if (count == 0) {
+            return true;
+        }
+        if (count == 1 && (timeout <= 0 || !VirtualThreads.isCurrentThreadVirtual())) {
+            return first.tryAcquire(permits, timeout, unit);
+        }
+        long timeoutMicros = Math.max(unit.toMicros(timeout), 0);
+        while (true) {
+            final long waitMicros = lockAndReserve(ticker, permits, timeoutMicros, false);
+            if (waitMicros != DENIED) {
+                // Via the ticker, so that time may be simulated, as by the rate limiters.
+                ticker.sleepMicrosWithoutInterruption(waitMicros);
+                return true;
+            }
+            if (retryAfterMicros <= 0) {
+                return false;
+            }
+            ticker.sleepMicrosWithoutInterruption(retryAfterMicros);
+            timeoutMicros -= retryAfterMicros;
+        }
+    }
+
+    /**
+     * Block until permits are acquired from all the rate limiters.
+     *
+     * <p>As for {@link #tryAcquire(Ticker, int, long, TimeUnit)}, permits are reserved under
+     * the locks, then this method waits outside of any lock or monitor. Thus virtual threads
+     * waiting here are not pinned to their carrier threads.</p>
+     * @param ticker The ticker used by the collected rate limiters
+     * @param permits The number of permits to acquire from each rate limiter
+     * @return The time spent waiting, in seconds
+     */
+    double acquire(Ticker ticker, int permits) {
+        if (count == 0) {
+            return 0;
+        }
+        if (count == 1 && !VirtualThreads.isCurrentThreadVirtual()) {
+            return first.acquire(permits);
+        }
+        long waitedMicros = 0;
+        while (true) {
+            final long waitMicros = lockAndReserve(ticker, permits, Long.MAX_VALUE, false);
+            final long sleepMicros = waitMicros != DENIED ? waitMicros : retryAfterMicros;
+            ticker.sleepMicrosWithoutInterruption(sleepMicros);
+            waitedMicros += sleepMicros;
+            if (waitMicros != DENIED) {
+                return (double) waitedMicros / TimeUnit.SECONDS.toMicros(1L);
+            }
+        }
+    }
+
+    /**
+     * Reserve permits from all the rate limiters, without waiting, under the same locks as
+     * {@link #tryAcquire(Ticker, int, long, TimeUnit)}.
+     * @param permits The number of permits to reserve from each rate limiter
+     * @return The time, in micros, until the reserved permits are available from all the
+     * rate limiters.
+     * @throws UnsupportedOperationException If permits may not be reserved from any of the
+     * rate limiters, in which case no permits were reserved.
+     */
+    long reserve(int permits) {
+        if (count == 0) {
+            return 0;
+        }
+        if (count == 1) {
+            // Reserved under the rate limiter's own lock.
+            return ReservingRateLimiter.reserve(first, permits);
+        }
+        return lockAndReserve(null, permits, 0, true);
+    }
+
+    /**
+     * @param rateLimiter The rate limiter to check
+     * @return true if permits may be reserved from the rate limiter, as by
+     * {@link #reserve(RateLimiter, int)}; though for composites, only if permits may be
+     * reserved from each of their matched rate limiters.
+     */
+    static boolean isReservable(RateLimiter rateLimiter) {
+        return rateLimiter instanceof AbstractRateLimiterComposite
+                || ReservingRateLimiter.isReservable(rateLimiter);
+    }
+
+    /**
+     * @param rateLimiter The rate limiter to reserve permits from
+     * @param permits The number of permits to reserve
+     * @return The time, in micros, until the reserved permits are available
+     * @throws UnsupportedOperationException If permits may not be reserved from the rate
+     * limiter, or from any of the rate limiters of a composite.
+     * @see #reserve(int)
+     */
+    static long reserve(RateLimiter rateLimiter, int permits) {
+        if (rateLimiter instanceof AbstractRateLimiterComposite) {
+            return ((AbstractRateLimiterComposite<?>) rateLimiter).reserve(permits);
+        }
+        return ReservingRateLimiter.reserve(rateLimiter, permits);
+    }
+
+    private long lockAndReserve(Ticker ticker, int permits, long timeoutMicros, boolean reserveOnly) {
+        final Object[] locks = new Object[count];
+        boolean ties = false;
+        for (int i = 0; i < count; i++) {
+            locks[i] = lockOf(get(i));
+        }
+        // Locks are always taken in the same order, so that no two threads deadlock.
+        Arrays.sort(locks, LOCK_ORDER);
+        for (int i = 1; i < count; i++) {
+            if (locks[i] != locks[i - 1]
+                    && System.identityHashCode(locks[i]) == System.identityHashCode(locks[i - 1])) {
+                ties = true;
+                break;
+            }
+        }
+        if (ties) {
+            synchronized (TIE_LOCK) {
+                return lockAndReserve(locks, 0, ticker, permits, timeoutMicros, reserveOnly);
+            }
+        }
+        return lockAndReserve(locks, 0, ticker, permits, timeoutMicros, reserveOnly);
+    }
+
+    private long lockAndReserve(Object[] locks, int index,
+            Ticker ticker, int permits, long timeoutMicros, boolean reserveOnly) {
+        if (index < locks.length) {
+            synchronized (locks[index]) {
+                return lockAndReserve(locks, index + 1, ticker, permits, timeoutMicros, reserveOnly);
+            }
+        }
+        if (reserveOnly) {
+            requireReservable();
+            return reserveAll(permits);
+        }
+        return tryReserve(ticker, permits, timeoutMicros);
+    }
+
+    /** @return The time, in micros, until the reserved permits are available, or DENIED */
+    private long tryReserve(Ticker ticker, int permits, long timeoutMicros) {
+        retryAfterMicros = 0;
+        final long nowMicros = ticker.elapsedMicros();
+        long maxWaitMicros = 0;
+        int slowest = 0;
+        for (int i = 0; i < count; i++) {
+            final long wait = get(i).getBandwidth().queryEarliestAvailable(nowMicros) - nowMicros;
+            if (wait > maxWaitMicros) {
+                maxWaitMicros = wait;
+                slowest = i;
+            }
+        }
+        if (maxWaitMicros <= 0) {
+            return tryAcquireAll(permits, -1) ? 0 : DENIED;
+        }
+        if (maxWaitMicros > timeoutMicros) {
+            // Let the slowest rate limiter record its denial. It consumes no permits;
+            // unless they became available meanwhile, in which case so did those of
+            // the faster rate limiters.
+            return get(slowest).tryAcquire(permits, 0, TimeUnit.MICROSECONDS)
+                    && tryAcquireAll(permits, slowest) ? 0 : DENIED;
+        }
+        for (int i = 0; i < count; i++) {
+            if (!ReservingRateLimiter.isReservable(get(i))) {
+                // Waiting for this rate limiter here would block under the locks.
+                retryAfterMicros = maxWaitMicros;
+                return DENIED;
+            }
+        }
+        // As the rate limiters do for timed acquisitions: reserve, then wait.
+        return reserveAll(permits);
+    }
+
+    private boolean tryAcquireAll(int permits, int excludedIndex) {
+        // Rate limiters not guarded by their locks may deny meanwhile, so are asked first.
+        for (int i = 0; i < count; i++) {
+            if (i != excludedIndex && !ReservingRateLimiter.isReservable(get(i))
+                    && !get(i).tryAcquire(permits, 0, TimeUnit.MICROSECONDS)) {
+                return false;
+            }
+        }
+        boolean acquired = true;
+        for (int i = 0; i < count; i++) {
+            if (i != excludedIndex && ReservingRateLimiter.isReservable(get(i))
+                    && !get(i).tryAcquire(permits, 0, TimeUnit.MICROSECONDS)) {
+                acquired = false;
+            }
+        }
+        return acquired;
+    }
+
+    private void requireReservable() {
+        for (int i = 0; i < count; i++) {
+            if (!ReservingRateLimiter.isReservable(get(i))) {
+                throw new UnsupportedOperationException(
+                        "Permits may not be reserved from: " + get(i));
+            }
+        }
+    }
+
+    /** @return The time, in micros, until the reserved permits are available */
+    private long reserveAll(int permits) {
+        long waitMicros = 0;
+        for (int i = 0; i < count; i++) {
+            waitMicros = Math.max(waitMicros, ReservingRateLimiter.reserve(get(i), permits));
+        }
+        return waitMicros;
+    }
+
+    private static Object lockOf(RateLimiter rateLimiter) {
+        final RateLimiter unwrapped = ReservingRateLimiter.unwrap(rateLimiter);
+        // The lock which the core rate limiter takes itself, when acquiring or reserving.
+        return unwrapped instanceof DefaultRateLimiter
+                ? ((DefaultRateLimiter) unwrapped).mutex() : unwrapped;
+    }
+
+    @Override
+    public String toString() {
+        return "AllOrNothingReservation{rateLimiters=" + count + '}';
+    }
+}
@@ -0,0 +1,71 @@
+package io.github.poshjosh.ratelimiter;
+
+import io.github.poshjosh.ratelimiter.util.TimerWheel;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Acquires permits without blocking the caller.
+ *
+ * <p>Permits are reserved immediately, from the matched rate limiters, under the same locks
+ * as {@link RateLimiter#tryAcquire(int)}; the returned future completes when the reserved
+ * permits become available. Pending futures are timed by a single {@link TimerWheel} thread,
+ * rather than by a thread each, then completed on an executor; so that dependent stages do
+ * not run on the timer thread.</p>
+ *
+ * <p>Permits may be reserved from the rate limiters of the default {@link RateLimiterProvider}
+ * (i.e of {@link RateLimiters#of(io.github.poshjosh.ratelimiter.bandwidths.Bandwidth, io.github.poshjosh.ratelimiter.util.Ticker)}),
+ * and from the rate limiters of a {@link RateLimiterRegistry} using that provider. Rate limiters
+ * of other providers only acquire permits, possibly blocking the caller, so are not supported.</p>
+ *
+ * <p>Example:</p>
+ * <pre>
+ * RateLimiter rateLimiter = registry.getRateLimiterOrUnlimited(key);
+ * AsyncRateLimiter.of(rateLimiter).acquireAsync().thenRun(this::callRemoteService);
+ * </pre>
+ */
+public interface AsyncRateLimiter {
+
+    /**
+     * @param rateLimiter The rate limiter to reserve permits from
+     * @return An async rate limiter, whose futures are timed by a shared timer wheel, and
+     * completed on {@link ForkJoinPool#commonPool()}.
+     * @throws UnsupportedOperationException If permits may not be reserved from the rate limiter
+     */
+    static AsyncRateLimiter of(RateLimiter rateLimiter) {
+        return of(rateLimiter, DefaultAsyncRateLimiter.sharedTimerWheel());
+    }
+
+    static AsyncRateLimiter of(RateLimiter rateLimiter, TimerWheel timerWheel) {
+        return of(rateLimiter, timerWheel, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param rateLimiter The rate limiter to reserve permits from
+     * @param timerWheel The timer wheel which times pending futures
+     * @param executor The executor on which pending futures are completed, and thus on which
+     *                 their non-async dependent stages run.
+     * @return An async rate limiter
+     * @throws UnsupportedOperationException If permits may not be reserved from the rate limiter
+     */
+    static AsyncRateLimiter of(RateLimiter rateLimiter, TimerWheel timerWheel, Executor executor) {
+        return new DefaultAsyncRateLimiter(rateLimiter, timerWheel, executor);
+    }
+
+    default CompletableFuture<Double> acquireAsync() {
+        return acquireAsync(1);
+    }
+
+    /**
+     * Reserve the specified number of permits.
+     * @param permits The number of permits to acquire
+     * @return A future which completes when the permits are available, with the time spent
+     * waiting, in seconds. Cancelling the future does not return the reserved permits. If the
+     * timer wheel is closed before then, the future completes exceptionally.
+     * @throws UnsupportedOperationException If permits may not be reserved from any of the
+     * rate limiters matched; in which case no permits were reserved.
+     */
+    CompletableFuture<Double> acquireAsync(int permits);
+}
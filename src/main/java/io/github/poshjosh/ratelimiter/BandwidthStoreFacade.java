@@ -6,6 +6,7 @@ import io.github.poshjosh.ratelimiter.bandwidths.RateToBandwidthConverter;
 import io.github.poshjosh.ratelimiter.model.Rate;
 import io.github.poshjosh.ratelimiter.model.Rates;
 import io.github.poshjosh.ratelimiter.store.BandwidthsStore;
+import io.github.poshjosh.ratelimiter.util.LatencyHistograms;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -19,14 +20,17 @@ final class BandwidthStoreFacade<K> {
 
     private final RateToBandwidthConverter rateToBandwidthConverter;
     private final BandwidthsStore<K> store;
+    private final LatencyHistograms latencyHistograms;
 
     private final ReadWriteLock storeLock = new ReentrantReadWriteLock();
 
     BandwidthStoreFacade(
             RateToBandwidthConverter rateToBandwidthConverter,
-            BandwidthsStore<K> bandwidthsStore) {
+            BandwidthsStore<K> bandwidthsStore,
+            LatencyHistograms latencyHistograms) {
         this.rateToBandwidthConverter = Objects.requireNonNull(rateToBandwidthConverter);
         this.store = Objects.requireNonNull(bandwidthsStore);
+        this.latencyHistograms = Objects.requireNonNull(latencyHistograms);
     }
 
     Bandwidth getOrCreateBandwidth(K key, Rate rate) {
@@ -63,7 +67,9 @@ final class BandwidthStoreFacade<K> {
         }
         return new BandwidthWrapper(bandwidth) {
             @Override public long reserveEarliestAvailable(int permits, long nowMicros) {
+                final long startNanos = latencyHistograms.startNanos();
                 final long result = super.reserveEarliestAvailable(permits, nowMicros);
+                latencyHistograms.record(LatencyHistograms.Phase.RESERVE, startNanos);
                 BandwidthStoreFacade.this.saveBandwidthToStore(key, bandwidth);
                 return result;
             }
@@ -74,21 +80,29 @@ final class BandwidthStoreFacade<K> {
     }
 
     private Bandwidth getBandwidthFromStore(K key) {
+        final long startNanos = latencyHistograms.startNanos();
+        final Object event = JfrEvents.beginStoreAccess();
         try{
             storeLock.readLock().lock();
             return store.get(key);
         }finally {
             storeLock.readLock().unlock();
+            latencyHistograms.record(LatencyHistograms.Phase.STORE, startNanos);
+            JfrEvents.endStoreAccess(event, key, false);
         }
     }
 
     private void saveBandwidthToStore(K key, Bandwidth bandwidth) {
+        final long startNanos = latencyHistograms.startNanos();
+        final Object event = JfrEvents.beginStoreAccess();
         try {
             storeLock.writeLock().lock();
             store.put(key, bandwidth);
             LOG.trace("Saved: {} = {}", key, bandwidth);
         }finally {
             storeLock.writeLock().unlock();
+            latencyHistograms.record(LatencyHistograms.Phase.STORE, startNanos);
+            JfrEvents.endStoreAccess(event, key, true);
         }
     }
 
@@ -1,8 +1,10 @@
 package io.github.poshjosh.ratelimiter;
 
 import io.github.poshjosh.ratelimiter.annotation.RateId;
+import io.github.poshjosh.ratelimiter.util.Ticker;
 
 import java.lang.reflect.Method;
+import java.util.Collection;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
@@ -38,6 +40,14 @@ final class CachingRateLimiterRegistry<K> implements RateLimiterRegistry<K> {
         return delegate.register(source);
     }
 
+    @Override public DecisionTrace explain(K key, int permits) {
+        return delegate.explain(key, permits);
+    }
+
+    @Override public boolean tryAcquireAll(Collection<? extends K> keys, int permits) {
+        return delegate.tryAcquireAll(keys, permits);
+    }
+
     @Override public Optional<RateLimiter> getRateLimiterOptional(K key) {
         final RateLimiter fromCache = getRateLimiterFromCacheOrNull(key);
         if (fromCache != null) {
@@ -65,6 +75,10 @@ final class CachingRateLimiterRegistry<K> implements RateLimiterRegistry<K> {
                 .map(rateLimiter -> addRateLimiterToCache(RateId.of(method), rateLimiter));
     }
 
+    @Override public Ticker getTicker() {
+        return delegate.getTicker();
+    }
+
     @Override public boolean isRegistered(String name) {
         return delegate.isRegistered(name);
     }
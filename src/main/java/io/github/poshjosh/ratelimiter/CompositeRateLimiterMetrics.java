@@ -0,0 +1,59 @@
+package io.github.poshjosh.ratelimiter;
+
+import io.github.poshjosh.ratelimiter.util.LatencyHistograms;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Records to 2 metrics. Snapshots are combined.
+ */
+final class CompositeRateLimiterMetrics implements RateLimiterMetrics {
+
+    private final RateLimiterMetrics first;
+    private final RateLimiterMetrics second;
+
+    CompositeRateLimiterMetrics(RateLimiterMetrics first, RateLimiterMetrics second) {
+        this.first = Objects.requireNonNull(first);
+        this.second = Objects.requireNonNull(second);
+    }
+
+    @Override
+    public Recorder getRecorder(String nodeId, String key) {
+        final Recorder a = first.getRecorder(nodeId, key);
+        final Recorder b = second.getRecorder(nodeId, key);
+        return new Recorder() {
+            @Override public void onMatcherEvaluated(boolean matched) {
+                a.onMatcherEvaluated(matched);
+                b.onMatcherEvaluated(matched);
+            }
+            @Override public void onPermitsGranted(int permits, long waitNanos) {
+                a.onPermitsGranted(permits, waitNanos);
+                b.onPermitsGranted(permits, waitNanos);
+            }
+            @Override public void onPermitsDenied(int permits) {
+                a.onPermitsDenied(permits);
+                b.onPermitsDenied(permits);
+            }
+        };
+    }
+
+    @Override
+    public LatencyHistograms getLatencyHistograms() {
+        final LatencyHistograms latencyHistograms = first.getLatencyHistograms();
+        return latencyHistograms.isEnabled() ? latencyHistograms : second.getLatencyHistograms();
+    }
+
+    @Override
+    public List<Snapshot> snapshot() {
+        final List<Snapshot> result = new ArrayList<>(first.snapshot());
+        result.addAll(second.snapshot());
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "CompositeRateLimiterMetrics{" + first + ", " + second + '}';
+    }
+}
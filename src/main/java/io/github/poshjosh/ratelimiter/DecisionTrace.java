@@ -0,0 +1,183 @@
+package io.github.poshjosh.ratelimiter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A structured trace of a rate limiting decision: the nodes visited, the result of each
+ * matcher evaluated, and the rate limiters consulted, with their outcome and wait time.
+ *
+ * @see DecisionTracer
+ * @see RateLimiterRegistry#explain(Object, int)
+ */
+public final class DecisionTrace {
+
+    static Builder builder(Object key, int permits) {
+        return new Builder(key, permits);
+    }
+
+    public enum StepType { MATCHER, LIMITER }
+
+    public static final class Step {
+        private final StepType type;
+        private final String nodeId;
+        private final int index;
+        private final String subject;
+        private final String match;
+        private final boolean granted;
+        private final long waitNanos;
+
+        private Step(StepType type, String nodeId, int index, String subject,
+                String match, boolean granted, long waitNanos) {
+            this.type = Objects.requireNonNull(type);
+            this.nodeId = nodeId;
+            this.index = index;
+            this.subject = subject;
+            this.match = match;
+            this.granted = granted;
+            this.waitNanos = waitNanos;
+        }
+
+        public StepType getType() { return type; }
+
+        /** @return The id of the node at which this step happened */
+        public String getNodeId() { return nodeId; }
+
+        /** @return The index of the limit matcher, or {@code -1} for the main matcher */
+        public int getIndex() { return index; }
+
+        /** @return The matcher evaluated, or the bandwidth of the rate limiter consulted */
+        public String getSubject() { return subject; }
+
+        /** @return The result of the match; {@code null} or empty, if there was no match */
+        public String getMatch() { return match; }
+
+        /** @return For limiter steps, true if the permits were (or would be) granted */
+        public boolean isGranted() { return granted; }
+
+        /** @return For limiter steps, the time waited (or that would be waited) for permits */
+        public long getWaitNanos() { return waitNanos; }
+
+        @Override public String toString() {
+            if (type == StepType.MATCHER) {
+                return "Step{MATCHER, node=" + nodeId + ", index=" + index + ", match="
+                        + match + ", matcher=" + subject + '}';
+            }
+            return "Step{LIMITER, node=" + nodeId + ", match=" + match + ", granted=" + granted
+                    + ", waitNanos=" + waitNanos + ", bandwidth=" + subject + '}';
+        }
+    }
+
+    private final String key;
+    private final int permits;
+    private final boolean granted;
+    private final long waitNanos;
+    private final List<Step> steps;
+
+    private DecisionTrace(String key, int permits, boolean granted,
+            long waitNanos, List<Step> steps) {
+        this.key = key;
+        this.permits = permits;
+        this.granted = granted;
+        this.waitNanos = waitNanos;
+        this.steps = Collections.unmodifiableList(steps);
+    }
+
+    public String getKey() { return key; }
+
+    public int getPermits() { return permits; }
+
+    public boolean isGranted() { return granted; }
+
+    public long getWaitNanos() { return waitNanos; }
+
+    public List<Step> getSteps() { return steps; }
+
+    /** @return The limiter steps which denied permits */
+    public List<Step> getDenials() {
+        final List<Step> result = new ArrayList<>();
+        for (Step step : steps) {
+            if (step.getType() == StepType.LIMITER && !step.isGranted()) {
+                result.add(step);
+            }
+        }
+        return result;
+    }
+
+    @Override public String toString() {
+        final StringBuilder builder = new StringBuilder(128 + steps.size() * 96)
+                .append("DecisionTrace{key=").append(key).append(", permits=").append(permits)
+                .append(", granted=").append(granted).append(", waitNanos=").append(waitNanos);
+        for (Step step : steps) {
+            builder.append("\n\t").append(step);
+        }
+        return builder.append('}').toString();
+    }
+
+    /**
+     * Collects the steps of a single decision. Not thread-safe.
+     */
+    static final class Builder {
+        private final String key;
+        private final int permits;
+        private final List<Step> steps = new ArrayList<>();
+        private String nodeId;
+
+        private Builder(Object key, int permits) {
+            this.key = String.valueOf(key);
+            this.permits = permits;
+        }
+
+        Builder matcher(String nodeId, int index, Object matcher, String match) {
+            this.nodeId = nodeId;
+            steps.add(new Step(StepType.MATCHER, nodeId, index,
+                    String.valueOf(matcher), match, false, 0));
+            return this;
+        }
+
+        /** Adds a limiter step, at the node of the last matcher step */
+        Builder limiter(String match, Object bandwidth, boolean granted, long waitNanos) {
+            steps.add(new Step(StepType.LIMITER, nodeId, -1,
+                    String.valueOf(bandwidth), match, granted, waitNanos));
+            return this;
+        }
+
+        /** @return true, if a rate limiter took part in the decision */
+        boolean hasLimiterSteps() {
+            for (Step step : steps) {
+                if (step.getType() == StepType.LIMITER) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /** @return The index of the next step to be added */
+        int nextStepIndex() {
+            return steps.size();
+        }
+
+        /** Sets the outcome of the limiter step at the index */
+        Builder outcome(int stepIndex, boolean granted, long waitNanos) {
+            final Step step = steps.get(stepIndex);
+            steps.set(stepIndex, new Step(step.type, step.nodeId, step.index,
+                    step.subject, step.match, granted, waitNanos));
+            return this;
+        }
+
+        /** @return A trace, which is granted only if all its limiter steps are granted */
+        DecisionTrace build() {
+            long waitNanos = 0;
+            boolean granted = true;
+            for (Step step : steps) {
+                if (step.getType() == StepType.LIMITER) {
+                    granted &= step.isGranted();
+                    waitNanos += step.getWaitNanos();
+                }
+            }
+            return new DecisionTrace(key, permits, granted, waitNanos, new ArrayList<>(steps));
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package io.github.poshjosh.ratelimiter;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Traces a sample of rate limiting decisions.
+ *
+ * <p>Register via {@link RateLimiterContext.Builder#decisionTracer(DecisionTracer)}.
+ * {@link #isSampled()} is called once per decision, on the request path. Only when it
+ * returns true, is the decision traced and passed to {@link #onTraced(DecisionTrace)}.</p>
+ */
+public interface DecisionTracer {
+
+    DecisionTracer NONE = new DecisionTracer() {
+        @Override public boolean isSampled() { return false; }
+        @Override public void onTraced(DecisionTrace trace) { }
+        @Override public String toString() { return "DecisionTracer$NONE"; }
+    };
+
+    /**
+     * Trace 1 in {@code oneIn} decisions (at random), into a lock-free ring buffer holding
+     * the last {@code capacity} traces. Cheap enough to be left on in production.
+     * @param oneIn The sampling rate; {@code 1} traces every decision.
+     * @param capacity The number of traces to keep. Rounded up to a power of 2.
+     * @return A sampling tracer, whose traces are returned by {@link #getRecent()}.
+     */
+    static DecisionTracer sampling(int oneIn, int capacity) {
+        return new SamplingDecisionTracer(oneIn, capacity);
+    }
+
+    /** @return true, if the current decision should be traced */
+    boolean isSampled();
+
+    void onTraced(DecisionTrace trace);
+
+    /**
+     * @return The most recent traces, oldest first. The default implementation returns an
+     * empty list.
+     */
+    default List<DecisionTrace> getRecent() {
+        return Collections.emptyList();
+    }
+}
@@ -0,0 +1,81 @@
+package io.github.poshjosh.ratelimiter;
+
+import io.github.poshjosh.ratelimiter.util.TimerWheel;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+final class DefaultAsyncRateLimiter implements AsyncRateLimiter {
+
+    private static final class SharedTimerWheel {
+        private static final TimerWheel INSTANCE = TimerWheel.ofDefaults();
+    }
+
+    static TimerWheel sharedTimerWheel() {
+        return SharedTimerWheel.INSTANCE;
+    }
+
+    private final RateLimiter rateLimiter;
+    private final TimerWheel timerWheel;
+    private final Executor executor;
+
+    DefaultAsyncRateLimiter(RateLimiter rateLimiter, TimerWheel timerWheel, Executor executor) {
+        if (!AllOrNothingReservation.isReservable(rateLimiter)) {
+            throw new UnsupportedOperationException(
+                    "Permits may not be reserved from: " + rateLimiter);
+        }
+        this.rateLimiter = rateLimiter;
+        this.timerWheel = Objects.requireNonNull(timerWheel);
+        this.executor = Objects.requireNonNull(executor);
+    }
+
+    @Override
+    public CompletableFuture<Double> acquireAsync(int permits) {
+        if (permits <= 0) {
+            throw new IllegalArgumentException("Permits must be positive, found: " + permits);
+        }
+        final long waitMicros = Math.max(AllOrNothingReservation.reserve(rateLimiter, permits), 0);
+        final double waitSeconds = (double) waitMicros / TimeUnit.SECONDS.toMicros(1L);
+        if (waitMicros == 0) {
+            return CompletableFuture.completedFuture(waitSeconds);
+        }
+        final PendingFuture future = new PendingFuture(executor, waitSeconds);
+        try {
+            timerWheel.schedule(future, waitMicros, TimeUnit.MICROSECONDS);
+        } catch (IllegalStateException e) { // The timer wheel is closed
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Run by the timer wheel when the reserved permits are available; or cancelled by it, if
+     * it is closed before then.
+     */
+    private static final class PendingFuture extends CompletableFuture<Double> implements Runnable {
+        private final Executor executor;
+        private final double waitSeconds;
+        private PendingFuture(Executor executor, double waitSeconds) {
+            this.executor = executor;
+            this.waitSeconds = waitSeconds;
+        }
+        @Override public void run() {
+            // Dependent stages run on the thread which completes the future. So that they do
+            // not hold up the timer thread, the future is completed on the executor.
+            try {
+                executor.execute(() -> complete(waitSeconds));
+            } catch (RejectedExecutionException e) {
+                completeExceptionally(e);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "DefaultAsyncRateLimiter{rateLimiter=" + rateLimiter + ", timerWheel=" + timerWheel
+                + ", executor=" + executor + '}';
+    }
+}
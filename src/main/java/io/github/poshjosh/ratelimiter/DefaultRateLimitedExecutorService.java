@@ -0,0 +1,291 @@
+package io.github.poshjosh.ratelimiter;
+
+import io.github.poshjosh.ratelimiter.util.Ticker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Pending tasks are held in a FIFO queue per key. The scheduler thread keeps a heap of the
+ * keys having pending tasks, ordered by when their next permit is due; so each permit
+ * granted costs O(log keys), however many tasks are pending.
+ */
+final class DefaultRateLimitedExecutorService<K> extends AbstractExecutorService
+        implements RateLimitedExecutorService<K> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DefaultRateLimitedExecutorService.class);
+
+    // If permits are not acquired when due (e.g because they were acquired elsewhere),
+    // wait at least this long before trying again.
+    private static final long MIN_RETRY_MICROS = 1_000;
+
+    private final RateLimiterRegistry<K> registry;
+    private final K defaultKey;
+    private final ExecutorService delegate;
+    private final Ticker ticker;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final Map<K, KeyQueue<K>> queues = new HashMap<>();
+    private final PriorityQueue<KeyQueue<K>> due = new PriorityQueue<>(
+            Comparator.comparingLong((KeyQueue<K> queue) -> queue.dueMicros)
+                    .thenComparingLong(queue -> queue.sequence));
+    private final Thread scheduler;
+    private long sequence;
+    private boolean shutdown;
+
+    /**
+     * @return A new executor service, whose scheduler thread is started once constructed
+     * @see RateLimitedExecutorService#of(RateLimiterRegistry, Object, ExecutorService)
+     */
+    static <K> DefaultRateLimitedExecutorService<K> start(
+            RateLimiterRegistry<K> registry, K defaultKey, ExecutorService delegate) {
+        final DefaultRateLimitedExecutorService<K> executor =
+                new DefaultRateLimitedExecutorService<>(registry, defaultKey, delegate);
+        executor.scheduler.start();
+        return executor;
+    }
+
+    private DefaultRateLimitedExecutorService(
+            RateLimiterRegistry<K> registry, K defaultKey, ExecutorService delegate) {
+        this.registry = Objects.requireNonNull(registry);
+        this.defaultKey = Objects.requireNonNull(defaultKey);
+        this.delegate = Objects.requireNonNull(delegate);
+        // The ticker of the rate limiters, as the times compared are those of their bandwidths
+        this.ticker = Objects.requireNonNull(registry.getTicker());
+        this.scheduler = new Thread(this::schedule, "rate-limited-executor-scheduler");
+        this.scheduler.setDaemon(true);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        execute(defaultKey, task);
+    }
+
+    @Override
+    public void execute(K key, Runnable task) {
+        Objects.requireNonNull(key);
+        Objects.requireNonNull(task);
+        // Resolve and acquire outside the lock, as either may be slow (e.g matching, or a remote store)
+        final RateLimiter rateLimiter = registry.getRateLimiterOrUnlimited(key);
+        // Fast path, no task of this key is pending
+        if (!hasPendingTasks(key, task) && rateLimiter.tryAcquire()) {
+            delegate.execute(task);
+            return;
+        }
+        final long earliestAvailable = earliestAvailableMicros(rateLimiter);
+        lock.lock();
+        try {
+            requireNotShutdown(task);
+            KeyQueue<K> queue = queues.get(key);
+            if (queue == null) {
+                queue = new KeyQueue<>(key, rateLimiter);
+                queues.put(key, queue);
+                schedule(queue, earliestAvailable);
+            }
+            queue.tasks.add(task);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @throws RejectedExecutionException If shutdown
+     */
+    private boolean hasPendingTasks(K key, Runnable task) {
+        lock.lock();
+        try {
+            requireNotShutdown(task);
+            return queues.containsKey(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void requireNotShutdown(Object task) {
+        if (shutdown) {
+            throw new RejectedExecutionException("Shutdown, rejected task: " + task);
+        }
+    }
+
+    @Override
+    public <T> Future<T> submit(K key, Callable<T> task) {
+        final RunnableFuture<T> future = newTaskFor(task);
+        execute(key, future);
+        return future;
+    }
+
+    @Override
+    public Future<?> submit(K key, Runnable task) {
+        final RunnableFuture<Void> future = newTaskFor(task, null);
+        execute(key, future);
+        return future;
+    }
+
+    private long earliestAvailableMicros(RateLimiter rateLimiter) {
+        return rateLimiter.getBandwidth().queryEarliestAvailable(ticker.elapsedMicros());
+    }
+
+    // Call while holding the lock
+    private void schedule(KeyQueue<K> queue, long earliestAvailable) {
+        final long nowMicros = ticker.elapsedMicros();
+        queue.dueMicros = Math.max(earliestAvailable, nowMicros + (queue.retry ? MIN_RETRY_MICROS : 0));
+        queue.sequence = sequence++;
+        due.add(queue);
+        if (due.peek() == queue) {
+            changed.signal();
+        }
+    }
+
+    private void schedule() {
+        try {
+            KeyQueue<K> queue;
+            while ((queue = awaitDue()) != null) {
+                // Acquire, and hand the task to the delegate, outside the lock
+                final boolean acquired = queue.rateLimiter.tryAcquire();
+                final long earliestAvailable = earliestAvailableMicros(queue.rateLimiter);
+                final Runnable task = next(queue, acquired, earliestAvailable);
+                if (task != null) {
+                    release(task);
+                }
+            }
+        } catch (InterruptedException e) {
+            LOG.debug("Interrupted, {} keys have pending tasks", queues.size());
+            Thread.currentThread().interrupt();
+        } finally {
+            delegate.shutdown();
+        }
+    }
+
+    /**
+     * @return The queue whose next permit is due, or null if shutdown and no tasks are pending
+     */
+    private KeyQueue<K> awaitDue() throws InterruptedException {
+        lock.lock();
+        try {
+            while (!shutdown || !due.isEmpty()) {
+                final KeyQueue<K> queue = due.peek();
+                if (queue == null) {
+                    changed.await();
+                    continue;
+                }
+                final long waitMicros = queue.dueMicros - ticker.elapsedMicros();
+                if (waitMicros > 0) {
+                    changed.awaitNanos(TimeUnit.MICROSECONDS.toNanos(waitMicros));
+                    continue;
+                }
+                return due.poll();
+            }
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return The task to release, if permits were acquired; otherwise null
+     */
+    private Runnable next(KeyQueue<K> queue, boolean acquired, long earliestAvailable) {
+        lock.lock();
+        try {
+            if (queues.get(queue.key) != queue) {
+                return null; // Cleared by shutdownNow, which returns the pending tasks
+            }
+            queue.retry = !acquired;
+            final Runnable task = acquired ? queue.tasks.poll() : null;
+            if (queue.tasks.isEmpty()) {
+                queues.remove(queue.key);
+            } else {
+                schedule(queue, earliestAvailable);
+            }
+            return task;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release(Runnable task) {
+        try {
+            delegate.execute(task);
+        } catch (RejectedExecutionException e) {
+            LOG.warn("Delegate rejected task: " + task, e);
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        lock.lock();
+        try {
+            shutdown = true;
+            changed.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        final List<Runnable> pending = new ArrayList<>();
+        lock.lock();
+        try {
+            shutdown = true;
+            for (KeyQueue<K> queue : due) {
+                pending.addAll(queue.tasks);
+            }
+            due.clear();
+            queues.clear();
+            changed.signal();
+        } finally {
+            lock.unlock();
+        }
+        pending.addAll(delegate.shutdownNow());
+        return pending;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        lock.lock();
+        try {
+            return shutdown;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return !scheduler.isAlive() && delegate.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        final long deadline = System.nanoTime() + unit.toNanos(timeout);
+        TimeUnit.NANOSECONDS.timedJoin(scheduler, Math.max(1, deadline - System.nanoTime()));
+        if (scheduler.isAlive()) {
+            return false;
+        }
+        return delegate.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public String toString() {
+        return "DefaultRateLimitedExecutorService{delegate=" + delegate + ", pendingKeys=" + due.size() + '}';
+    }
+
+    private static final class KeyQueue<K> {
+        private final K key;
+        private final RateLimiter rateLimiter;
+        private final Queue<Runnable> tasks = new ArrayDeque<>();
+        private long dueMicros;
+        private long sequence;
+        private boolean retry;
+        private KeyQueue(K key, RateLimiter rateLimiter) {
+            this.key = key;
+            this.rateLimiter = rateLimiter;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package io.github.poshjosh.ratelimiter;
+
+import io.github.poshjosh.ratelimiter.util.LatencyHistograms;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records to {@link LongAdder}s, which are striped across threads under contention.
+ * Snapshots only read the adders, and thus neither lock nor block recording.
+ *
+ * <p>The number of keys per node is bounded. Concurrent first recordings may exceed the
+ * bound by at most the number of recording threads.</p>
+ */
+final class DefaultRateLimiterMetrics implements RateLimiterMetrics {
+
+    private final int maxKeysPerNode;
+    private final LatencyHistograms latencyHistograms;
+    private final ConcurrentMap<String, Counters> nodeCounters = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, KeyCounters> keyCounters = new ConcurrentHashMap<>();
+
+    DefaultRateLimiterMetrics(int maxKeysPerNode, LatencyHistograms latencyHistograms) {
+        this.maxKeysPerNode = maxKeysPerNode;
+        this.latencyHistograms = Objects.requireNonNull(latencyHistograms);
+    }
+
+    @Override
+    public Recorder getRecorder(String nodeId, String key) {
+        if (key == null) {
+            return nodeCounters.computeIfAbsent(nodeId, k -> new Counters());
+        }
+        return keyCounters.computeIfAbsent(nodeId, k -> new KeyCounters()).get(key, maxKeysPerNode);
+    }
+
+    @Override
+    public LatencyHistograms getLatencyHistograms() {
+        return latencyHistograms;
+    }
+
+    @Override
+    public List<Snapshot> snapshot() {
+        final List<Snapshot> result = new ArrayList<>();
+        nodeCounters.forEach((nodeId, counters) -> result.add(counters.snapshot(nodeId, null)));
+        keyCounters.forEach((nodeId, counters) -> counters.snapshot(nodeId, result));
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "DefaultRateLimiterMetrics{nodes=" + nodeCounters.size()
+                + ", maxKeysPerNode=" + maxKeysPerNode
+                + ", latencyHistograms=" + latencyHistograms + '}';
+    }
+
+    private static final class KeyCounters {
+        private final ConcurrentMap<String, Counters> counters = new ConcurrentHashMap<>();
+        private final Counters otherKeys = new Counters();
+        private volatile boolean otherKeysRecorded;
+
+        private Recorder get(String key, int maxKeys) {
+            final Counters existing = counters.get(key);
+            if (existing != null) {
+                return existing;
+            }
+            if (counters.size() >= maxKeys) {
+                otherKeysRecorded = true;
+                return otherKeys;
+            }
+            return counters.computeIfAbsent(key, k -> new Counters());
+        }
+
+        private void snapshot(String nodeId, List<Snapshot> result) {
+            counters.forEach((key, keyCounters) -> result.add(keyCounters.snapshot(nodeId, key)));
+            if (otherKeysRecorded) {
+                result.add(otherKeys.snapshot(nodeId, OTHER_KEYS));
+            }
+        }
+    }
+
+    private static final class Counters implements Recorder {
+        private final LongAdder matcherEvaluations = new LongAdder();
+        private final LongAdder matches = new LongAdder();
+        private final LongAdder permitsGranted = new LongAdder();
+        private final LongAdder permitsDenied = new LongAdder();
+        private final LongAdder waitNanos = new LongAdder();
+
+        @Override public void onMatcherEvaluated(boolean matched) {
+            matcherEvaluations.increment();
+            if (matched) {
+                matches.increment();
+            }
+        }
+
+        @Override public void onPermitsGranted(int permits, long waitNanos) {
+            permitsGranted.add(permits);
+            if (waitNanos > 0) {
+                this.waitNanos.add(waitNanos);
+            }
+        }
+
+        @Override public void onPermitsDenied(int permits) {
+            permitsDenied.add(permits);
+        }
+
+        private Snapshot snapshot(String nodeId, String key) {
+            return new Snapshot(nodeId, key, matcherEvaluations.sum(), matches.sum(),
+                    permitsGranted.sum(), permitsDenied.sum(), waitNanos.sum());
+        }
+    }
+}
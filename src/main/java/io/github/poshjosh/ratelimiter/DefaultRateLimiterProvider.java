@@ -6,6 +6,7 @@ import io.github.poshjosh.ratelimiter.bandwidths.RateToBandwidthConverter;
 import io.github.poshjosh.ratelimiter.model.Rate;
 import io.github.poshjosh.ratelimiter.model.Rates;
 import io.github.poshjosh.ratelimiter.store.BandwidthsStore;
+import io.github.poshjosh.ratelimiter.util.LatencyHistograms;
 import io.github.poshjosh.ratelimiter.util.Ticker;
 
 import java.util.*;
@@ -20,31 +21,38 @@ final class DefaultRateLimiterProvider implements RateLimiterProvider {
     DefaultRateLimiterProvider(
             RateToBandwidthConverter rateToBandwidthConverter,
             BandwidthsStore<?> bandwidthStore,
-            Ticker ticker) {
-        this.bandwidthStoreFacade =
-                new BandwidthStoreFacade<>(rateToBandwidthConverter, bandwidthStore);
+            Ticker ticker,
+            LatencyHistograms latencyHistograms) {
+        this.bandwidthStoreFacade = new BandwidthStoreFacade<>(
+                rateToBandwidthConverter, bandwidthStore, latencyHistograms);
         this.ticker = Objects.requireNonNull(ticker);
         this.keyToRateLimiterMap = new WeakHashMap<>();
     }
 
     @Override
     public RateLimiter getRateLimiter(String key, Rate rate) {
-        RateLimiter rateLimiter;
-        if ((rateLimiter = this.keyToRateLimiterMap.get(key)) == null) {
-            rateLimiter = createRateLimiter(key, rate);
-            this.keyToRateLimiterMap.put(key, rateLimiter);
+        // One rate limiter per key; as its lock guards the permits of the key.
+        synchronized (keyToRateLimiterMap) {
+            RateLimiter rateLimiter;
+            if ((rateLimiter = this.keyToRateLimiterMap.get(key)) == null) {
+                rateLimiter = createRateLimiter(key, rate);
+                this.keyToRateLimiterMap.put(key, rateLimiter);
+            }
+            return rateLimiter;
         }
-        return rateLimiter;
     }
 
     @Override
     public RateLimiter getRateLimiter(String key, Rates rates) {
-        RateLimiter rateLimiter;
-        if ((rateLimiter = this.keyToRateLimiterMap.get(key)) == null) {
-            rateLimiter = createRateLimiter(key, rates);
-            this.keyToRateLimiterMap.put(key, rateLimiter);
+        // One rate limiter per key; as its lock guards the permits of the key.
+        synchronized (keyToRateLimiterMap) {
+            RateLimiter rateLimiter;
+            if ((rateLimiter = this.keyToRateLimiterMap.get(key)) == null) {
+                rateLimiter = createRateLimiter(key, rates);
+                this.keyToRateLimiterMap.put(key, rateLimiter);
+            }
+            return rateLimiter;
         }
-        return rateLimiter;
     }
 
     private RateLimiter createRateLimiter(String key, Rate rate) {
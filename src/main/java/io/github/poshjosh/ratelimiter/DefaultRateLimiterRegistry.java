@@ -3,21 +3,27 @@ package io.github.poshjosh.ratelimiter;
 import io.github.poshjosh.ratelimiter.annotation.AnnotationConverter;
 import io.github.poshjosh.ratelimiter.annotation.RateId;
 import io.github.poshjosh.ratelimiter.annotation.JavaRateSource;
+import io.github.poshjosh.ratelimiter.annotation.RateProcessors;
 import io.github.poshjosh.ratelimiter.model.RateConfig;
 import io.github.poshjosh.ratelimiter.model.RateSource;
 import io.github.poshjosh.ratelimiter.model.Rates;
 import io.github.poshjosh.ratelimiter.node.Node;
 import io.github.poshjosh.ratelimiter.node.Nodes;
+import io.github.poshjosh.ratelimiter.util.Ticker;
 
 import java.lang.reflect.GenericDeclaration;
 import java.lang.reflect.Method;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 final class DefaultRateLimiterRegistry<K> implements RateLimiterRegistry<K> {
 
     private final RateLimiterContext<K> context;
     private final RootNodes<K> rootNodes;
     private final AnnotationConverter annotationConverter;
+    private final RateLimiterMetrics metrics;
+    // Null, unless fair queueing is enabled
+    private final FifoWaitQueues<K> waitQueues;
 
     DefaultRateLimiterRegistry(
             RateLimiterContext<K> context,
@@ -26,6 +32,10 @@ final class DefaultRateLimiterRegistry<K> implements RateLimiterRegistry<K> {
         this.context = Objects.requireNonNull(context);
         this.annotationConverter = Objects.requireNonNull(annotationConverter);
         this.rootNodes = Objects.requireNonNull(rootNodes);
+        this.metrics = Objects.requireNonNull(context.getMetrics());
+        final FairQueueing fairQueueing = context.getFairQueueing();
+        this.waitQueues = fairQueueing.isEnabled()
+                ? new FifoWaitQueues<>(fairQueueing.getMaxDepth()) : null;
     }
 
     @Override
@@ -33,7 +43,7 @@ final class DefaultRateLimiterRegistry<K> implements RateLimiterRegistry<K> {
         if (isRegistered(source)) {
             return this;
         }
-        addRateContextToAnnotationsRoot(source);
+        addRateContextsToAnnotationsRoot(source);
         return this;
     }
 
@@ -67,6 +77,44 @@ final class DefaultRateLimiterRegistry<K> implements RateLimiterRegistry<K> {
         return Optional.ofNullable(getGenericRateLimiterOrNull(method));
     }
 
+    @Override
+    public DecisionTrace explain(K key, int permits) {
+        final DecisionTrace.Builder trace = DecisionTrace.builder(key, permits);
+        if (!context.isRateLimited()) {
+            return trace.build();
+        }
+        // Properties take precedence over annotations
+        if (rootNodes.hasProperties()) {
+            createPropertisRateLimiter(key).explain(context.getTicker(), trace);
+        }
+        if (rootNodes.hasAnnotations()) {
+            createAnnotationsRateLimiter(key).explain(context.getTicker(), trace);
+        }
+        return trace.build();
+    }
+
+    @Override
+    public boolean tryAcquireAll(Collection<? extends K> keys, int permits) {
+        if (!context.isRateLimited()) {
+            return true;
+        }
+        final AllOrNothingReservation reservation = new AllOrNothingReservation();
+        for (K key : keys) {
+            if (rootNodes.hasProperties()) {
+                createPropertisRateLimiter(key).visitRateLimiters(reservation);
+            }
+            if (rootNodes.hasAnnotations()) {
+                createAnnotationsRateLimiter(key).visitRateLimiters(reservation);
+            }
+        }
+        return reservation.tryAcquire(context.getTicker(), permits, 0, TimeUnit.MICROSECONDS);
+    }
+
+    @Override
+    public Ticker getTicker() {
+        return context.getTicker();
+    }
+
     @Override
     public boolean isRegistered(String id) {
         return rootNodes.getPropertiesRootNode().findFirstChild(node -> isName(id, node)).isPresent()
@@ -93,25 +141,37 @@ final class DefaultRateLimiterRegistry<K> implements RateLimiterRegistry<K> {
             return createPropertisRateLimiter(key);
         }
         // Properties take precedence over annotations
-        return RateLimiters.of(createPropertisRateLimiter(key), createAnnotationsRateLimiter(key));
+        return new RateLimiterCompositeArray<>(key,
+                context.getRateLimiterProvider(), context.getMatcherProvider(),
+                context.getTicker(), metrics,
+                context.getDecisionTracer(), waitQueues,
+                createPropertisRateLimiter(key), createAnnotationsRateLimiter(key));
     }
 
-    private RateLimiter createPropertisRateLimiter(K key){
+    private AbstractRateLimiterComposite<K> createPropertisRateLimiter(K key){
         if (RateContext.IS_BOTTOM_UP_TRAVERSAL) {
-            return new RateLimiterCompositeBottomUp<>(key,
-                    rootNodes.getPropertiesLeafNodes(), context.getRateLimiterProvider());
+            return new RateLimiterCompositeBottomUp<>(key, rootNodes.getPropertiesLeafNodes(key),
+                    context.getRateLimiterProvider(), context.getMatcherProvider(),
+                context.getTicker(), metrics,
+                    context.getDecisionTracer(), waitQueues);
         }
-        return new RateLimiterComposite<>(key,
-                rootNodes.getPropertiesRootNode(), context.getRateLimiterProvider());
+        return new RateLimiterComposite<>(key, rootNodes.getPropertiesRootNode(),
+                context.getRateLimiterProvider(), context.getMatcherProvider(),
+                context.getTicker(), metrics,
+                context.getDecisionTracer(), waitQueues);
     }
 
-    private RateLimiter createAnnotationsRateLimiter(K key){
+    private AbstractRateLimiterComposite<K> createAnnotationsRateLimiter(K key){
         if (RateContext.IS_BOTTOM_UP_TRAVERSAL) {
-            return new RateLimiterCompositeBottomUp<>(key,
-                    rootNodes.getAnnotationsLeafNodes(), context.getRateLimiterProvider());
+            return new RateLimiterCompositeBottomUp<>(key, rootNodes.getAnnotationsLeafNodes(key),
+                    context.getRateLimiterProvider(), context.getMatcherProvider(),
+                context.getTicker(), metrics,
+                    context.getDecisionTracer(), waitQueues);
         }
-        return new RateLimiterComposite<>(key,
-                rootNodes.getAnnotationsRootNode(), context.getRateLimiterProvider());
+        return new RateLimiterComposite<>(key, rootNodes.getAnnotationsRootNode(),
+                context.getRateLimiterProvider(), context.getMatcherProvider(),
+                context.getTicker(), metrics,
+                context.getDecisionTracer(), waitQueues);
     }
 
     private RateLimiter getGenericRateLimiterOrNull(GenericDeclaration source) {
@@ -129,7 +189,34 @@ final class DefaultRateLimiterRegistry<K> implements RateLimiterRegistry<K> {
             return null;
         }
         final Rates rates = rateContext.getRatesWithParentRatesAsFallback();
-        return context.getRateLimiterProvider().getRateLimiter(key, rates);
+        return new ParkingRateLimiter(
+                context.getRateLimiterProvider().getRateLimiter(key, rates), context.getTicker());
+    }
+
+    /**
+     * Process the class as when building the registry; i.e into a node for the class, and
+     * for each of its methods, under the node of the class's rate group if any.
+     */
+    private void addRateContextsToAnnotationsRoot(Class<?> source) {
+        final Node<RateConfig> processed = RateProcessors.ofClass(src -> true)
+                .process(Nodes.of("root.annotations"), (src, node) -> { }, source);
+        for (Node<RateConfig> child : processed.getRoot().getChildren()) {
+            addRateContexts(rootNodes.getAnnotationsRootNode(), child);
+        }
+    }
+
+    private void addRateContexts(Node<RateContext<K>> parent, Node<RateConfig> node) {
+        if (!node.anyMatch(this::isRateLimited)) {
+            return;
+        }
+        // A rate group may already have a node, from another class of the group.
+        final Node<RateContext<K>> existing = parent.getChildren().stream()
+                .filter(child -> isName(node.getName(), child)).findFirst().orElse(null);
+        final Node<RateContext<K>> target =
+                existing == null ? toRateContextNode(parent, node) : existing;
+        for (Node<RateConfig> child : node.getChildren()) {
+            addRateContexts(target, child);
+        }
     }
 
     private Optional<RateContext<K>> addRateContextToAnnotationsRoot(GenericDeclaration source) {
@@ -146,6 +233,10 @@ final class DefaultRateLimiterRegistry<K> implements RateLimiterRegistry<K> {
         return Optional.ofNullable(rateContext);
     }
 
+    private boolean isRateLimited(Node<RateConfig> node) {
+        return node.hasValue() && node.requireValue().getSource().isRateLimited();
+    }
+
     private <T> boolean isName(String id, Node<T> node) {
         return id.equals(node.getName());
     }
@@ -0,0 +1,120 @@
+package io.github.poshjosh.ratelimiter;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Acquires a permit per element, from batches of permits shared by all threads.
+ *
+ * <p>A batch is refilled by one thread at a time, and only once empty. So at most
+ * {@code batchSize - 1} permits per key are acquired but not used. Batches are kept for up
+ * to {@link #MAX_BATCHED_KEYS} keys; concurrent first elements may exceed the bound by at
+ * most the number of threads. Elements of further keys are charged a permit at a time.</p>
+ */
+abstract class ElementPermits<T> {
+
+    static final int MAX_BATCHED_KEYS = 1000;
+
+    static <T> ElementPermits<T> of(RateLimiter rateLimiter, int batchSize) {
+        final Batch batch = new Batch(rateLimiter, batchSize);
+        return new ElementPermits<T>() {
+            @Override void acquire(T element) {
+                batch.acquire();
+            }
+            @Override public String toString() {
+                return "ElementPermits{" + batch + '}';
+            }
+        };
+    }
+
+    static <T, K> ElementPermits<T> of(RateLimiterRegistry<K> registry,
+            Function<? super T, ? extends K> keyFunction, int batchSize) {
+        Objects.requireNonNull(registry);
+        Objects.requireNonNull(keyFunction);
+        requirePositive(batchSize);
+        final Map<K, Batch> batches = new ConcurrentHashMap<>();
+        return new ElementPermits<T>() {
+            @Override void acquire(T element) {
+                final K key = keyFunction.apply(element);
+                Batch batch = batches.get(key);
+                if (batch == null) {
+                    if (batches.size() >= MAX_BATCHED_KEYS) {
+                        // Too many keys to keep a batch for each. Acquire one permit at a time.
+                        registry.getRateLimiterOrUnlimited(key).acquire();
+                        return;
+                    }
+                    batch = batches.computeIfAbsent(key, k ->
+                            new Batch(registry.getRateLimiterOrUnlimited(k), batchSize));
+                }
+                batch.acquire();
+            }
+            @Override public String toString() {
+                return "ElementPermits{keys=" + batches.size() + ", batchSize=" + batchSize + '}';
+            }
+        };
+    }
+
+    private static int requirePositive(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive, found: " + batchSize);
+        }
+        return batchSize;
+    }
+
+    /**
+     * Block until a permit is acquired for the element.
+     * @param element The element to acquire a permit for
+     */
+    abstract void acquire(T element);
+
+    private static final class Batch {
+        private final RateLimiter rateLimiter;
+        private final int batchSize;
+        // Permits acquired but not yet used
+        private final AtomicInteger available = new AtomicInteger();
+        private final ReentrantLock refillLock = new ReentrantLock();
+        private Batch(RateLimiter rateLimiter, int batchSize) {
+            this.rateLimiter = Objects.requireNonNull(rateLimiter);
+            this.batchSize = requirePositive(batchSize);
+        }
+        private void acquire() {
+            if (rateLimiter == RateLimiters.NO_LIMIT) {
+                return;
+            }
+            if (tryTakeAvailable()) {
+                return;
+            }
+            // A lock rather than a monitor, so that virtual threads waiting here are not pinned.
+            refillLock.lock();
+            try {
+                // The batch may have been refilled while we waited for the lock.
+                if (tryTakeAvailable()) {
+                    return;
+                }
+                rateLimiter.acquire(batchSize);
+                // One of the permits is used by this thread.
+                if (batchSize > 1) {
+                    available.addAndGet(batchSize - 1);
+                }
+            } finally {
+                refillLock.unlock();
+            }
+        }
+        private boolean tryTakeAvailable() {
+            int current;
+            while ((current = available.get()) > 0) {
+                if (available.compareAndSet(current, current - 1)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        @Override public String toString() {
+            return "Batch{batchSize=" + batchSize + ", available=" + available + ", rateLimiter=" + rateLimiter + '}';
+        }
+    }
+}
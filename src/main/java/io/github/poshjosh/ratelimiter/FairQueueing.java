@@ -0,0 +1,43 @@
+package io.github.poshjosh.ratelimiter;
+
+/**
+ * Whether threads blocked acquiring permits for a key, are served in the order they arrived.
+ *
+ * <p>Register via {@link RateLimiterContext.Builder#fairQueueing(FairQueueing)}. By default,
+ * the order in which blocked threads wake up is arbitrary; under heavy contention a thread
+ * may starve. With {@link #fifo(int)}, threads blocked on a key wait in a queue, and only the
+ * thread at the head of the queue acquires permits. When the queue is full, further threads
+ * are rejected at once, rather than piling up.</p>
+ */
+public interface FairQueueing {
+
+    FairQueueing NONE = new FairQueueing() {
+        @Override public boolean isEnabled() { return false; }
+        @Override public int getMaxDepth() { return 0; }
+        @Override public String toString() { return "FairQueueing$NONE"; }
+    };
+
+    /**
+     * Queue blocked threads per key, in arrival order.
+     *
+     * <p>When the queue of a key holds {@code maxDepth} threads, {@code acquire} throws a
+     * {@link WaitQueueFullException}, and {@code tryAcquire} returns false, without waiting.</p>
+     * @param maxDepth The maximum number of threads waiting for the permits of a key
+     * @return A fair queueing policy
+     */
+    static FairQueueing fifo(int maxDepth) {
+        if (maxDepth <= 0) {
+            throw new IllegalArgumentException("Max depth must be positive, found: " + maxDepth);
+        }
+        return new FairQueueing() {
+            @Override public boolean isEnabled() { return true; }
+            @Override public int getMaxDepth() { return maxDepth; }
+            @Override public String toString() { return "FairQueueing$FIFO{maxDepth=" + maxDepth + '}'; }
+        };
+    }
+
+    boolean isEnabled();
+
+    /** @return The maximum number of threads waiting for the permits of a key */
+    int getMaxDepth();
+}
@@ -0,0 +1,102 @@
+package io.github.poshjosh.ratelimiter;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The threads waiting for the permits of a key, in arrival order.
+ *
+ * <p>Only the thread at the head of the queue proceeds to acquire permits. The rest park,
+ * until the thread ahead of them leaves the queue and unparks the next. Waiting happens via
+ * {@link LockSupport}, outside of any monitor, so virtual threads are not pinned.</p>
+ */
+final class FifoWaitQueue {
+
+    private final int maxDepth;
+    private final AtomicInteger depth = new AtomicInteger();
+    private final Queue<Thread> waiters = new ConcurrentLinkedQueue<>();
+
+    FifoWaitQueue(int maxDepth) {
+        this.maxDepth = maxDepth;
+    }
+
+    /**
+     * Join the queue, and wait to reach its head. When this method returns true, the
+     * caller must call {@link #leave()} once done acquiring permits.
+     * @param timeoutNanos The maximum time to wait, or a negative value to wait indefinitely.
+     * @return true if at the head of the queue; false if the queue was full, or the
+     * timeout elapsed first.
+     */
+    boolean awaitTurn(long timeoutNanos) {
+        if (depth.incrementAndGet() > maxDepth) {
+            depth.decrementAndGet();
+            return false;
+        }
+        final Thread current = Thread.currentThread();
+        waiters.add(current);
+        final long deadlineNanos = System.nanoTime() + timeoutNanos;
+        boolean interrupted = false;
+        try {
+            while (waiters.peek() != current) {
+                if (timeoutNanos < 0) {
+                    LockSupport.park(this);
+                } else {
+                    final long remainingNanos = deadlineNanos - System.nanoTime();
+                    if (remainingNanos <= 0) {
+                        remove(current);
+                        return false;
+                    }
+                    LockSupport.parkNanos(this, remainingNanos);
+                }
+                // Like the rate limiters' own waits, this wait is not interruptible.
+                if (Thread.interrupted()) {
+                    interrupted = true;
+                }
+            }
+            return true;
+        } finally {
+            if (interrupted) {
+                current.interrupt();
+            }
+        }
+    }
+
+    /**
+     * Leave the head of the queue, handing off to the next thread.
+     */
+    void leave() {
+        waiters.poll();
+        depth.decrementAndGet();
+        unparkHead();
+    }
+
+    private void remove(Thread thread) {
+        waiters.remove(thread);
+        depth.decrementAndGet();
+        // The thread may have reached the head just before it was removed.
+        unparkHead();
+    }
+
+    private void unparkHead() {
+        final Thread head = waiters.peek();
+        if (head != null) {
+            LockSupport.unpark(head);
+        }
+    }
+
+    /** @return true, if no thread is waiting or acquiring permits */
+    boolean isEmpty() {
+        return depth.get() == 0;
+    }
+
+    int getMaxDepth() {
+        return maxDepth;
+    }
+
+    @Override
+    public String toString() {
+        return "FifoWaitQueue{depth=" + depth.get() + ", maxDepth=" + maxDepth + '}';
+    }
+}
@@ -0,0 +1,70 @@
+package io.github.poshjosh.ratelimiter;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The wait queues of the keys of a registry, one per key.
+ *
+ * <p>A registry composes a rate limiter for a key on each call, so the queues are kept here
+ * rather than by the rate limiters; so that all the rate limiters of a key share one queue.
+ * A queue is kept only while some thread uses it, so the queues of idle keys take no memory.</p>
+ */
+final class FifoWaitQueues<K> {
+
+    private final int maxDepth;
+    private final ConcurrentMap<K, Users> queues = new ConcurrentHashMap<>();
+
+    FifoWaitQueues(int maxDepth) {
+        this.maxDepth = maxDepth;
+    }
+
+    /**
+     * Start using the queue of a key. Each call must be followed by a call to
+     * {@link #close(Object)}, once done with the queue.
+     * @param key The key whose queue to use
+     * @return The queue of the key
+     */
+    FifoWaitQueue open(K key) {
+        Objects.requireNonNull(key);
+        // Counted under the lock of the map entry, so a queue in use is never removed.
+        return queues.compute(key, (k, users) -> {
+            final Users result = users == null ? new Users(new FifoWaitQueue(maxDepth)) : users;
+            ++result.count;
+            return result;
+        }).queue;
+    }
+
+    /**
+     * Stop using the queue of a key, removing it if no other thread uses it.
+     * @param key The key whose queue was used
+     */
+    void close(K key) {
+        queues.computeIfPresent(key, (k, users) -> --users.count == 0 ? null : users);
+    }
+
+    /** @return true, if no thread is waiting or acquiring the permits of the key */
+    boolean isEmpty(K key) {
+        final Users users = queues.get(key);
+        return users == null || users.queue.isEmpty();
+    }
+
+    int getMaxDepth() {
+        return maxDepth;
+    }
+
+    @Override
+    public String toString() {
+        return "FifoWaitQueues{keys=" + queues.size() + ", maxDepth=" + maxDepth + '}';
+    }
+
+    private static final class Users {
+        private final FifoWaitQueue queue;
+        // Accessed only under the lock of the map entry
+        private int count;
+        private Users(FifoWaitQueue queue) {
+            this.queue = queue;
+        }
+    }
+}
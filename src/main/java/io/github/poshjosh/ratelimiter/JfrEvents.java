@@ -0,0 +1,101 @@
+package io.github.poshjosh.ratelimiter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Emits Java Flight Recorder events, when running on Java 11+.
+ *
+ * <p>References to {@code jdk.jfr} are confined to {@code JfrEventSink} and the event
+ * classes, in {@code src/main/java11}. They are compiled to {@code META-INF/versions/11} of
+ * the multi-release jar, and loaded reflectively. Thus the rest of this library compiles with
+ * {@code --release 8}, and still runs on Java 8. The events are disabled by default, and cost
+ * little more than a check of whether they are enabled, until enabled in a recording (e.g via
+ * a {@code .jfc} settings file). Permit events are emitted only for metrics created via
+ * {@link RateLimiterMetrics#withJfrEvents()}, so that other metrics are not paid for on the
+ * request path. The events are named:</p>
+ * <ul>
+ *     <li>{@code io.github.poshjosh.ratelimiter.PermitsAcquired}</li>
+ *     <li>{@code io.github.poshjosh.ratelimiter.PermitsDenied}</li>
+ *     <li>{@code io.github.poshjosh.ratelimiter.StoreAccess}</li>
+ *     <li>{@code io.github.poshjosh.ratelimiter.RegistryBuildPhase}</li>
+ * </ul>
+ *
+ * <p>To not emit events at all, set system property {@value #DISABLE_PROPERTY} to
+ * {@code true}.</p>
+ */
+final class JfrEvents {
+
+    private static final Logger LOG = LoggerFactory.getLogger(JfrEvents.class);
+
+    static final String DISABLE_PROPERTY = "io.github.poshjosh.ratelimiter.jfr.disabled";
+
+    interface Sink {
+        Sink NONE = new Sink() { };
+        default RateLimiterMetrics getMetrics() { return RateLimiterMetrics.NONE; }
+        default Object beginStoreAccess() { return null; }
+        default void endStoreAccess(Object event, Object key, boolean write) { }
+        default Object beginRegistryBuildPhase() { return null; }
+        default void endRegistryBuildPhase(Object event, String phase, int nodeCount) { }
+    }
+
+    private static final Sink sink = createSink();
+
+    private JfrEvents() { }
+
+    private static Sink createSink() {
+        if (Boolean.getBoolean(DISABLE_PROPERTY)) {
+            return Sink.NONE;
+        }
+        try {
+            Class.forName("jdk.jfr.Event", false, JfrEvents.class.getClassLoader());
+            return (Sink)Class.forName(JfrEvents.class.getPackage().getName() + ".JfrEventSink")
+                    .getDeclaredConstructor().newInstance();
+        } catch (ClassNotFoundException e) {
+            LOG.debug("JFR is not available, rate limiting events will not be emitted");
+            return Sink.NONE;
+        } catch (ReflectiveOperationException | LinkageError e) {
+            LOG.warn("Failed to set up JFR events, rate limiting events will not be emitted", e);
+            return Sink.NONE;
+        }
+    }
+
+    /**
+     * @param metrics The metrics to record to, in addition to emitting JFR events
+     * @return Metrics which additionally emit JFR events for permits granted and denied,
+     * or the specified metrics, if JFR is not available.
+     * @see RateLimiterMetrics#withJfrEvents()
+     */
+    static RateLimiterMetrics withEvents(RateLimiterMetrics metrics) {
+        final RateLimiterMetrics eventMetrics = sink.getMetrics();
+        if (eventMetrics == RateLimiterMetrics.NONE) {
+            return metrics;
+        }
+        if (metrics == RateLimiterMetrics.NONE) {
+            return eventMetrics;
+        }
+        return new CompositeRateLimiterMetrics(metrics, eventMetrics);
+    }
+
+    /** @return An event, to be passed to {@link #endStoreAccess(Object, Object, boolean)} */
+    static Object beginStoreAccess() {
+        return sink.beginStoreAccess();
+    }
+
+    static void endStoreAccess(Object event, Object key, boolean write) {
+        if (event != null) {
+            sink.endStoreAccess(event, key, write);
+        }
+    }
+
+    /** @return An event, to be passed to {@link #endRegistryBuildPhase(Object, String, int)} */
+    static Object beginRegistryBuildPhase() {
+        return sink.beginRegistryBuildPhase();
+    }
+
+    static void endRegistryBuildPhase(Object event, String phase, int nodeCount) {
+        if (event != null) {
+            sink.endRegistryBuildPhase(event, phase, nodeCount);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package io.github.poshjosh.ratelimiter;
+
+import io.github.poshjosh.ratelimiter.node.Node;
+import io.github.poshjosh.ratelimiter.util.Matchers;
+
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+
+/**
+ * Indexes each node in the branches of some leaf nodes, by the leaf nodes whose branches
+ * contain the node.
+ *
+ * <p>Candidate leaf nodes are always returned in the same order as the indexed leaf nodes,
+ * so that traversing only the candidates yields the same result as traversing all the
+ * leaf nodes.</p>
+ *
+ * @param <K> The type of the key accepted by the matchers of the nodes
+ */
+final class LeafNodeIndex<K> {
+
+    static <K> LeafNodeIndex<K> of(Node<RateContext<K>>[] leafNodes) {
+        return new LeafNodeIndex<>(leafNodes);
+    }
+
+    private final Node<RateContext<K>>[] leafNodes;
+    private final Map<Node<RateContext<K>>, BitSet> nodeToLeafIndexes;
+    private final BitSet matchedIndependentOfKey;
+
+    private LeafNodeIndex(Node<RateContext<K>>[] leafNodes) {
+        this.leafNodes = Objects.requireNonNull(leafNodes);
+        this.nodeToLeafIndexes = new IdentityHashMap<>();
+        this.matchedIndependentOfKey = new BitSet(leafNodes.length);
+        for (int i = 0; i < leafNodes.length; i++) {
+            Node<RateContext<K>> node = leafNodes[i];
+            do {
+                if (isMatchedIndependentOfKey(node)) {
+                    matchedIndependentOfKey.set(i);
+                }
+                nodeToLeafIndexes.computeIfAbsent(node, n -> new BitSet()).set(i);
+                node = node.getParentOrDefault(null);
+            } while (node != null);
+        }
+    }
+
+    /**
+     * Visit each node that could be matched by a key, together with the indexes of the
+     * leaf nodes whose branches contain the node. Nodes without values and nodes which
+     * match nothing are not visited.
+     * @param visitor The visitor which is not expected to modify the leaf indexes it receives
+     */
+    void forEachMatchableNode(BiConsumer<RateContext<K>, BitSet> visitor) {
+        nodeToLeafIndexes.forEach((node, leafIndexes) -> {
+            final RateContext<K> rateContext = node.getValueOrDefault(null);
+            if (rateContext == null || isMatchNone(rateContext)) {
+                return;
+            }
+            visitor.accept(rateContext, leafIndexes);
+        });
+    }
+
+    /**
+     * A branch could match any key, if any node in it has sub-conditions. This is because
+     * sub-conditions are matched independently of the key's relation to the rate source.
+     * @return A copy of the indexes of the leaf nodes whose branches could match any key
+     */
+    BitSet getLeafIndexesMatchedIndependentOfKey() {
+        return (BitSet) matchedIndependentOfKey.clone();
+    }
+
+    @SuppressWarnings("unchecked")
+    Node<RateContext<K>>[] toLeafNodes(BitSet leafIndexes) {
+        final Node<RateContext<K>>[] result = new Node[leafIndexes.cardinality()];
+        int j = 0;
+        for (int i = leafIndexes.nextSetBit(0); i >= 0; i = leafIndexes.nextSetBit(i + 1)) {
+            result[j++] = leafNodes[i];
+        }
+        return result;
+    }
+
+    private static <K> boolean isMatchedIndependentOfKey(Node<RateContext<K>> node) {
+        final RateContext<K> rateContext = node.getValueOrDefault(null);
+        return rateContext != null && rateContext.hasSubConditions();
+    }
+
+    private static <K> boolean isMatchNone(RateContext<K> rateContext) {
+        return Matchers.matchNone().equals(rateContext.getMainMatcher());
+    }
+}
@@ -0,0 +1,103 @@
+package io.github.poshjosh.ratelimiter;
+
+import io.github.poshjosh.ratelimiter.util.Matcher;
+
+import java.util.Objects;
+
+/**
+ * The key of a rate limiter, as composed from match results.
+ *
+ * A few recent instances are cached per {@link RateContext} and sub-limit index, so that
+ * repeated matches with the same results neither build nor re-hash key strings. For the default
+ * {@link RateLimiterProvider}, the rate limiter is also cached here, so that it may be
+ * looked up by index rather than from the provider's map.
+ */
+final class MatchKey {
+
+    static MatchKey of(String mainMatch) {
+        return new MatchKey(mainMatch, null, mainMatch);
+    }
+
+    static MatchKey of(String mainMatch, String match) {
+        return new MatchKey(mainMatch, match, Matcher.composeResults(mainMatch, match));
+    }
+
+    private final String mainMatch;
+    private final String match;
+    private final String value;
+
+    private volatile ProvidedRateLimiter providedRateLimiter;
+
+    private volatile MeteredRateLimiter meteredRateLimiter;
+
+    private MatchKey(String mainMatch, String match, String value) {
+        this.mainMatch = mainMatch;
+        this.match = match;
+        this.value = value;
+    }
+
+    boolean isFor(String mainMatch, String match) {
+        return isSame(this.mainMatch, mainMatch) && isSame(this.match, match);
+    }
+
+    private static boolean isSame(String a, String b) {
+        // Matchers mostly return the same String instance, so identity is checked first.
+        return a == b || (a != null && a.equals(b));
+    }
+
+    String getValue() {
+        return value;
+    }
+
+    RateLimiter getRateLimiterOrNull(RateLimiterProvider rateLimiterProvider) {
+        final ProvidedRateLimiter provided = providedRateLimiter;
+        return provided == null || provided.provider != rateLimiterProvider
+                ? null : provided.rateLimiter;
+    }
+
+    void setRateLimiter(RateLimiterProvider rateLimiterProvider, RateLimiter rateLimiter) {
+        // Custom providers may return a different rate limiter for each call, so we
+        // cache only those rate limiters provided by the default provider.
+        if (rateLimiterProvider instanceof DefaultRateLimiterProvider) {
+            providedRateLimiter = new ProvidedRateLimiter(rateLimiterProvider, rateLimiter);
+        }
+    }
+
+    RateLimiter getMeteredRateLimiter(
+            RateLimiterMetrics metrics, String nodeId, RateLimiter rateLimiter) {
+        MeteredRateLimiter metered = meteredRateLimiter;
+        if (metered == null || !metered.isFor(metrics, rateLimiter)) {
+            metered = new MeteredRateLimiter(
+                    metrics, rateLimiter, metrics.getRecorder(nodeId, value));
+            meteredRateLimiter = metered;
+        }
+        return metered;
+    }
+
+    @Override public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        return Objects.equals(value, ((MatchKey) o).value);
+    }
+
+    @Override public int hashCode() {
+        return Objects.hashCode(value);
+    }
+
+    @Override public String toString() {
+        return value;
+    }
+
+    private static final class ProvidedRateLimiter {
+        private final RateLimiterProvider provider;
+        private final RateLimiter rateLimiter;
+        private ProvidedRateLimiter(RateLimiterProvider provider, RateLimiter rateLimiter) {
+            this.provider = Objects.requireNonNull(provider);
+            this.rateLimiter = Objects.requireNonNull(rateLimiter);
+        }
+    }
+}
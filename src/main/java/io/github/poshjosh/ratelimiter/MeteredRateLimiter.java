@@ -0,0 +1,69 @@
+package io.github.poshjosh.ratelimiter;
+
+import io.github.poshjosh.ratelimiter.bandwidths.Bandwidth;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the permits granted and denied by a rate limiter, to a {@link RateLimiterMetrics.Recorder}.
+ */
+final class MeteredRateLimiter implements ReservingRateLimiter {
+
+    private final RateLimiterMetrics metrics;
+    private final RateLimiter delegate;
+    private final RateLimiterMetrics.Recorder recorder;
+
+    MeteredRateLimiter(RateLimiterMetrics metrics, RateLimiter delegate,
+            RateLimiterMetrics.Recorder recorder) {
+        this.metrics = Objects.requireNonNull(metrics);
+        this.delegate = Objects.requireNonNull(delegate);
+        this.recorder = Objects.requireNonNull(recorder);
+    }
+
+    boolean isFor(RateLimiterMetrics metrics, RateLimiter delegate) {
+        return this.metrics == metrics && this.delegate == delegate;
+    }
+
+    @Override
+    public double acquire(int permits) {
+        final double secondsWaited = delegate.acquire(permits);
+        recorder.onPermitsGranted(permits, (long)(secondsWaited * TimeUnit.SECONDS.toNanos(1)));
+        return secondsWaited;
+    }
+
+    @Override
+    public boolean tryAcquire(int permits, long timeout, TimeUnit unit) {
+        // Only attempts with a timeout may wait, so we spare other attempts the clock reads.
+        final long startNanos = timeout > 0 ? System.nanoTime() : 0;
+        final boolean acquired = delegate.tryAcquire(permits, timeout, unit);
+        if (acquired) {
+            recorder.onPermitsGranted(permits, timeout > 0 ? System.nanoTime() - startNanos : 0);
+        } else {
+            recorder.onPermitsDenied(permits);
+        }
+        return acquired;
+    }
+
+    @Override
+    public RateLimiter getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public long reserve(int permits) {
+        final long waitMicros = ReservingRateLimiter.reserve(delegate, permits);
+        recorder.onPermitsGranted(permits, TimeUnit.MICROSECONDS.toNanos(Math.max(waitMicros, 0)));
+        return waitMicros;
+    }
+
+    @Override
+    public Bandwidth getBandwidth() {
+        return delegate.getBandwidth();
+    }
+
+    @Override
+    public String toString() {
+        return delegate.toString();
+    }
+}
@@ -0,0 +1,67 @@
+package io.github.poshjosh.ratelimiter;
+
+import io.github.poshjosh.ratelimiter.bandwidths.Bandwidth;
+import io.github.poshjosh.ratelimiter.util.Ticker;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * On virtual threads, waits for the permits of a single rate limiter as the composites wait
+ * for theirs; i.e outside of any monitor, via {@link AllOrNothingReservation}. Permits are
+ * reserved from the delegate, or asked for without a timeout, so the delegate never sleeps.
+ * Other threads acquire from the delegate directly.
+ */
+final class ParkingRateLimiter implements ReservingRateLimiter {
+
+    private final RateLimiter delegate;
+    private final Ticker ticker;
+
+    ParkingRateLimiter(RateLimiter delegate, Ticker ticker) {
+        this.delegate = Objects.requireNonNull(delegate);
+        this.ticker = Objects.requireNonNull(ticker);
+    }
+
+    @Override
+    public double acquire(int permits) {
+        if (!VirtualThreads.isCurrentThreadVirtual()) {
+            return delegate.acquire(permits);
+        }
+        return reservation().acquire(ticker, permits);
+    }
+
+    @Override
+    public boolean tryAcquire(int permits, long timeout, TimeUnit unit) {
+        // Without a timeout the delegate never sleeps, so it pins no virtual thread.
+        if (timeout <= 0 || !VirtualThreads.isCurrentThreadVirtual()) {
+            return delegate.tryAcquire(permits, timeout, unit);
+        }
+        return reservation().tryAcquire(ticker, permits, timeout, unit);
+    }
+
+    private AllOrNothingReservation reservation() {
+        final AllOrNothingReservation reservation = new AllOrNothingReservation();
+        reservation.accept(null, delegate);
+        return reservation;
+    }
+
+    @Override
+    public RateLimiter getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public long reserve(int permits) {
+        return ReservingRateLimiter.reserve(delegate, permits);
+    }
+
+    @Override
+    public Bandwidth getBandwidth() {
+        return delegate.getBandwidth();
+    }
+
+    @Override
+    public String toString() {
+        return "ParkingRateLimiter{" + delegate + '}';
+    }
+}
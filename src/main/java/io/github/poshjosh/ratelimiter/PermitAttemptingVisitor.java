@@ -1,9 +1,15 @@
 package io.github.poshjosh.ratelimiter;
 
+import io.github.poshjosh.ratelimiter.util.Ticker;
+
 import java.util.Objects;
 import java.util.concurrent.TimeUnit;
 import java.util.function.BiConsumer;
 
+/**
+ * Collects the rate limiters visited, so that permits are acquired from all or none of them.
+ * Call {@link #tryAcquire(Ticker)} after visiting.
+ */
 final class PermitAttemptingVisitor implements BiConsumer<String, RateLimiter> {
     private final int permits;
 
@@ -11,7 +17,7 @@ final class PermitAttemptingVisitor implements BiConsumer<String, RateLimiter> {
 
     private final TimeUnit timeUnit;
 
-    private boolean noLimitExceeded = true;
+    private final AllOrNothingReservation reservation = new AllOrNothingReservation();
 
     PermitAttemptingVisitor(int permits, long timeout, TimeUnit timeUnit) {
         this.permits = permits;
@@ -20,12 +26,14 @@ final class PermitAttemptingVisitor implements BiConsumer<String, RateLimiter> {
     }
 
     @Override public void accept(String match, RateLimiter rateLimiter) {
-        if (!rateLimiter.tryAcquire(permits, timeout, timeUnit)) {
-            noLimitExceeded = false;
-        }
+        reservation.accept(match, rateLimiter);
     }
 
-    public boolean isNoLimitExceeded() {
-        return noLimitExceeded;
+    /**
+     * @param ticker The ticker used by the visited rate limiters
+     * @return true if permits were acquired from all the visited rate limiters, otherwise false
+     */
+    boolean tryAcquire(Ticker ticker) {
+        return reservation.tryAcquire(ticker, permits, timeout, timeUnit);
     }
 }
@@ -0,0 +1,21 @@
+package io.github.poshjosh.ratelimiter;
+
+import java.lang.reflect.Method;
+
+/**
+ * Thrown when a rate limited method is invoked, but permits to invoke it were denied.
+ * @see RateLimitedProxies.DenialPolicy#fail()
+ */
+public class PermitsDeniedException extends RuntimeException {
+
+    private final transient Method method;
+
+    public PermitsDeniedException(Method method) {
+        super("Rate limit exceeded for: " + method);
+        this.method = method;
+    }
+
+    public Method getMethod() {
+        return method;
+    }
+}
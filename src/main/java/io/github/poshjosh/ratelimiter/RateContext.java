@@ -17,6 +17,8 @@ final class RateContext<R> {
 
     private static final Logger LOG = LoggerFactory.getLogger(RateContext.class);
 
+    private static final int MATCH_KEYS_PER_INDEX = 8;
+
     // Bottom-up traversal performs better, as of the last tests.
     static final boolean IS_BOTTOM_UP_TRAVERSAL = true;
 
@@ -79,11 +81,27 @@ final class RateContext<R> {
      */
     private final List<Matcher<R>> limitMatchers;
 
+    /**
+     * The keys last composed for each sub-limit, by index. The last row is for the main match.
+     * Up to {@link #MATCH_KEYS_PER_INDEX} keys are kept per index, and replaced in turn. So
+     * matchers with few distinct results (e.g a role, or a time window) are served from here;
+     * while those with a result per user or IP address mostly miss, and compose a new key.
+     * Writes are racy, but benign; as MatchKey is safely published via its final fields.
+     */
+    private final MatchKey[][] matchKeys;
+
+    /** The slot to write next, by index. Racy, like {@link #matchKeys}. */
+    private final int[] nextMatchKeySlots;
+
+    private volatile ProvidedRecorder providedRecorder;
+
     private RateContext(RateConfig rateConfig,
             Matcher<R> mainMatcher, List<Matcher<R>> limitMatchers) {
         this.rateConfig = Objects.requireNonNull(rateConfig);
         this.mainMatcher = Objects.requireNonNull(mainMatcher);
         this.limitMatchers = Objects.requireNonNull(limitMatchers);
+        this.matchKeys = new MatchKey[limitMatchers.size() + 1][MATCH_KEYS_PER_INDEX];
+        this.nextMatchKeySlots = new int[limitMatchers.size() + 1];
     }
 
     public boolean hasMatcher() {
@@ -119,6 +137,61 @@ final class RateContext<R> {
 
     public Matcher<R> getMainMatcher() { return mainMatcher; }
 
+    MatchKey getMatchKey(String mainMatch) {
+        final int index = limitMatchers.size();
+        final MatchKey matchKey = getMatchKeyOrNull(index, mainMatch, null);
+        return matchKey == null ? addMatchKey(index, MatchKey.of(mainMatch)) : matchKey;
+    }
+
+    MatchKey getMatchKey(int index, String mainMatch, String match) {
+        final MatchKey matchKey = getMatchKeyOrNull(index, mainMatch, match);
+        return matchKey == null ? addMatchKey(index, MatchKey.of(mainMatch, match)) : matchKey;
+    }
+
+    private MatchKey getMatchKeyOrNull(int index, String mainMatch, String match) {
+        for (MatchKey matchKey : matchKeys[index]) {
+            if (matchKey != null && matchKey.isFor(mainMatch, match)) {
+                return matchKey;
+            }
+        }
+        return null;
+    }
+
+    private MatchKey addMatchKey(int index, MatchKey matchKey) {
+        final int slot = nextMatchKeySlots[index];
+        matchKeys[index][slot] = matchKey;
+        nextMatchKeySlots[index] = slot + 1 == MATCH_KEYS_PER_INDEX ? 0 : slot + 1;
+        return matchKey;
+    }
+
+    RateLimiter getRateLimiter(RateLimiterProvider rateLimiterProvider, MatchKey mainMatchKey) {
+        RateLimiter rateLimiter = mainMatchKey.getRateLimiterOrNull(rateLimiterProvider);
+        if (rateLimiter == null) {
+            rateLimiter = rateLimiterProvider
+                    .getRateLimiter(mainMatchKey.getValue(), getRatesWithParentRatesAsFallback());
+            mainMatchKey.setRateLimiter(rateLimiterProvider, rateLimiter);
+        }
+        return rateLimiter;
+    }
+
+    RateLimiter getRateLimiter(RateLimiterProvider rateLimiterProvider, MatchKey matchKey, int index) {
+        RateLimiter rateLimiter = matchKey.getRateLimiterOrNull(rateLimiterProvider);
+        if (rateLimiter == null) {
+            rateLimiter = rateLimiterProvider.getRateLimiter(matchKey.getValue(), getRate(index));
+            matchKey.setRateLimiter(rateLimiterProvider, rateLimiter);
+        }
+        return rateLimiter;
+    }
+
+    RateLimiterMetrics.Recorder getRecorder(RateLimiterMetrics metrics) {
+        ProvidedRecorder provided = providedRecorder;
+        if (provided == null || provided.metrics != metrics) {
+            provided = new ProvidedRecorder(metrics, metrics.getRecorder(getId(), null));
+            providedRecorder = provided;
+        }
+        return provided.recorder;
+    }
+
     public List<Matcher<R>> getLimitMatchers() {
         return limitMatchers;
     }
@@ -141,6 +214,15 @@ final class RateContext<R> {
         return Objects.hash(rateConfig, mainMatcher, limitMatchers);
     }
 
+    private static final class ProvidedRecorder {
+        private final RateLimiterMetrics metrics;
+        private final RateLimiterMetrics.Recorder recorder;
+        private ProvidedRecorder(RateLimiterMetrics metrics, RateLimiterMetrics.Recorder recorder) {
+            this.metrics = Objects.requireNonNull(metrics);
+            this.recorder = Objects.requireNonNull(recorder);
+        }
+    }
+
     @Override public String toString() {
         return "RateContext{config=" + rateConfig +
                 ", mainMatcher=" + mainMatcher + ", limitMatchers=" + limitMatchers + '}';
@@ -0,0 +1,146 @@
+package io.github.poshjosh.ratelimiter;
+
+import io.github.poshjosh.ratelimiter.node.Node;
+
+import java.util.*;
+
+/**
+ * Selects, for a String key, the leaf nodes whose branches could possibly match the key.
+ *
+ * <p>Applicable only when main matchers are bound to the rate id. That is, a main matcher
+ * matches a String key only when the key equals the rate id, or (for class sources)
+ * starts with the rate id. The candidates are returned in the same order as the leaf
+ * nodes they were selected from, so that traversing only the candidates yields the same
+ * result as traversing all the leaf nodes.</p>
+ *
+ * <p>A branch is always a candidate, if any node in it has sub-conditions.</p>
+ *
+ * @param <K> The type of the key accepted by the matchers of the nodes
+ */
+final class RateIdTrie<K> {
+
+    static <K> RateIdTrie<K> of(LeafNodeIndex<K> leafNodeIndex) {
+        return new RateIdTrie<>(leafNodeIndex);
+    }
+
+    private final LeafNodeIndex<K> leafNodeIndex;
+    private final TrieNode<K> root;
+    private final Node<RateContext<K>>[] whenNoIdMatches;
+
+    private RateIdTrie(LeafNodeIndex<K> leafNodeIndex) {
+        this.leafNodeIndex = Objects.requireNonNull(leafNodeIndex);
+
+        final TrieNodeBuilder rootBuilder = new TrieNodeBuilder();
+        leafNodeIndex.forEachMatchableNode((rateContext, leafIndexes) ->
+                rootBuilder.add(rateContext.getId(), leafIndexes, isPrefixMatched(rateContext)));
+
+        final BitSet alwaysCandidates = leafNodeIndex.getLeafIndexesMatchedIndependentOfKey();
+        this.root = rootBuilder.build(alwaysCandidates, this);
+        this.whenNoIdMatches = leafNodeIndex.toLeafNodes(alwaysCandidates);
+    }
+
+    /**
+     * @param key The key to match
+     * @return The leaf nodes, whose branches could possibly match the key
+     */
+    Node<RateContext<K>>[] getCandidateLeafNodes(String key) {
+        TrieNode<K> lastTerminal = null;
+        TrieNode<K> current = root;
+        final int length = key.length();
+        for (int i = 0; i < length; i++) {
+            if (current.isTerminal()) {
+                lastTerminal = current;
+            }
+            current = current.getChildOrNull(key.charAt(i));
+            if (current == null) {
+                break;
+            }
+        }
+        if (current != null && current.isTerminal()) {
+            return current.whenExactMatch;
+        }
+        return lastTerminal == null ? whenNoIdMatches : lastTerminal.whenPrefixMatch;
+    }
+
+    private static <K> boolean isPrefixMatched(RateContext<K> rateContext) {
+        // Tag:Rule:class-id-matches-keys-starting-with-id
+        return rateContext.getSource().getSource() instanceof Class;
+    }
+
+    private static final class TrieNode<K> {
+        private final char[] keys;
+        private final TrieNode<K>[] children;
+        // Candidates when the key equals the id ending at this node.
+        private final Node<RateContext<K>>[] whenExactMatch;
+        // Candidates when the key starts with, but is longer than, the id ending at this node.
+        private final Node<RateContext<K>>[] whenPrefixMatch;
+        private TrieNode(char[] keys, TrieNode<K>[] children,
+                Node<RateContext<K>>[] whenExactMatch, Node<RateContext<K>>[] whenPrefixMatch) {
+            this.keys = keys;
+            this.children = children;
+            this.whenExactMatch = whenExactMatch;
+            this.whenPrefixMatch = whenPrefixMatch;
+        }
+        private boolean isTerminal() {
+            return whenExactMatch != null;
+        }
+        private TrieNode<K> getChildOrNull(char ch) {
+            final int index = Arrays.binarySearch(keys, ch);
+            return index < 0 ? null : children[index];
+        }
+    }
+
+    private static final class TrieNodeBuilder {
+        private final TreeMap<Character, TrieNodeBuilder> children = new TreeMap<>();
+        private BitSet exactLeafIndexes;
+        private BitSet prefixLeafIndexes;
+
+        private void add(String id, BitSet leafIndexes, boolean prefixMatched) {
+            TrieNodeBuilder current = this;
+            for (int i = 0; i < id.length(); i++) {
+                current = current.children.computeIfAbsent(id.charAt(i), ch -> new TrieNodeBuilder());
+            }
+            if (current.exactLeafIndexes == null) {
+                current.exactLeafIndexes = new BitSet();
+            }
+            current.exactLeafIndexes.or(leafIndexes);
+            if (prefixMatched) {
+                if (current.prefixLeafIndexes == null) {
+                    current.prefixLeafIndexes = new BitSet();
+                }
+                current.prefixLeafIndexes.or(leafIndexes);
+            }
+        }
+
+        /**
+         * @param inheritedPrefixLeafIndexes Leaf indexes of nodes whose ids are prefixes of
+         *                                   the id ending at this node, and which are matched
+         *                                   by keys starting with their ids.
+         */
+        @SuppressWarnings("unchecked")
+        private <K> TrieNode<K> build(BitSet inheritedPrefixLeafIndexes, RateIdTrie<K> trie) {
+            Node<RateContext<K>>[] whenExactMatch = null;
+            Node<RateContext<K>>[] whenPrefixMatch = null;
+            BitSet prefixLeafIndexesForChildren = inheritedPrefixLeafIndexes;
+            if (exactLeafIndexes != null) {
+                final BitSet exact = (BitSet) inheritedPrefixLeafIndexes.clone();
+                exact.or(exactLeafIndexes);
+                whenExactMatch = trie.leafNodeIndex.toLeafNodes(exact);
+                if (prefixLeafIndexes != null) {
+                    prefixLeafIndexesForChildren = (BitSet) inheritedPrefixLeafIndexes.clone();
+                    prefixLeafIndexesForChildren.or(prefixLeafIndexes);
+                }
+                whenPrefixMatch = trie.leafNodeIndex.toLeafNodes(prefixLeafIndexesForChildren);
+            }
+            final char[] keys = new char[children.size()];
+            final TrieNode<K>[] builtChildren = new TrieNode[children.size()];
+            int i = 0;
+            for (Map.Entry<Character, TrieNodeBuilder> entry : children.entrySet()) {
+                keys[i] = entry.getKey();
+                builtChildren[i] = entry.getValue().build(prefixLeafIndexesForChildren, trie);
+                ++i;
+            }
+            return new TrieNode<>(keys, builtChildren, whenExactMatch, whenPrefixMatch);
+        }
+    }
+}
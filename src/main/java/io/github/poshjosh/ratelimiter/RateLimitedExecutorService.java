@@ -0,0 +1,51 @@
+package io.github.poshjosh.ratelimiter;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * An executor service which runs each task only once permits are acquired for the task's key.
+ *
+ * <p>Rather than block a thread per waiting task (as {@link RateLimiter#acquire()} would),
+ * tasks are queued per key, and released to the delegate executor by a single scheduler
+ * thread, when {@link io.github.poshjosh.ratelimiter.bandwidths.Bandwidth#queryEarliestAvailable(long)}
+ * says permits are available. Tasks of the same key run in the order submitted.</p>
+ *
+ * <p>Tasks are not spaced, rather they are released as the key's bandwidth grants permits.
+ * The default bandwidth grants all the permits of its window at once; so given 5 permits
+ * per second, five tasks are released back to back, then the next in the following second.
+ * For evenly spaced tasks, use a smooth bandwidth, e.g
+ * {@link io.github.poshjosh.ratelimiter.bandwidths.BandwidthFactories.SmoothBursty}.</p>
+ *
+ * <p>Shutting down this executor service, shuts down the delegate, once all queued tasks
+ * have been released to it.</p>
+ *
+ * @param <K> The type of the keys which tasks are charged to
+ */
+public interface RateLimitedExecutorService<K> extends ExecutorService {
+
+    /**
+     * @param registry The registry from which the rate limiter of each key is resolved
+     * @param defaultKey The key charged for tasks submitted without a key
+     * @param delegate The executor which runs the tasks
+     * @return A new rate limited executor service, whose time is kept by the registry's
+     * {@link RateLimiterRegistry#getTicker() ticker}.
+     * @param <K> The type of the keys which tasks are charged to
+     */
+    static <K> RateLimitedExecutorService<K> of(
+            RateLimiterRegistry<K> registry, K defaultKey, ExecutorService delegate) {
+        return DefaultRateLimitedExecutorService.start(registry, defaultKey, delegate);
+    }
+
+    /**
+     * Execute the task once a permit is acquired for the key.
+     * @param key The key to charge the task to
+     * @param task The task to execute
+     */
+    void execute(K key, Runnable task);
+
+    <T> Future<T> submit(K key, Callable<T> task);
+
+    Future<?> submit(K key, Runnable task);
+}
@@ -0,0 +1,37 @@
+package io.github.poshjosh.ratelimiter;
+
+import java.util.Iterator;
+import java.util.Objects;
+
+final class RateLimitedIterator<T> implements Iterator<T> {
+
+    private final Iterator<T> source;
+    private final ElementPermits<T> permits;
+
+    RateLimitedIterator(Iterator<T> source, ElementPermits<T> permits) {
+        this.source = Objects.requireNonNull(source);
+        this.permits = Objects.requireNonNull(permits);
+    }
+
+    @Override
+    public boolean hasNext() {
+        return source.hasNext();
+    }
+
+    @Override
+    public T next() {
+        final T element = source.next();
+        permits.acquire(element);
+        return element;
+    }
+
+    @Override
+    public void remove() {
+        source.remove();
+    }
+
+    @Override
+    public String toString() {
+        return "RateLimitedIterator{source=" + source + ", permits=" + permits + '}';
+    }
+}
@@ -0,0 +1,78 @@
+package io.github.poshjosh.ratelimiter;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+/**
+ * Enforce the {@link io.github.poshjosh.ratelimiter.annotations.Rate} limits of an
+ * interface's implementation, without calling {@code tryAcquire()} in each method.
+ *
+ * <p>Each method's rate limiter is resolved once, when the proxy is created; from the
+ * implementing method, falling back to the interface's method. On invocation, the rate
+ * limiter is looked up from an array, and {@code tryAcquire()} called. The
+ * {@link DenialPolicy} is applied only when permits are denied.</p>
+ *
+ * <p>Invocations are not spaced, rather they pass as the method's bandwidth grants permits.
+ * The default bandwidth grants all the permits of its window at once; so given
+ * {@code @Rate(permits = 5)}, five invocations pass back to back, then the next is denied
+ * until the following second. For evenly spaced invocations, use a smooth bandwidth, e.g
+ * {@code @Rate(permits = 5, factoryClass = BandwidthFactories.SmoothBursty.class)}.</p>
+ *
+ * <p>Usage:</p>
+ * <pre>
+ * RateLimiterRegistry&lt;?&gt; registry = RateLimiterRegistries.of(ResourceImpl.class);
+ * Resource resource = RateLimitedProxies.of(Resource.class, new ResourceImpl(), registry);
+ * </pre>
+ */
+public interface RateLimitedProxies {
+
+    /**
+     * What to do when permits to invoke a method are denied.
+     */
+    interface DenialPolicy {
+
+        /** @return A policy which throws a {@link PermitsDeniedException} */
+        static DenialPolicy fail() {
+            return (method, rateLimiter) -> { throw new PermitsDeniedException(method); };
+        }
+
+        /** @return A policy which blocks until permits are acquired */
+        static DenialPolicy waitForPermits() {
+            return (method, rateLimiter) -> rateLimiter.acquire();
+        }
+
+        /**
+         * Called when permits to invoke the method are denied. If this method returns
+         * normally, the method is invoked.
+         * @param method The method whose permits were denied
+         * @param rateLimiter The rate limiter of the method
+         */
+        void onDenied(Method method, RateLimiter rateLimiter);
+    }
+
+    /**
+     * @see #of(Class, Object, RateLimiterRegistry, DenialPolicy)
+     */
+    static <T> T of(Class<T> interfaceType, T target, RateLimiterRegistry<?> registry) {
+        return of(interfaceType, target, registry, DenialPolicy.fail());
+    }
+
+    /**
+     * @param interfaceType The interface to proxy
+     * @param target The implementation to delegate invocations to
+     * @param registry The registry from which the rate limiter of each method is resolved
+     * @param denialPolicy What to do when permits to invoke a method are denied
+     * @return A proxy which enforces the rate limits of the target's methods
+     * @param <T> The type of the interface
+     */
+    static <T> T of(Class<T> interfaceType, T target,
+            RateLimiterRegistry<?> registry, DenialPolicy denialPolicy) {
+        if (!interfaceType.isInterface()) {
+            throw new IllegalArgumentException("Not an interface: " + interfaceType);
+        }
+        final Object proxy = Proxy.newProxyInstance(interfaceType.getClassLoader(),
+                new Class<?>[]{interfaceType},
+                RateLimitingInvocationHandler.of(interfaceType, target, registry, denialPolicy));
+        return interfaceType.cast(proxy);
+    }
+}
@@ -0,0 +1,69 @@
+package io.github.poshjosh.ratelimiter;
+
+import java.util.Comparator;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Splits share the permits of their parent, so parallel streams are limited as a whole.
+ */
+final class RateLimitedSpliterator<T> implements Spliterator<T> {
+
+    private final Spliterator<T> source;
+    private final ElementPermits<T> permits;
+
+    RateLimitedSpliterator(Spliterator<T> source, ElementPermits<T> permits) {
+        this.source = Objects.requireNonNull(source);
+        this.permits = Objects.requireNonNull(permits);
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        Objects.requireNonNull(action);
+        return source.tryAdvance(element -> {
+            permits.acquire(element);
+            action.accept(element);
+        });
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super T> action) {
+        Objects.requireNonNull(action);
+        source.forEachRemaining(element -> {
+            permits.acquire(element);
+            action.accept(element);
+        });
+    }
+
+    @Override
+    public Spliterator<T> trySplit() {
+        final Spliterator<T> split = source.trySplit();
+        return split == null ? null : new RateLimitedSpliterator<>(split, permits);
+    }
+
+    @Override
+    public long estimateSize() {
+        return source.estimateSize();
+    }
+
+    @Override
+    public long getExactSizeIfKnown() {
+        return source.getExactSizeIfKnown();
+    }
+
+    @Override
+    public int characteristics() {
+        return source.characteristics();
+    }
+
+    @Override
+    public Comparator<? super T> getComparator() {
+        return source.getComparator();
+    }
+
+    @Override
+    public String toString() {
+        return "RateLimitedSpliterator{source=" + source + ", permits=" + permits + '}';
+    }
+}
@@ -0,0 +1,81 @@
+package io.github.poshjosh.ratelimiter;
+
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Throttle the elements of an {@link Iterator}, {@link Spliterator} or {@link Stream}.
+ *
+ * <p>Each element is released only after a permit is acquired for it. Permits are
+ * acquired in batches; i.e once per {@code batchSize} elements, rather than once per
+ * element. Batched permits are shared by all the splits of a parallel stream, so no more
+ * elements are released than permits acquired. At most {@code batchSize - 1} permits
+ * (per key) may be acquired but not used, when the source is exhausted. Batches are kept
+ * for up to 1000 keys; elements of further keys acquire a permit each.</p>
+ *
+ * <p>Elements are not spaced, rather they are released as the bandwidth grants permits.
+ * The default bandwidth grants all the permits of its window at once; so given 5 permits
+ * per second, five elements are released back to back, then the next in the following
+ * second. For evenly spaced elements, use a smooth bandwidth, e.g
+ * {@link io.github.poshjosh.ratelimiter.bandwidths.BandwidthFactories.SmoothBursty}.</p>
+ *
+ * <p>Usage:</p>
+ * <pre>
+ * RateLimiter rateLimiter = registry.getRateLimiterOrUnlimited("downstream-api");
+ * RateLimitedStreams.of(records.stream(), rateLimiter, 100).forEach(this::send);
+ *
+ * // Charge each record to the rate limiter of its tenant
+ * RateLimitedStreams.of(records.stream(), registry, Record::getTenant, 100).forEach(this::send);
+ * </pre>
+ */
+public interface RateLimitedStreams {
+
+    /**
+     * @param source The elements to throttle
+     * @param rateLimiter The rate limiter to acquire permits from
+     * @param batchSize The number of permits to acquire at a time
+     * @return An iterator which blocks until a permit is acquired for each element
+     */
+    static <T> Iterator<T> of(Iterator<T> source, RateLimiter rateLimiter, int batchSize) {
+        return new RateLimitedIterator<>(source, ElementPermits.of(rateLimiter, batchSize));
+    }
+
+    /**
+     * @param source The elements to throttle
+     * @param registry The registry from which the rate limiter of each key is resolved
+     * @param keyFunction Maps each element to the key it is charged to
+     * @param batchSize The number of permits to acquire at a time, per key
+     * @return An iterator which blocks until a permit is acquired for each element
+     */
+    static <T, K> Iterator<T> of(Iterator<T> source, RateLimiterRegistry<K> registry,
+            Function<? super T, ? extends K> keyFunction, int batchSize) {
+        return new RateLimitedIterator<>(source, ElementPermits.of(registry, keyFunction, batchSize));
+    }
+
+    /** @see #of(Iterator, RateLimiter, int) */
+    static <T> Spliterator<T> of(Spliterator<T> source, RateLimiter rateLimiter, int batchSize) {
+        return new RateLimitedSpliterator<>(source, ElementPermits.of(rateLimiter, batchSize));
+    }
+
+    /** @see #of(Iterator, RateLimiterRegistry, Function, int) */
+    static <T, K> Spliterator<T> of(Spliterator<T> source, RateLimiterRegistry<K> registry,
+            Function<? super T, ? extends K> keyFunction, int batchSize) {
+        return new RateLimitedSpliterator<>(source, ElementPermits.of(registry, keyFunction, batchSize));
+    }
+
+    /** @see #of(Iterator, RateLimiter, int) */
+    static <T> Stream<T> of(Stream<T> source, RateLimiter rateLimiter, int batchSize) {
+        return StreamSupport.stream(of(source.spliterator(), rateLimiter, batchSize),
+                source.isParallel()).onClose(source::close);
+    }
+
+    /** @see #of(Iterator, RateLimiterRegistry, Function, int) */
+    static <T, K> Stream<T> of(Stream<T> source, RateLimiterRegistry<K> registry,
+            Function<? super T, ? extends K> keyFunction, int batchSize) {
+        return StreamSupport.stream(of(source.spliterator(), registry, keyFunction, batchSize),
+                source.isParallel()).onClose(source::close);
+    }
+}
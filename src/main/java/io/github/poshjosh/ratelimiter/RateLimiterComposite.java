@@ -1,6 +1,8 @@
 package io.github.poshjosh.ratelimiter;
 
 import io.github.poshjosh.ratelimiter.node.Node;
+import io.github.poshjosh.ratelimiter.util.MatcherProvider;
+import io.github.poshjosh.ratelimiter.util.Ticker;
 
 import java.util.*;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -11,8 +13,13 @@ class RateLimiterComposite<K> extends AbstractRateLimiterComposite<K> implements
 
     RateLimiterComposite (K key,
             Node<RateContext<K>> rootNode,
-            RateLimiterProvider rateLimiterProvider) {
-        super(key, rateLimiterProvider);
+            RateLimiterProvider rateLimiterProvider,
+            MatcherProvider<K> matcherProvider,
+            Ticker ticker,
+            RateLimiterMetrics metrics,
+            DecisionTracer decisionTracer,
+            FifoWaitQueues<K> waitQueues) {
+        super(key, rateLimiterProvider, matcherProvider, ticker, metrics, decisionTracer, waitQueues);
         this.rootNode = Objects.requireNonNull(rootNode);
     }
 
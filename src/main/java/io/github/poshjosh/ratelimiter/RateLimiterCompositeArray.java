@@ -0,0 +1,38 @@
+package io.github.poshjosh.ratelimiter;
+
+import io.github.poshjosh.ratelimiter.util.MatcherProvider;
+import io.github.poshjosh.ratelimiter.util.Ticker;
+
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+
+/**
+ * The rate limiters of a key, from both properties and annotations.
+ *
+ * <p>Unlike the rate limiter returned by {@link RateLimiters#of(RateLimiter...)}, this one
+ * acquires permits from the rate limiters of all the composites, or from none of them.</p>
+ */
+final class RateLimiterCompositeArray<K> extends AbstractRateLimiterComposite<K> {
+
+    private final AbstractRateLimiterComposite<K>[] composites;
+
+    @SafeVarargs
+    RateLimiterCompositeArray(K key,
+            RateLimiterProvider rateLimiterProvider,
+            MatcherProvider<K> matcherProvider,
+            Ticker ticker,
+            RateLimiterMetrics metrics,
+            DecisionTracer decisionTracer,
+            FifoWaitQueues<K> waitQueues,
+            AbstractRateLimiterComposite<K>... composites) {
+        super(key, rateLimiterProvider, matcherProvider, ticker, metrics, decisionTracer, waitQueues);
+        this.composites = Arrays.copyOf(composites, composites.length);
+    }
+
+    @Override
+    protected void visitNodes(BiConsumer<String, RateLimiter> visitor) {
+        for (AbstractRateLimiterComposite<K> composite : composites) {
+            composite.visitNodes(visitor);
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package io.github.poshjosh.ratelimiter;
 
 import io.github.poshjosh.ratelimiter.node.Node;
+import io.github.poshjosh.ratelimiter.util.MatcherProvider;
+import io.github.poshjosh.ratelimiter.util.Ticker;
+import io.github.poshjosh.ratelimiter.util.Tickers;
 
 import java.util.*;
 import java.util.function.BiConsumer;
@@ -21,7 +24,19 @@ final class RateLimiterCompositeBottomUp<K>
     RateLimiterCompositeBottomUp (K key,
             Node<RateContext<K>>[] leafNodes,
             RateLimiterProvider rateLimiterProvider) {
-        super(key, rateLimiterProvider);
+        this(key, leafNodes, rateLimiterProvider, MatcherProvider.ofDefaults(),
+                Tickers.SYSTEM_EPOCH_MILLIS, RateLimiterMetrics.NONE, DecisionTracer.NONE, null);
+    }
+
+    RateLimiterCompositeBottomUp (K key,
+            Node<RateContext<K>>[] leafNodes,
+            RateLimiterProvider rateLimiterProvider,
+            MatcherProvider<K> matcherProvider,
+            Ticker ticker,
+            RateLimiterMetrics metrics,
+            DecisionTracer decisionTracer,
+            FifoWaitQueues<K> waitQueues) {
+        super(key, rateLimiterProvider, matcherProvider, ticker, metrics, decisionTracer, waitQueues);
         this.leafNodes = Objects.requireNonNull(leafNodes);
     }
 
@@ -82,6 +82,36 @@ public interface RateLimiterContext<K> {
          * @return this builder
          */
         Builder<K> ticker(Ticker ticker);
+
+        /**
+         * <p><b>Not mandatory.</b> If not specified, no metrics are recorded</p>
+         * The default implementation throws {@link UnsupportedOperationException}.
+         * @param metrics For recording metrics e.g {@link RateLimiterMetrics#ofDefaults()}
+         * @return this builder
+         */
+        default Builder<K> metrics(RateLimiterMetrics metrics) {
+            throw new UnsupportedOperationException();
+        }
+
+        /**
+         * <p><b>Not mandatory.</b> If not specified, no decisions are traced</p>
+         * The default implementation throws {@link UnsupportedOperationException}.
+         * @param decisionTracer For tracing decisions e.g {@link DecisionTracer#sampling(int, int)}
+         * @return this builder
+         */
+        default Builder<K> decisionTracer(DecisionTracer decisionTracer) {
+            throw new UnsupportedOperationException();
+        }
+
+        /**
+         * <p><b>Not mandatory.</b> If not specified, blocked threads wake up in arbitrary order</p>
+         * The default implementation throws {@link UnsupportedOperationException}.
+         * @param fairQueueing For serving blocked threads in arrival order e.g {@link FairQueueing#fifo(int)}
+         * @return this builder
+         */
+        default Builder<K> fairQueueing(FairQueueing fairQueueing) {
+            throw new UnsupportedOperationException();
+        }
     }
 
     default boolean isRateLimited() {
@@ -120,4 +150,55 @@ public interface RateLimiterContext<K> {
     Ticker getTicker();
 
     RateLimiterContext<K> withTicker(Ticker ticker);
+
+    /**
+     * The default implementation returns {@link RateLimiterMetrics#NONE}.
+     * @return The metrics to record to
+     */
+    default RateLimiterMetrics getMetrics() {
+        return RateLimiterMetrics.NONE;
+    }
+
+    /**
+     * The default implementation throws {@link UnsupportedOperationException}.
+     * @param metrics The metrics to record to
+     * @return A copy of this context, with the specified metrics
+     */
+    default RateLimiterContext<K> withMetrics(RateLimiterMetrics metrics) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * The default implementation returns {@link DecisionTracer#NONE}.
+     * @return The tracer of rate limiting decisions
+     */
+    default DecisionTracer getDecisionTracer() {
+        return DecisionTracer.NONE;
+    }
+
+    /**
+     * The default implementation throws {@link UnsupportedOperationException}.
+     * @param decisionTracer The tracer of rate limiting decisions
+     * @return A copy of this context, with the specified decision tracer
+     */
+    default RateLimiterContext<K> withDecisionTracer(DecisionTracer decisionTracer) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * The default implementation returns {@link FairQueueing#NONE}, i.e disabled.
+     * @return How threads blocked on the same key are queued
+     */
+    default FairQueueing getFairQueueing() {
+        return FairQueueing.NONE;
+    }
+
+    /**
+     * The default implementation throws {@link UnsupportedOperationException}.
+     * @param fairQueueing How threads blocked on the same key are queued
+     * @return A copy of this context, with the specified fair queueing
+     */
+    default RateLimiterContext<K> withFairQueueing(FairQueueing fairQueueing) {
+        throw new UnsupportedOperationException();
+    }
 }
@@ -71,4 +71,22 @@ final class RateLimiterContextBuilder<K> implements RateLimiterContext.Builder<K
         context.setTicker(ticker);
         return this;
     }
+
+    @Override
+    public RateLimiterContext.Builder<K> metrics(RateLimiterMetrics metrics) {
+        context.setMetrics(metrics);
+        return this;
+    }
+
+    @Override
+    public RateLimiterContext.Builder<K> decisionTracer(DecisionTracer decisionTracer) {
+        context.setDecisionTracer(decisionTracer);
+        return this;
+    }
+
+    @Override
+    public RateLimiterContext.Builder<K> fairQueueing(FairQueueing fairQueueing) {
+        context.setFairQueueing(fairQueueing);
+        return this;
+    }
 }
@@ -19,6 +19,12 @@ public class RateLimiterContextImpl<K> implements RateLimiterContext<K> {
 
     private Ticker ticker;
 
+    private RateLimiterMetrics metrics;
+
+    private DecisionTracer decisionTracer;
+
+    private FairQueueing fairQueueing;
+
     private String[] packages;
 
     private Class<?>[] classes;
@@ -33,6 +39,9 @@ public class RateLimiterContextImpl<K> implements RateLimiterContext<K> {
         this.rateLimiterProvider = context.getRateLimiterProvider();
         this.store = context.getStore();
         this.ticker = context.getTicker();
+        this.metrics = context.getMetrics();
+        this.decisionTracer = context.getDecisionTracer();
+        this.fairQueueing = context.getFairQueueing();
         this.packages = context.getPackages();
         this.classes = context.getClasses();
         this.rates = context.getRates();
@@ -72,6 +81,18 @@ public class RateLimiterContextImpl<K> implements RateLimiterContext<K> {
             setTicker(Tickers.SYSTEM_EPOCH_MILLIS);
         }
 
+        if (metrics == null) {
+            setMetrics(RateLimiterMetrics.NONE);
+        }
+
+        if (decisionTracer == null) {
+            setDecisionTracer(DecisionTracer.NONE);
+        }
+
+        if (fairQueueing == null) {
+            setFairQueueing(FairQueueing.NONE);
+        }
+
         if (rateLimiterProvider == null) {
             // We decide to use this as a sensible default.
             // If you want to convert Rate to Bandwidth in a different way, then
@@ -79,7 +100,7 @@ public class RateLimiterContextImpl<K> implements RateLimiterContext<K> {
             final RateToBandwidthConverter rateToBandwidthConverter =
                     RateToBandwidthConverter.of(ticker);
             setRateLimiterProvider(RateLimiterProviders.of(
-                    rateToBandwidthConverter, store, ticker));
+                    rateToBandwidthConverter, store, ticker, metrics.getLatencyHistograms()));
         }
         return this;
     }
@@ -136,6 +157,24 @@ public class RateLimiterContextImpl<K> implements RateLimiterContext<K> {
         return result;
     }
 
+    @Override public RateLimiterContext<K> withMetrics(RateLimiterMetrics metrics) {
+        RateLimiterContextImpl result = with(this);
+        result.setMetrics(metrics);
+        return result;
+    }
+
+    @Override public RateLimiterContext<K> withDecisionTracer(DecisionTracer decisionTracer) {
+        RateLimiterContextImpl result = with(this);
+        result.setDecisionTracer(decisionTracer);
+        return result;
+    }
+
+    @Override public RateLimiterContext<K> withFairQueueing(FairQueueing fairQueueing) {
+        RateLimiterContextImpl result = with(this);
+        result.setFairQueueing(fairQueueing);
+        return result;
+    }
+
     @Override public RateLimitProperties getProperties() {
         return properties;
     }
@@ -176,6 +215,30 @@ public class RateLimiterContextImpl<K> implements RateLimiterContext<K> {
         this.ticker = ticker;
     }
 
+    @Override public RateLimiterMetrics getMetrics() {
+        return metrics;
+    }
+
+    public void setMetrics(RateLimiterMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override public DecisionTracer getDecisionTracer() {
+        return decisionTracer;
+    }
+
+    public void setDecisionTracer(DecisionTracer decisionTracer) {
+        this.decisionTracer = decisionTracer;
+    }
+
+    @Override public FairQueueing getFairQueueing() {
+        return fairQueueing;
+    }
+
+    public void setFairQueueing(FairQueueing fairQueueing) {
+        this.fairQueueing = fairQueueing;
+    }
+
     public String[] getPackages() {
         return packages;
     }
@@ -203,7 +266,9 @@ public class RateLimiterContextImpl<K> implements RateLimiterContext<K> {
     @Override public String toString() {
         return "RateLimiterContextImpl{" + "properties=" + properties + ", matcherProvider="
                 + matcherProvider + ", rateLimiterProvider=" + rateLimiterProvider + ", store="
-                + store + ", ticker=" + ticker + ", packages=" + Arrays.toString(packages)
+                + store + ", ticker=" + ticker + ", metrics=" + metrics
+                + ", decisionTracer=" + decisionTracer + ", fairQueueing=" + fairQueueing
+                + ", packages=" + Arrays.toString(packages)
                 + ", classes=" + Arrays.toString(classes) + ", rates=" + rates + '}';
     }
 }
@@ -0,0 +1,153 @@
+package io.github.poshjosh.ratelimiter;
+
+import io.github.poshjosh.ratelimiter.util.LatencyHistograms;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Records metrics of rate limiting, per node of the rate limiter tree and per key.
+ *
+ * <p>Register via {@link RateLimiterContext.Builder#metrics(RateLimiterMetrics)}.
+ * A {@link Recorder} is requested once per node and key, and is then cached; so
+ * implementations need not optimize {@link #getRecorder(String, String)}. Recorders are
+ * called concurrently, on the request path, and should thus be cheap and thread-safe.</p>
+ */
+public interface RateLimiterMetrics {
+
+    RateLimiterMetrics NONE = (nodeId, key) -> Recorder.NONE;
+
+    /**
+     * The key under which {@link #ofDefaults(int)} records the permits of a node's keys,
+     * once the node has reached its maximum number of keys.
+     */
+    String OTHER_KEYS = "*";
+
+    /**
+     * @return An implementation which records counts to {@link java.util.concurrent.atomic.LongAdder}s,
+     * and returns them via {@link #snapshot()}. Records up to 1000 keys per node.
+     * @see #ofDefaults(int)
+     */
+    static RateLimiterMetrics ofDefaults() {
+        return ofDefaults(1_000);
+    }
+
+    /**
+     * Keys are often composed from match results (e.g per user, or per IP address), so the
+     * number of keys may be unbounded. Once a node has {@code maxKeysPerNode} keys, the permits
+     * of its further keys are recorded under the key {@link #OTHER_KEYS}.
+     * @param maxKeysPerNode The maximum number of keys recorded separately per node. Use
+     *                       {@code 0}, to record the permits of each node under {@link #OTHER_KEYS}.
+     * @return An implementation which records counts to {@link java.util.concurrent.atomic.LongAdder}s,
+     * and returns them via {@link #snapshot()}.
+     */
+    static RateLimiterMetrics ofDefaults(int maxKeysPerNode) {
+        return ofDefaults(maxKeysPerNode, LatencyHistograms.NONE);
+    }
+
+    /**
+     * @param maxKeysPerNode The maximum number of keys recorded separately per node.
+     * @param latencyHistograms The histograms to record the time spent in each phase of
+     *                          rate limiting to.
+     * @return An implementation which records counts as per {@link #ofDefaults(int)}, and
+     * latencies to the specified histograms.
+     * @see #ofDefaults(int)
+     */
+    static RateLimiterMetrics ofDefaults(int maxKeysPerNode, LatencyHistograms latencyHistograms) {
+        if (maxKeysPerNode < 0) {
+            throw new IllegalArgumentException("Max keys per node must not be negative, found: "
+                    + maxKeysPerNode);
+        }
+        return new DefaultRateLimiterMetrics(maxKeysPerNode, latencyHistograms);
+    }
+
+    interface Recorder {
+        Recorder NONE = new Recorder() { };
+        default void onMatcherEvaluated(boolean matched) { }
+        default void onPermitsGranted(int permits, long waitNanos) { }
+        default void onPermitsDenied(int permits) { }
+    }
+
+    /**
+     * @param nodeId The id of the node
+     * @param key The key (as composed from match results) for which permits are acquired,
+     *            or {@code null}, for recording the matcher evaluations of the node.
+     * @return A recorder for the node and key
+     */
+    Recorder getRecorder(String nodeId, String key);
+
+    /**
+     * @return The histograms to record the time spent in each phase of rate limiting to.
+     * The default implementation returns {@link LatencyHistograms#NONE}, which records nothing.
+     */
+    default LatencyHistograms getLatencyHistograms() {
+        return LatencyHistograms.NONE;
+    }
+
+    /**
+     * Permits granted and denied are emitted as JFR events, only by metrics returned by this
+     * method. The events must also be enabled in a recording. Does nothing when JFR is not
+     * available, i.e on Java 8.
+     * <pre><code>
+     * RateLimiterContext.builder().metrics(RateLimiterMetrics.ofDefaults().withJfrEvents());
+     * </code></pre>
+     * @return Metrics which record to these, and additionally emit JFR events
+     */
+    default RateLimiterMetrics withJfrEvents() {
+        return JfrEvents.withEvents(this);
+    }
+
+    /**
+     * @return The metrics recorded so far. The default implementation returns an empty list.
+     */
+    default List<Snapshot> snapshot() {
+        return Collections.emptyList();
+    }
+
+    /**
+     * The metrics of a node, when the key is {@code null}; otherwise, of a key of the node.
+     * Matcher evaluations are recorded per node, while permits are recorded per key.
+     */
+    final class Snapshot {
+        private final String nodeId;
+        private final String key;
+        private final long matcherEvaluations;
+        private final long matches;
+        private final long permitsGranted;
+        private final long permitsDenied;
+        private final long waitNanos;
+
+        public Snapshot(String nodeId, String key, long matcherEvaluations, long matches,
+                long permitsGranted, long permitsDenied, long waitNanos) {
+            this.nodeId = Objects.requireNonNull(nodeId);
+            this.key = key;
+            this.matcherEvaluations = matcherEvaluations;
+            this.matches = matches;
+            this.permitsGranted = permitsGranted;
+            this.permitsDenied = permitsDenied;
+            this.waitNanos = waitNanos;
+        }
+
+        public String getNodeId() { return nodeId; }
+
+        public String getKey() { return key; }
+
+        public long getMatcherEvaluations() { return matcherEvaluations; }
+
+        public long getMatches() { return matches; }
+
+        public long getPermitsGranted() { return permitsGranted; }
+
+        public long getPermitsDenied() { return permitsDenied; }
+
+        public long getWaitNanos() { return waitNanos; }
+
+        @Override public String toString() {
+            return "Snapshot{nodeId='" + nodeId + "', key='" + key
+                    + "', matcherEvaluations=" + matcherEvaluations + ", matches=" + matches
+                    + ", permitsGranted=" + permitsGranted + ", permitsDenied=" + permitsDenied
+                    + ", waitNanos=" + waitNanos + '}';
+        }
+    }
+}
@@ -2,6 +2,7 @@ package io.github.poshjosh.ratelimiter;
 
 import io.github.poshjosh.ratelimiter.bandwidths.RateToBandwidthConverter;
 import io.github.poshjosh.ratelimiter.store.BandwidthsStore;
+import io.github.poshjosh.ratelimiter.util.LatencyHistograms;
 import io.github.poshjosh.ratelimiter.util.Ticker;
 import io.github.poshjosh.ratelimiter.util.Tickers;
 
@@ -13,6 +14,16 @@ public interface RateLimiterProviders {
 
     static RateLimiterProvider of(RateToBandwidthConverter converter, BandwidthsStore<?> store,
             Ticker ticker) {
-        return new DefaultRateLimiterProvider(converter, store, ticker);
+        return of(converter, store, ticker, LatencyHistograms.NONE);
+    }
+
+    /**
+     * @param latencyHistograms The histograms to record the time spent accessing the store,
+     *                          and reserving permits, to.
+     * @see RateLimiterMetrics#getLatencyHistograms()
+     */
+    static RateLimiterProvider of(RateToBandwidthConverter converter, BandwidthsStore<?> store,
+            Ticker ticker, LatencyHistograms latencyHistograms) {
+        return new DefaultRateLimiterProvider(converter, store, ticker, latencyHistograms);
     }
 }
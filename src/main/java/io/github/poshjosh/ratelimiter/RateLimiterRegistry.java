@@ -1,8 +1,11 @@
 package io.github.poshjosh.ratelimiter;
 
 import io.github.poshjosh.ratelimiter.annotation.RateId;
+import io.github.poshjosh.ratelimiter.util.Ticker;
+import io.github.poshjosh.ratelimiter.util.Tickers;
 
 import java.lang.reflect.Method;
+import java.util.Collection;
 import java.util.Optional;
 
 public interface RateLimiterRegistry<K> {
@@ -36,6 +39,43 @@ public interface RateLimiterRegistry<K> {
 
     Optional<RateLimiter> getMethodRateLimiterOptional(Method method);
 
+    /**
+     * Explain the decision {@code getRateLimiterOrUnlimited(key).tryAcquire(permits)} would
+     * make, without acquiring any permits. The wait time of each rate limiter is estimated
+     * from its bandwidth, and does not account for the number of permits.
+     * The default implementation throws {@link UnsupportedOperationException}.
+     * @param key The key to explain the decision for
+     * @param permits The number of permits
+     * @return A trace of the nodes visited, matcher results and rate limiters consulted
+     */
+    default DecisionTrace explain(K key, int permits) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Acquire permits for all the keys, or for none of them.
+     *
+     * <p>The rate limiters of all the keys are resolved first, then permits are acquired
+     * only if every one of them has permits available. So a request denied by one limit
+     * (e.g tenant), never consumes permits from the others (e.g user, endpoint).
+     * A rate limiter matched by more than one of the keys is charged once.</p>
+     * The default implementation throws {@link UnsupportedOperationException}.
+     * @param keys The keys to acquire permits for
+     * @param permits The number of permits to acquire for each key
+     * @return true if permits were acquired for all the keys, otherwise false
+     */
+    default boolean tryAcquireAll(Collection<? extends K> keys, int permits) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * @return The ticker which keeps the time of this registry's rate limiters.
+     * The default implementation returns {@link Tickers#SYSTEM_EPOCH_MILLIS}; the default
+     * ticker of {@link RateLimiterContext}.
+     */
+    default Ticker getTicker() {
+        return Tickers.SYSTEM_EPOCH_MILLIS;
+    }
 
     default boolean isRegistered(Class<?> source) {
         return isRegistered(RateId.of(source));
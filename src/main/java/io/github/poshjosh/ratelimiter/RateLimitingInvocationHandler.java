@@ -0,0 +1,112 @@
+package io.github.poshjosh.ratelimiter;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Rate limiters are held in an open-addressed table, indexed by the hash of the method's name.
+ * The proxy passes its own {@code Method} instances, which are equal to, but not the same as
+ * those we resolved. On the first invocation of each method, the key found via
+ * {@code Method#equals} is replaced with the proxy's instance; so subsequent invocations
+ * need only compare identities. The replacement is racy but benign, as both are equal.
+ */
+final class RateLimitingInvocationHandler implements InvocationHandler {
+
+    static RateLimitingInvocationHandler of(Class<?> interfaceType, Object target,
+            RateLimiterRegistry<?> registry, RateLimitedProxies.DenialPolicy denialPolicy) {
+        Objects.requireNonNull(target);
+        final List<Method> methods = new ArrayList<>();
+        final List<RateLimiter> rateLimiters = new ArrayList<>();
+        for (Method method : interfaceType.getMethods()) {
+            if (method.getDeclaringClass() == Object.class) {
+                continue;
+            }
+            final RateLimiter rateLimiter = resolveRateLimiter(registry, target, method);
+            if (rateLimiter != null) {
+                methods.add(method);
+                rateLimiters.add(rateLimiter);
+            }
+        }
+        return new RateLimitingInvocationHandler(target, methods, rateLimiters, denialPolicy);
+    }
+
+    private static RateLimiter resolveRateLimiter(
+            RateLimiterRegistry<?> registry, Object target, Method method) {
+        Method implementation;
+        try {
+            implementation = target.getClass().getMethod(method.getName(), method.getParameterTypes());
+        } catch (NoSuchMethodException e) {
+            implementation = method;
+        }
+        final RateLimiter rateLimiter = registry.getMethodRateLimiterOptional(implementation)
+                .orElseGet(() -> registry.getMethodRateLimiterOptional(method).orElse(null));
+        return rateLimiter == RateLimiters.NO_LIMIT ? null : rateLimiter;
+    }
+
+    private final Object target;
+    private final Method[] methods;
+    private final RateLimiter[] rateLimiters;
+    private final int mask;
+    private final RateLimitedProxies.DenialPolicy denialPolicy;
+
+    private RateLimitingInvocationHandler(Object target, List<Method> methodList,
+            List<RateLimiter> rateLimiterList, RateLimitedProxies.DenialPolicy denialPolicy) {
+        this.target = target;
+        final int size = Integer.highestOneBit(Math.max(1, methodList.size()) * 2 - 1) << 1;
+        this.methods = new Method[size];
+        this.rateLimiters = new RateLimiter[size];
+        this.mask = size - 1;
+        for (int i = 0; i < methodList.size(); i++) {
+            int index = indexOf(methodList.get(i));
+            while (methods[index] != null) {
+                index = (index + 1) & mask;
+            }
+            methods[index] = methodList.get(i);
+            rateLimiters[index] = rateLimiterList.get(i);
+        }
+        this.denialPolicy = Objects.requireNonNull(denialPolicy);
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        final RateLimiter rateLimiter = getRateLimiterOrNull(method);
+        if (rateLimiter != null && !rateLimiter.tryAcquire()) {
+            denialPolicy.onDenied(method, rateLimiter);
+        }
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private RateLimiter getRateLimiterOrNull(Method method) {
+        int index = indexOf(method);
+        Method candidate;
+        while ((candidate = methods[index]) != null) {
+            if (candidate == method) {
+                return rateLimiters[index];
+            }
+            if (candidate.equals(method)) {
+                methods[index] = method;
+                return rateLimiters[index];
+            }
+            index = (index + 1) & mask;
+        }
+        return null;
+    }
+
+    private int indexOf(Method method) {
+        final int hash = method.getName().hashCode();
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    @Override
+    public String toString() {
+        return "RateLimitingInvocationHandler{target=" + target + '}';
+    }
+}
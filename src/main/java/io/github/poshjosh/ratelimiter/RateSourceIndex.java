@@ -0,0 +1,117 @@
+package io.github.poshjosh.ratelimiter;
+
+import io.github.poshjosh.ratelimiter.node.Node;
+import io.github.poshjosh.ratelimiter.util.RateGroupLookup;
+
+import java.lang.reflect.GenericDeclaration;
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Selects, for a Class or Method key, the leaf nodes whose branches could possibly match
+ * the key.
+ *
+ * <p>Applicable only when main matchers are bound to the rate source. That is, a main
+ * matcher matches a Class key only when the key is the rate source, or belongs to the
+ * rate group which is the rate source. Similarly for a Method key, which additionally
+ * matches the rate source of its declaring class, when the method has no rate group.</p>
+ *
+ * <p>Methods inherited from a super class appear in the branches of both the super class
+ * and the sub class. Both branches are indexed under the same method.</p>
+ *
+ * <p>A branch is always a candidate, if any node in it has sub-conditions.</p>
+ *
+ * @param <K> The type of the key accepted by the matchers of the nodes
+ */
+final class RateSourceIndex<K> {
+
+    static <K> RateSourceIndex<K> of(LeafNodeIndex<K> leafNodeIndex) {
+        return new RateSourceIndex<>(leafNodeIndex);
+    }
+
+    private final LeafNodeIndex<K> leafNodeIndex;
+    private final Map<Object, BitSet> sourceToLeafIndexes;
+
+    // Candidates are held by the key's class (the declaring class, for methods), rather than
+    // by this index, so they are released when that class is unloaded.
+    private final ClassValue<Node<RateContext<K>>[]> classToCandidates;
+    private final ClassValue<ConcurrentMap<Method, Node<RateContext<K>>[]>> methodToCandidates;
+
+    private RateSourceIndex(LeafNodeIndex<K> leafNodeIndex) {
+        this.leafNodeIndex = Objects.requireNonNull(leafNodeIndex);
+        this.sourceToLeafIndexes = new HashMap<>();
+        leafNodeIndex.forEachMatchableNode((rateContext, leafIndexes) -> {
+            final Object source = rateContext.getSource().getSource();
+            if (source instanceof GenericDeclaration) {
+                sourceToLeafIndexes.computeIfAbsent(source, k -> new BitSet()).or(leafIndexes);
+            }
+        });
+        this.classToCandidates = new ClassValue<Node<RateContext<K>>[]>() {
+            @Override protected Node<RateContext<K>>[] computeValue(Class<?> clazz) {
+                return collectCandidateLeafNodes(clazz);
+            }
+        };
+        this.methodToCandidates = new ClassValue<ConcurrentMap<Method, Node<RateContext<K>>[]>>() {
+            @Override protected ConcurrentMap<Method, Node<RateContext<K>>[]> computeValue(
+                    Class<?> clazz) {
+                return new ConcurrentHashMap<>();
+            }
+        };
+    }
+
+    /**
+     * @param key The key to match
+     * @return The leaf nodes, whose branches could possibly match the key
+     */
+    Node<RateContext<K>>[] getCandidateLeafNodes(GenericDeclaration key) {
+        if (key instanceof Class) {
+            return classToCandidates.get((Class<?>)key);
+        }
+        if (key instanceof Method) {
+            final Method method = (Method)key;
+            final ConcurrentMap<Method, Node<RateContext<K>>[]> candidates =
+                    methodToCandidates.get(method.getDeclaringClass());
+            final Node<RateContext<K>>[] result = candidates.get(method);
+            return result != null ? result
+                    : candidates.computeIfAbsent(method, this::collectCandidateLeafNodes);
+        }
+        return collectCandidateLeafNodes(key);
+    }
+
+    private Node<RateContext<K>>[] collectCandidateLeafNodes(GenericDeclaration key) {
+        final BitSet candidates = leafNodeIndex.getLeafIndexesMatchedIndependentOfKey();
+        for (Object source : getSourcesMatchedBy(key)) {
+            final BitSet leafIndexes = sourceToLeafIndexes.get(source);
+            if (leafIndexes != null) {
+                candidates.or(leafIndexes);
+            }
+        }
+        return leafNodeIndex.toLeafNodes(candidates);
+    }
+
+    // Tag:Rule:rate-source-matching
+    private static List<Object> getSourcesMatchedBy(GenericDeclaration key) {
+        if (key instanceof Class) {
+            return sourcesMatchedBy((Class<?>)key);
+        }
+        if (key instanceof Method) {
+            final Method method = (Method)key;
+            final Class<?> rateGroup = RateGroupLookup.getRateGroupOrNull(method);
+            if (rateGroup != null) {
+                return Arrays.asList(method, rateGroup);
+            }
+            final List<Object> sources = new ArrayList<>(3);
+            sources.add(method);
+            sources.addAll(sourcesMatchedBy(method.getDeclaringClass()));
+            return sources;
+        }
+        return Collections.emptyList();
+    }
+
+    private static List<Object> sourcesMatchedBy(Class<?> clazz) {
+        final Class<?> rateGroup = RateGroupLookup.getRateGroupOrNull(clazz);
+        return rateGroup == null ? Collections.singletonList(clazz) : Arrays.asList(clazz, rateGroup);
+    }
+}
@@ -0,0 +1,59 @@
+package io.github.poshjosh.ratelimiter;
+
+/**
+ * A wrapper of a rate limiter, which reserves permits from its delegate as it would acquire
+ * them; i.e recording the reservation, as for example metrics or traces.
+ * @see AllOrNothingReservation#reserve(int)
+ */
+interface ReservingRateLimiter extends RateLimiter {
+
+    /**
+     * Permits may be reserved from the rate limiters of
+     * {@link RateLimiters#of(io.github.poshjosh.ratelimiter.bandwidths.Bandwidth, io.github.poshjosh.ratelimiter.util.Ticker)}
+     * (as created by the default {@link RateLimiterProvider}), and from wrappers of those.
+     * @param rateLimiter The rate limiter to check
+     * @return true if permits may be reserved from the rate limiter, otherwise false
+     */
+    static boolean isReservable(RateLimiter rateLimiter) {
+        return unwrap(rateLimiter) instanceof DefaultRateLimiter;
+    }
+
+    /**
+     * @param rateLimiter The rate limiter to reserve permits from
+     * @param permits The number of permits to reserve
+     * @return The time, in micros, until the reserved permits are available
+     * @throws UnsupportedOperationException If permits may not be reserved from the rate limiter
+     * @see #isReservable(RateLimiter)
+     */
+    static long reserve(RateLimiter rateLimiter, int permits) {
+        if (rateLimiter instanceof ReservingRateLimiter) {
+            return ((ReservingRateLimiter) rateLimiter).reserve(permits);
+        }
+        if (rateLimiter instanceof DefaultRateLimiter) {
+            // As the rate limiter reserves before it waits in acquire; under its own lock.
+            return ((DefaultRateLimiter) rateLimiter).reserve(permits);
+        }
+        throw new UnsupportedOperationException("Permits may not be reserved from: " + rateLimiter);
+    }
+
+    /**
+     * @param rateLimiter The rate limiter to unwrap
+     * @return The rate limiter wrapped by the specified one, however deeply, or the specified
+     * rate limiter if it is not a wrapper.
+     */
+    static RateLimiter unwrap(RateLimiter rateLimiter) {
+        while (rateLimiter instanceof ReservingRateLimiter) {
+            rateLimiter = ((ReservingRateLimiter) rateLimiter).getDelegate();
+        }
+        return rateLimiter;
+    }
+
+    RateLimiter getDelegate();
+
+    /**
+     * @param permits The number of permits to reserve
+     * @return The time, in micros, until the reserved permits are available
+     * @throws UnsupportedOperationException If permits may not be reserved from the delegate
+     */
+    long reserve(int permits);
+}
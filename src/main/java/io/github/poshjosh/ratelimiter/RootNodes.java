@@ -10,6 +10,8 @@ import io.github.poshjosh.ratelimiter.util.RateLimitProperties;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.lang.reflect.GenericDeclaration;
+import java.lang.reflect.Method;
 import java.util.*;
 import java.util.function.Function;
 import java.util.function.Predicate;
@@ -30,15 +32,25 @@ class RootNodes<K> {
     private final Node<RateContext<K>>[] annotationsLeafNodes;
     private final boolean hasAnnotations;
 
+    // Present only when main matchers are bound to rate sources, and traversal is bottom-up
+    private final RateIdTrie<K> propertiesRateIdTrie;
+    private final RateIdTrie<K> annotationsRateIdTrie;
+    private final RateSourceIndex<K> propertiesRateSourceIndex;
+    private final RateSourceIndex<K> annotationsRateSourceIndex;
+
     private RootNodes(RateLimiterContext<K> context) {
 
+        Object event = JfrEvents.beginRegistryBuildPhase();
         final RateConfigCollector propertyConfigs = new RateConfigCollector();
         Node<RateConfig> propRoot = getPropertyRateProcessor()
                 .process(Nodes.of("root.properties"), propertyConfigs, context.getProperties());
+        JfrEvents.endRegistryBuildPhase(event, "process-properties", propRoot.size());
 
+        event = JfrEvents.beginRegistryBuildPhase();
         Node<RateConfig> annoRoot = getClassRateProcessor()
                 .processAll(Nodes.of("root.annotations"),
                         (src, node) -> {}, context.getTargetClasses());
+        JfrEvents.endRegistryBuildPhase(event, "process-annotations", annoRoot.size());
 
         final List<String> transferredToAnnotations = new ArrayList<>();
         Function<Node<RateConfig>, RateConfig> overrideWithPropertyValue = node -> {
@@ -54,6 +66,7 @@ class RootNodes<K> {
             return propertyConfig.withSource(annotationConfig.getSource());
         };
 
+        event = JfrEvents.beginRegistryBuildPhase();
         annoRoot = annoRoot.transform(overrideWithPropertyValue);
 
         Predicate<Node<RateConfig>> isNodeRateLimited = node -> {
@@ -91,9 +104,13 @@ class RootNodes<K> {
 
         LOG.debug("PROPERTIES SOURCED NODES:\n{}", propertiesRootNode);
 
+        JfrEvents.endRegistryBuildPhase(event, "create-rate-contexts",
+                annotationsRootNode.size() + propertiesRootNode.size());
+
         hasProperties = !propertiesRootNode.isEmptyNode() && propertiesRootNode.size() > 0;
         hasAnnotations = !annotationsRootNode.isEmptyNode() && annotationsRootNode.size() > 0;
 
+        event = JfrEvents.beginRegistryBuildPhase();
         if (RateContext.IS_BOTTOM_UP_TRAVERSAL) {
             propertiesLeafNodes = collectLeafs(propertiesRootNode);
             annotationsLeafNodes = collectLeafs(annotationsRootNode);
@@ -101,6 +118,23 @@ class RootNodes<K> {
             propertiesLeafNodes = null;
             annotationsLeafNodes = null;
         }
+
+        if (RateContext.IS_BOTTOM_UP_TRAVERSAL
+                && context.getMatcherProvider().isMainMatcherBoundToRateSource()) {
+            final LeafNodeIndex<K> propertiesIndex = LeafNodeIndex.of(propertiesLeafNodes);
+            final LeafNodeIndex<K> annotationsIndex = LeafNodeIndex.of(annotationsLeafNodes);
+            propertiesRateIdTrie = RateIdTrie.of(propertiesIndex);
+            annotationsRateIdTrie = RateIdTrie.of(annotationsIndex);
+            propertiesRateSourceIndex = RateSourceIndex.of(propertiesIndex);
+            annotationsRateSourceIndex = RateSourceIndex.of(annotationsIndex);
+        } else {
+            propertiesRateIdTrie = null;
+            annotationsRateIdTrie = null;
+            propertiesRateSourceIndex = null;
+            annotationsRateSourceIndex = null;
+        }
+        JfrEvents.endRegistryBuildPhase(event, "index-leaf-nodes", propertiesLeafNodes == null
+                ? 0 : propertiesLeafNodes.length + annotationsLeafNodes.length);
     }
     private <R> Node<RateContext<R>> [] collectLeafs(Node<RateContext<R>> node) {
         Set<Node<RateContext<R>>> leafNodes = new LinkedHashSet<>();
@@ -145,6 +179,35 @@ class RootNodes<K> {
         return annotationsLeafNodes;
     }
 
+    /**
+     * @param key The key to match
+     * @return The properties leaf nodes, whose branches could possibly match the key.
+     */
+    public Node<RateContext<K>>[] getPropertiesLeafNodes(K key) {
+        return getCandidateLeafNodes(
+                propertiesRateIdTrie, propertiesRateSourceIndex, propertiesLeafNodes, key);
+    }
+
+    /**
+     * @param key The key to match
+     * @return The annotations leaf nodes, whose branches could possibly match the key.
+     */
+    public Node<RateContext<K>>[] getAnnotationsLeafNodes(K key) {
+        return getCandidateLeafNodes(
+                annotationsRateIdTrie, annotationsRateSourceIndex, annotationsLeafNodes, key);
+    }
+
+    private Node<RateContext<K>>[] getCandidateLeafNodes(RateIdTrie<K> rateIdTrie,
+            RateSourceIndex<K> rateSourceIndex, Node<RateContext<K>>[] leafNodes, K key) {
+        if (rateIdTrie != null && key instanceof String) {
+            return rateIdTrie.getCandidateLeafNodes((String)key);
+        }
+        if (rateSourceIndex != null && (key instanceof Class || key instanceof Method)) {
+            return rateSourceIndex.getCandidateLeafNodes((GenericDeclaration)key);
+        }
+        return leafNodes;
+    }
+
     private static final class RateConfigCollector implements RateProcessor.NodeConsumer {
         private final Map<String, RateConfig> nameToRateMap;
         public RateConfigCollector() {
@@ -0,0 +1,62 @@
+package io.github.poshjosh.ratelimiter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Writers claim a slot via a single atomic increment, and overwrite whatever was there.
+ * Readers may thus miss a trace being overwritten, but never block writers.
+ */
+final class SamplingDecisionTracer implements DecisionTracer {
+
+    private final int oneIn;
+    private final int mask;
+    private final AtomicReferenceArray<DecisionTrace> traces;
+    private final AtomicLong sequence = new AtomicLong();
+
+    SamplingDecisionTracer(int oneIn, int capacity) {
+        if (oneIn < 1) {
+            throw new IllegalArgumentException("Sampling rate must be > 0, found: " + oneIn);
+        }
+        if (capacity < 1 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException(
+                    "Capacity must be between 1 and 2^30, found: " + capacity);
+        }
+        this.oneIn = oneIn;
+        final int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = size - 1;
+        this.traces = new AtomicReferenceArray<>(size);
+    }
+
+    @Override
+    public boolean isSampled() {
+        return oneIn == 1 || ThreadLocalRandom.current().nextInt(oneIn) == 0;
+    }
+
+    @Override
+    public void onTraced(DecisionTrace trace) {
+        traces.lazySet((int)(sequence.getAndIncrement() & mask), trace);
+    }
+
+    @Override
+    public List<DecisionTrace> getRecent() {
+        final long end = sequence.get();
+        final long start = Math.max(0, end - traces.length());
+        final List<DecisionTrace> result = new ArrayList<>((int)(end - start));
+        for (long i = start; i < end; i++) {
+            final DecisionTrace trace = traces.get((int)(i & mask));
+            if (trace != null) {
+                result.add(trace);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "SamplingDecisionTracer{oneIn=" + oneIn + ", capacity=" + traces.length() + '}';
+    }
+}
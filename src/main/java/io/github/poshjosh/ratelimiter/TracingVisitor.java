@@ -0,0 +1,145 @@
+package io.github.poshjosh.ratelimiter;
+
+import io.github.poshjosh.ratelimiter.bandwidths.Bandwidth;
+import io.github.poshjosh.ratelimiter.util.Ticker;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * A visitor which adds a limiter step to a {@link DecisionTrace} for each rate limiter visited.
+ */
+abstract class TracingVisitor implements BiConsumer<String, RateLimiter> {
+
+    /**
+     * @param delegate The visitor which acquires permits
+     * @param trace The trace to add steps to
+     * @return A visitor which traces the outcome of the delegate, for each rate limiter
+     */
+    static TracingVisitor of(BiConsumer<String, RateLimiter> delegate, DecisionTrace.Builder trace) {
+        return new Recording(delegate, trace);
+    }
+
+    /**
+     * @param ticker The ticker used by the rate limiters
+     * @param trace The trace to add steps to
+     * @return A visitor which traces whether permits are available, without acquiring them
+     */
+    static TracingVisitor explaining(Ticker ticker, DecisionTrace.Builder trace) {
+        return new Explaining(ticker, trace);
+    }
+
+    private final DecisionTrace.Builder trace;
+
+    private TracingVisitor(DecisionTrace.Builder trace) {
+        this.trace = Objects.requireNonNull(trace);
+    }
+
+    DecisionTrace.Builder getTrace() {
+        return trace;
+    }
+
+    /**
+     * Update the trace with outcomes only known after visiting; i.e when the delegate
+     * acquires permits after all rate limiters are visited.
+     */
+    void complete() { }
+
+    private static final class Recording extends TracingVisitor {
+        private final BiConsumer<String, RateLimiter> delegate;
+        private final List<OutcomeRecordingRateLimiter> recordings = new ArrayList<>();
+        private Recording(BiConsumer<String, RateLimiter> delegate, DecisionTrace.Builder trace) {
+            super(trace);
+            this.delegate = Objects.requireNonNull(delegate);
+        }
+        @Override public void accept(String match, RateLimiter rateLimiter) {
+            // A rate limiter matched at more than one node, is charged once. So its outcome is
+            // recorded once, for all the steps of those nodes.
+            OutcomeRecordingRateLimiter recording = getRecordingOrNull(rateLimiter);
+            if (recording == null) {
+                recording = new OutcomeRecordingRateLimiter(rateLimiter);
+                recordings.add(recording);
+                delegate.accept(match, recording);
+            }
+            if (!recording.attempted) {
+                recording.stepIndices.add(getTrace().nextStepIndex());
+            }
+            getTrace().limiter(match, rateLimiter.getBandwidth(),
+                    recording.granted, recording.waitNanos);
+        }
+        private OutcomeRecordingRateLimiter getRecordingOrNull(RateLimiter rateLimiter) {
+            final RateLimiter unwrapped = ReservingRateLimiter.unwrap(rateLimiter);
+            for (OutcomeRecordingRateLimiter recording : recordings) {
+                if (ReservingRateLimiter.unwrap(recording) == unwrapped) {
+                    return recording;
+                }
+            }
+            return null;
+        }
+        @Override void complete() {
+            for (OutcomeRecordingRateLimiter recording : recordings) {
+                for (int stepIndex : recording.stepIndices) {
+                    getTrace().outcome(stepIndex, recording.granted, recording.waitNanos);
+                }
+            }
+            recordings.clear();
+        }
+    }
+
+    private static final class Explaining extends TracingVisitor {
+        private final Ticker ticker;
+        private Explaining(Ticker ticker, DecisionTrace.Builder trace) {
+            super(trace);
+            this.ticker = Objects.requireNonNull(ticker);
+        }
+        @Override public void accept(String match, RateLimiter rateLimiter) {
+            // Only an estimate, as it does not account for the number of permits requested.
+            final Bandwidth bandwidth = rateLimiter.getBandwidth();
+            final long nowMicros = ticker.elapsedMicros();
+            final long waitMicros = Math.max(0, bandwidth.queryEarliestAvailable(nowMicros) - nowMicros);
+            getTrace().limiter(match, bandwidth, waitMicros == 0,
+                    TimeUnit.MICROSECONDS.toNanos(waitMicros));
+        }
+    }
+
+    private static final class OutcomeRecordingRateLimiter implements ReservingRateLimiter {
+        private final RateLimiter delegate;
+        private boolean attempted;
+        private boolean granted;
+        private long waitNanos;
+        private final List<Integer> stepIndices = new ArrayList<>(1);
+        private OutcomeRecordingRateLimiter(RateLimiter delegate) {
+            this.delegate = delegate;
+        }
+        @Override public double acquire(int permits) {
+            final double secondsWaited = delegate.acquire(permits);
+            attempted = true;
+            granted = true;
+            waitNanos = secondsWaited > 0 ? (long)(secondsWaited * 1_000_000_000L) : 0;
+            return secondsWaited;
+        }
+        @Override public boolean tryAcquire(int permits, long timeout, TimeUnit unit) {
+            final long startNanos = timeout > 0 ? System.nanoTime() : 0;
+            granted = delegate.tryAcquire(permits, timeout, unit);
+            attempted = true;
+            waitNanos = timeout > 0 ? System.nanoTime() - startNanos : 0;
+            return granted;
+        }
+        @Override public RateLimiter getDelegate() {
+            return delegate;
+        }
+        @Override public long reserve(int permits) {
+            final long waitMicros = ReservingRateLimiter.reserve(delegate, permits);
+            attempted = true;
+            granted = true;
+            waitNanos = TimeUnit.MICROSECONDS.toNanos(Math.max(waitMicros, 0));
+            return waitMicros;
+        }
+        @Override public Bandwidth getBandwidth() {
+            return delegate.getBandwidth();
+        }
+    }
+}
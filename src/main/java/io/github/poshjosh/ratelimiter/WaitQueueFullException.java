@@ -0,0 +1,19 @@
+package io.github.poshjosh.ratelimiter;
+
+/**
+ * Thrown by {@code acquire}, when too many threads are already waiting for the permits of a key.
+ * @see FairQueueing#fifo(int)
+ */
+public class WaitQueueFullException extends RuntimeException {
+
+    private final transient Object key;
+
+    public WaitQueueFullException(Object key, int maxDepth) {
+        super("Wait queue full, max depth: " + maxDepth + ", for: " + key);
+        this.key = key;
+    }
+
+    public Object getKey() {
+        return key;
+    }
+}
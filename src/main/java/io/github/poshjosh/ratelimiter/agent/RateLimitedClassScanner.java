@@ -0,0 +1,121 @@
+package io.github.poshjosh.ratelimiter.agent;
+
+import io.github.poshjosh.ratelimiter.annotations.Rate;
+import io.github.poshjosh.ratelimiter.annotations.RateGroup;
+import org.objectweb.asm.AnnotationVisitor;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects the methods of a class which are to be rate limited.
+ */
+final class RateLimitedClassScanner extends ClassVisitor {
+
+    static final class MethodId {
+        private final String name;
+        private final String descriptor;
+        MethodId(String name, String descriptor) {
+            this.name = name;
+            this.descriptor = descriptor;
+        }
+        String getName() { return name; }
+        String getDescriptor() { return descriptor; }
+        boolean is(String name, String descriptor) {
+            return this.name.equals(name) && this.descriptor.equals(descriptor);
+        }
+        @Override public String toString() { return name + descriptor; }
+    }
+
+    private static final String RATE = Type.getDescriptor(Rate.class);
+    private static final String RATE_LIST = Type.getDescriptor(Rate.List.class);
+
+    private final ClassLoader loader;
+    private final List<MethodId> annotatedMethods = new ArrayList<>();
+    private final List<MethodId> publicMethods = new ArrayList<>();
+    private boolean skip;
+    private boolean classRateLimited;
+
+    RateLimitedClassScanner(ClassLoader loader) {
+        super(Opcodes.ASM9);
+        this.loader = loader;
+    }
+
+    List<MethodId> getRateLimitedMethods() {
+        if (skip) {
+            return new ArrayList<>();
+        }
+        final List<MethodId> result = new ArrayList<>(annotatedMethods);
+        if (classRateLimited) {
+            result.addAll(publicMethods);
+        }
+        return result;
+    }
+
+    @Override
+    public void visit(int version, int access, String name, String signature,
+            String superName, String[] interfaces) {
+        // Class literals (LDC) and stack map frames require Java 6+
+        skip = (access & Opcodes.ACC_INTERFACE) != 0 || (version & 0xFFFF) < Opcodes.V1_6;
+    }
+
+    @Override
+    public AnnotationVisitor visitAnnotation(String descriptor, boolean visible) {
+        if (isRateAnnotation(descriptor)) {
+            classRateLimited = true;
+        }
+        return null;
+    }
+
+    @Override
+    public MethodVisitor visitMethod(int access, String name, String descriptor,
+            String signature, String[] exceptions) {
+        if (skip || name.startsWith("<")
+                || (access & (Opcodes.ACC_ABSTRACT | Opcodes.ACC_NATIVE | Opcodes.ACC_SYNTHETIC
+                | Opcodes.ACC_BRIDGE)) != 0) {
+            return null;
+        }
+        final MethodId methodId = new MethodId(name, descriptor);
+        if ((access & Opcodes.ACC_PUBLIC) != 0) {
+            publicMethods.add(methodId);
+        }
+        return new MethodVisitor(Opcodes.ASM9) {
+            @Override
+            public AnnotationVisitor visitAnnotation(String annotationDescriptor, boolean visible) {
+                if (isRateAnnotation(annotationDescriptor) && !annotatedMethods.contains(methodId)) {
+                    annotatedMethods.add(methodId);
+                    publicMethods.remove(methodId);
+                }
+                return null;
+            }
+        };
+    }
+
+    private boolean isRateAnnotation(String descriptor) {
+        if (RATE.equals(descriptor) || RATE_LIST.equals(descriptor)) {
+            return true;
+        }
+        if (descriptor.startsWith("Ljava/") || descriptor.startsWith("Ljavax/")) {
+            return false;
+        }
+        // A rate group, or an annotation which is itself rate limited
+        try {
+            final Class<?> annotationType = Class.forName(
+                    Type.getType(descriptor).getClassName(), false, loader);
+            if (!annotationType.isAnnotation()) {
+                return false;
+            }
+            @SuppressWarnings("unchecked")
+            final Class<? extends Annotation> type = (Class<? extends Annotation>)annotationType;
+            return type.isAnnotationPresent(RateGroup.class) || type.isAnnotationPresent(Rate.class)
+                    || type.isAnnotationPresent(Rate.List.class);
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package io.github.poshjosh.ratelimiter.agent;
+
+import java.lang.instrument.Instrumentation;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Weaves {@link io.github.poshjosh.ratelimiter.annotations.Rate} enforcement into the classes
+ * of the packages given, as they are loaded. Requires {@code org.ow2.asm:asm} on the classpath.
+ *
+ * <p>Usage: {@code -javaagent:rate-limiter-annotation.jar=com.example.api,com.example.web}</p>
+ *
+ * <p>When loaded after startup (via {@code agentmain}), classes already loaded are not woven;
+ * as fields may not be added to classes that are retransformed.</p>
+ *
+ * @see WovenRateLimiters
+ */
+public final class RateLimitingAgent {
+
+    private RateLimitingAgent() { }
+
+    public static void premain(String agentArgs, Instrumentation instrumentation) {
+        instrumentation.addTransformer(new RateLimitingTransformer(parsePackages(agentArgs)));
+    }
+
+    public static void agentmain(String agentArgs, Instrumentation instrumentation) {
+        premain(agentArgs, instrumentation);
+    }
+
+    private static List<String> parsePackages(String agentArgs) {
+        if (agentArgs == null || agentArgs.trim().isEmpty()) {
+            return Collections.emptyList();
+        }
+        return Arrays.asList(agentArgs.trim().split("\\s*,\\s*"));
+    }
+}
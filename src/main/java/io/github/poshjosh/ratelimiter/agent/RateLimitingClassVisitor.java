@@ -0,0 +1,118 @@
+package io.github.poshjosh.ratelimiter.agent;
+
+import io.github.poshjosh.ratelimiter.RateLimiter;
+import org.objectweb.asm.*;
+
+import java.util.List;
+
+/**
+ * For each rate limited method {@code i}, adds a field {@code $rateLimiter$i}, initializes it
+ * in the static initializer, and inserts the following at the entry of the method:
+ * <pre>
+ * if (!$rateLimiter$i.tryAcquire()) {
+ *     WovenRateLimiters.onDenied($rateLimiter$i, Owner.class, name, descriptor);
+ * }
+ * </pre>
+ */
+final class RateLimitingClassVisitor extends ClassVisitor {
+
+    private static final String FIELD_PREFIX = "$rateLimiter$";
+    private static final String RATE_LIMITER = Type.getInternalName(RateLimiter.class);
+    private static final String RATE_LIMITER_DESCRIPTOR = Type.getDescriptor(RateLimiter.class);
+    private static final String WOVEN = Type.getInternalName(WovenRateLimiters.class);
+
+    private final String owner;
+    private final List<RateLimitedClassScanner.MethodId> methods;
+    private boolean hasStaticInitializer;
+
+    RateLimitingClassVisitor(ClassVisitor delegate, String owner,
+            List<RateLimitedClassScanner.MethodId> methods) {
+        super(Opcodes.ASM9, delegate);
+        this.owner = owner;
+        this.methods = methods;
+    }
+
+    @Override
+    public MethodVisitor visitMethod(int access, String name, String descriptor,
+            String signature, String[] exceptions) {
+        final MethodVisitor visitor = super.visitMethod(access, name, descriptor, signature, exceptions);
+        if ("<clinit>".equals(name)) {
+            hasStaticInitializer = true;
+            return new MethodVisitor(Opcodes.ASM9, visitor) {
+                @Override public void visitCode() {
+                    super.visitCode();
+                    initializeFields(mv);
+                }
+            };
+        }
+        final int index = indexOf(name, descriptor);
+        if (index < 0) {
+            return visitor;
+        }
+        return new MethodVisitor(Opcodes.ASM9, visitor) {
+            @Override public void visitCode() {
+                super.visitCode();
+                checkPermits(mv, index, name, descriptor);
+            }
+        };
+    }
+
+    @Override
+    public void visitEnd() {
+        for (int i = 0; i < methods.size(); i++) {
+            super.visitField(Opcodes.ACC_PRIVATE | Opcodes.ACC_STATIC | Opcodes.ACC_FINAL
+                    | Opcodes.ACC_SYNTHETIC, FIELD_PREFIX + i, RATE_LIMITER_DESCRIPTOR,
+                    null, null).visitEnd();
+        }
+        if (!hasStaticInitializer) {
+            final MethodVisitor visitor = super.visitMethod(
+                    Opcodes.ACC_STATIC, "<clinit>", "()V", null, null);
+            visitor.visitCode();
+            initializeFields(visitor);
+            visitor.visitInsn(Opcodes.RETURN);
+            visitor.visitMaxs(0, 0);
+            visitor.visitEnd();
+        }
+        super.visitEnd();
+    }
+
+    private int indexOf(String name, String descriptor) {
+        for (int i = 0; i < methods.size(); i++) {
+            if (methods.get(i).is(name, descriptor)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void initializeFields(MethodVisitor visitor) {
+        for (int i = 0; i < methods.size(); i++) {
+            visitor.visitLdcInsn(Type.getObjectType(owner));
+            visitor.visitLdcInsn(methods.get(i).getName());
+            visitor.visitLdcInsn(methods.get(i).getDescriptor());
+            visitor.visitMethodInsn(Opcodes.INVOKESTATIC, WOVEN, "of",
+                    "(Ljava/lang/Class;Ljava/lang/String;Ljava/lang/String;)" + RATE_LIMITER_DESCRIPTOR,
+                    false);
+            visitor.visitFieldInsn(Opcodes.PUTSTATIC, owner, FIELD_PREFIX + i, RATE_LIMITER_DESCRIPTOR);
+        }
+    }
+
+    private void checkPermits(MethodVisitor visitor, int index, String name, String descriptor) {
+        final Label permitted = new Label();
+        visitor.visitFieldInsn(Opcodes.GETSTATIC, owner, FIELD_PREFIX + index, RATE_LIMITER_DESCRIPTOR);
+        visitor.visitMethodInsn(Opcodes.INVOKEINTERFACE, RATE_LIMITER, "tryAcquire", "()Z", true);
+        visitor.visitJumpInsn(Opcodes.IFNE, permitted);
+        visitor.visitFieldInsn(Opcodes.GETSTATIC, owner, FIELD_PREFIX + index, RATE_LIMITER_DESCRIPTOR);
+        visitor.visitLdcInsn(Type.getObjectType(owner));
+        visitor.visitLdcInsn(name);
+        visitor.visitLdcInsn(descriptor);
+        visitor.visitMethodInsn(Opcodes.INVOKESTATIC, WOVEN, "onDenied",
+                "(" + RATE_LIMITER_DESCRIPTOR + "Ljava/lang/Class;Ljava/lang/String;Ljava/lang/String;)V",
+                false);
+        visitor.visitLabel(permitted);
+        // The locals at this point are those at method entry, and the stack is empty.
+        visitor.visitFrame(Opcodes.F_SAME, 0, null, 0, null);
+        // Keeps the frame above apart from any frame the original code has at its first instruction
+        visitor.visitInsn(Opcodes.NOP);
+    }
+}
@@ -0,0 +1,85 @@
+package io.github.poshjosh.ratelimiter.agent;
+
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.instrument.ClassFileTransformer;
+import java.security.ProtectionDomain;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Weaves a {@code tryAcquire()} check into the entry of each rate limited method, i.e a method
+ * annotated with {@code @Rate} (or an annotation which is itself annotated with {@code @Rate}
+ * or {@code @RateGroup}), or a public method of a class so annotated.
+ *
+ * <p>The rate limiter of each such method is held in a static final field of its class,
+ * initialized via {@link WovenRateLimiters#of(Class, String, String)}. So calls incur neither
+ * reflection nor map lookups. Interfaces, and classes compiled for Java 5 or lower, are not
+ * woven.</p>
+ */
+public final class RateLimitingTransformer implements ClassFileTransformer {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RateLimitingTransformer.class);
+
+    private static final String [] EXCLUDED_PREFIXES = {
+            "java/", "javax/", "jdk/", "sun/", "com/sun/", "org/objectweb/asm/"
+    };
+
+    private final List<String> packagePrefixes;
+
+    /**
+     * @param packageNames The packages whose classes to weave. If empty, all classes, except
+     *                     those of the JDK, are candidates.
+     */
+    public RateLimitingTransformer(List<String> packageNames) {
+        this.packagePrefixes = new ArrayList<>(packageNames.size());
+        for (String packageName : packageNames) {
+            packagePrefixes.add(packageName.replace('.', '/') + '/');
+        }
+    }
+
+    @Override
+    public byte[] transform(ClassLoader loader, String className, Class<?> classBeingRedefined,
+            ProtectionDomain protectionDomain, byte[] classfileBuffer) {
+        if (className == null || classBeingRedefined != null || !isCandidate(className)) {
+            return null;
+        }
+        try {
+            final ClassReader reader = new ClassReader(classfileBuffer);
+            final RateLimitedClassScanner scanner = new RateLimitedClassScanner(loader);
+            reader.accept(scanner, ClassReader.SKIP_CODE | ClassReader.SKIP_FRAMES);
+            if (scanner.getRateLimitedMethods().isEmpty()) {
+                return null;
+            }
+            final ClassWriter writer = new ClassWriter(reader, ClassWriter.COMPUTE_MAXS);
+            reader.accept(new RateLimitingClassVisitor(
+                    writer, className, scanner.getRateLimitedMethods()), 0);
+            LOG.debug("Wove {} methods of {}", scanner.getRateLimitedMethods().size(), className);
+            return writer.toByteArray();
+        } catch (RuntimeException e) {
+            // Returning null leaves the class unchanged; exceptions would be swallowed anyway.
+            LOG.warn("Failed to weave rate limiting into " + className, e);
+            return null;
+        }
+    }
+
+    private boolean isCandidate(String className) {
+        for (String prefix : EXCLUDED_PREFIXES) {
+            if (className.startsWith(prefix)) {
+                return false;
+            }
+        }
+        if (packagePrefixes.isEmpty()) {
+            return true;
+        }
+        for (String prefix : packagePrefixes) {
+            if (className.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
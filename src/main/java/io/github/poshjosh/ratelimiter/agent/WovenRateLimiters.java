@@ -0,0 +1,127 @@
+package io.github.poshjosh.ratelimiter.agent;
+
+import io.github.poshjosh.ratelimiter.RateLimitedProxies;
+import io.github.poshjosh.ratelimiter.RateLimiter;
+import io.github.poshjosh.ratelimiter.RateLimiterRegistries;
+import io.github.poshjosh.ratelimiter.RateLimiterRegistry;
+import io.github.poshjosh.ratelimiter.RateLimiters;
+
+import java.lang.reflect.Method;
+import java.util.Objects;
+
+/**
+ * Called by methods woven by {@link RateLimitingTransformer}. Each woven class resolves the
+ * rate limiter of each of its rate limited methods once, when the class is initialized, and
+ * holds it in a static final field. Thus, set the registry and denial policy (if required)
+ * before any woven class is initialized.
+ */
+public final class WovenRateLimiters {
+
+    private static volatile RateLimiterRegistry<?> registry;
+
+    // Guarded by the class lock. Created from the first woven class, if no registry is set.
+    private static RateLimiterRegistry<?> sharedRegistry;
+
+    private static volatile RateLimitedProxies.DenialPolicy denialPolicy =
+            RateLimitedProxies.DenialPolicy.fail();
+
+    private WovenRateLimiters() { }
+
+    /**
+     * @param registry The registry from which to resolve the rate limiters of woven methods.
+     *                 If not set, each woven class is registered into a shared registry,
+     *                 so that limits (e.g of a rate group) span woven classes.
+     */
+    public static void setRegistry(RateLimiterRegistry<?> registry) {
+        WovenRateLimiters.registry = Objects.requireNonNull(registry);
+    }
+
+    /**
+     * @param denialPolicy What to do when permits to invoke a woven method are denied.
+     *                     Defaults to {@link RateLimitedProxies.DenialPolicy#fail()}.
+     */
+    public static void setDenialPolicy(RateLimitedProxies.DenialPolicy denialPolicy) {
+        WovenRateLimiters.denialPolicy = Objects.requireNonNull(denialPolicy);
+    }
+
+    /**
+     * Called from the static initializer of a woven class.
+     * @return The rate limiter of the method, or {@link RateLimiters#NO_LIMIT} if none.
+     */
+    public static RateLimiter of(Class<?> owner, String name, String descriptor) {
+        final Method method = getMethod(owner, name, descriptor);
+        final RateLimiterRegistry<?> registry = WovenRateLimiters.registry;
+        if (registry == null) {
+            return ofSharedRegistry(owner, method);
+        }
+        return registry.getMethodRateLimiterOptional(method).orElse(RateLimiters.NO_LIMIT);
+    }
+
+    // Woven classes may be initialized concurrently, while registering mutates the registry.
+    private static synchronized RateLimiter ofSharedRegistry(Class<?> owner, Method method) {
+        if (sharedRegistry == null) {
+            sharedRegistry = RateLimiterRegistries.of(owner);
+        } else {
+            sharedRegistry.register(owner);
+        }
+        return sharedRegistry.getMethodRateLimiterOptional(method).orElse(RateLimiters.NO_LIMIT);
+    }
+
+    static synchronized void resetSharedRegistry() {
+        sharedRegistry = null;
+    }
+
+    /**
+     * Called by a woven method, when its permits are denied.
+     */
+    public static void onDenied(RateLimiter rateLimiter, Class<?> owner, String name, String descriptor) {
+        denialPolicy.onDenied(getMethod(owner, name, descriptor), rateLimiter);
+    }
+
+    private static Method getMethod(Class<?> owner, String name, String descriptor) {
+        for (Method method : owner.getDeclaredMethods()) {
+            if (method.getName().equals(name) && descriptorOf(method).equals(descriptor)) {
+                return method;
+            }
+        }
+        throw new IllegalStateException("No method: " + name + descriptor + " in " + owner);
+    }
+
+    static String descriptorOf(Method method) {
+        final StringBuilder builder = new StringBuilder().append('(');
+        for (Class<?> parameterType : method.getParameterTypes()) {
+            appendDescriptor(builder, parameterType);
+        }
+        builder.append(')');
+        appendDescriptor(builder, method.getReturnType());
+        return builder.toString();
+    }
+
+    private static void appendDescriptor(StringBuilder builder, Class<?> type) {
+        while (type.isArray()) {
+            builder.append('[');
+            type = type.getComponentType();
+        }
+        if (!type.isPrimitive()) {
+            builder.append('L').append(type.getName().replace('.', '/')).append(';');
+        } else if (type == int.class) {
+            builder.append('I');
+        } else if (type == void.class) {
+            builder.append('V');
+        } else if (type == boolean.class) {
+            builder.append('Z');
+        } else if (type == byte.class) {
+            builder.append('B');
+        } else if (type == char.class) {
+            builder.append('C');
+        } else if (type == short.class) {
+            builder.append('S');
+        } else if (type == double.class) {
+            builder.append('D');
+        } else if (type == float.class) {
+            builder.append('F');
+        } else {
+            builder.append('J');
+        }
+    }
+}
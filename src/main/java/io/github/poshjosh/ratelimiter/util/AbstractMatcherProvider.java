@@ -8,14 +8,28 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.stream.Collectors;
 
 public abstract class AbstractMatcherProvider<INPUT> implements MatcherProvider<INPUT> {
 
     private final ExpressionMatcher<INPUT> expressionMatcher;
 
+    private final MatcherSampler matcherSampler;
+
+    // Identical expressions (e.g on a group and its members) share a single matcher.
+    private final ConcurrentMap<String, Optional<Matcher<INPUT>>> expressionToMatcher;
+
     protected AbstractMatcherProvider(ExpressionMatcher<INPUT> expressionMatcher) {
+        this(expressionMatcher, MatcherSampler.none());
+    }
+
+    protected AbstractMatcherProvider(
+            ExpressionMatcher<INPUT> expressionMatcher, MatcherSampler matcherSampler) {
         this.expressionMatcher = Objects.requireNonNull(expressionMatcher);
+        this.matcherSampler = Objects.requireNonNull(matcherSampler);
+        this.expressionToMatcher = new ConcurrentHashMap<>();
     }
 
     @Override
@@ -36,7 +50,17 @@ public abstract class AbstractMatcherProvider<INPUT> implements MatcherProvider<
     }
 
     protected Optional<Matcher<INPUT>> createExpressionMatcher(String expression) {
-        return expressionMatcher.matcher(expression);
+        if (expression == null) {
+            return expressionMatcher.matcher(expression);
+        }
+        return expressionToMatcher.computeIfAbsent(expression, this::doCreateExpressionMatcher);
+    }
+
+    private Optional<Matcher<INPUT>> doCreateExpressionMatcher(String expression) {
+        return expressionMatcher.matcher(expression)
+                .map(matcher -> matcherSampler.sample(expression, matcher))
+                .map(matcher -> matcher instanceof SampledMatcher ?
+                        matcher : new SharedMatcher<>(expression, matcher));
     }
 
     protected boolean isMatchNone(RateConfig rateConfig, boolean isExpressionPresent) {
@@ -51,8 +75,19 @@ public abstract class AbstractMatcherProvider<INPUT> implements MatcherProvider<
         return matcher == null ? sourceMatcher : matcher.and(sourceMatcher);
     }
 
+    @Override
+    public void traverse(INPUT input, Runnable traversal) {
+        final MatchCache matchCache = MatchCache.begin(input);
+        try {
+            traversal.run();
+        } finally {
+            matchCache.end();
+        }
+    }
+
     @Override
     public String toString() {
-        return this.getClass().getSimpleName() + "{expressionMatcher=" + expressionMatcher + '}';
+        return this.getClass().getSimpleName() + "{expressionMatcher=" + expressionMatcher
+                + ", matcherSampler=" + matcherSampler + '}';
     }
 }
@@ -6,7 +6,11 @@ import io.github.poshjosh.ratelimiter.model.RateConfig;
 final class DefaultMatcherProvider<INPUT> extends AbstractMatcherProvider<INPUT> {
 
     DefaultMatcherProvider() {
-        super(ExpressionMatchers.ofDefaults());
+        this(MatcherSampler.none());
+    }
+
+    DefaultMatcherProvider(MatcherSampler matcherSampler) {
+        super(ExpressionMatchers.ofDefaults(), matcherSampler);
     }
 
     @Override
@@ -18,4 +22,10 @@ final class DefaultMatcherProvider<INPUT> extends AbstractMatcherProvider<INPUT>
         }
         return andSourceMatcher(expressionMatcher, rateConfig);
     }
+
+    @Override
+    public boolean isMainMatcherBoundToRateSource() {
+        // Every main matcher is either match-none, or includes a RateSourceMatcher (via AND)
+        return true;
+    }
 }
@@ -0,0 +1,217 @@
+package io.github.poshjosh.ratelimiter.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.ref.WeakReference;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+final class DefaultMatcherSampler implements MatcherSampler {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DefaultMatcherSampler.class);
+
+    // These variables are resolved relative to the calling thread.
+    private static final String [] THREAD_LOCAL_VARIABLE_PREFIXES =
+            { "jvm.thread.current", "jvm.current.thread" };
+
+    private final Map<String, Duration> variableToMaxStaleness;
+
+    private final Set<Refresh> refreshes = ConcurrentHashMap.newKeySet();
+
+    private ScheduledExecutorService scheduler;
+
+    private volatile boolean closed;
+
+    DefaultMatcherSampler(Map<String, Duration> variableToMaxStaleness) {
+        this.variableToMaxStaleness = Objects.requireNonNull(variableToMaxStaleness);
+    }
+
+    @Override
+    public <INPUT> Matcher<INPUT> sample(String expression, Matcher<INPUT> matcher) {
+        final Duration maxStaleness = getMaxStalenessOrNull(expression);
+        if (maxStaleness == null || closed) {
+            return matcher;
+        }
+        final SampledMatcher<INPUT> sampledMatcher = new SampledMatcher<>(expression, matcher);
+        try {
+            sampledMatcher.refresh();
+        } catch (RuntimeException e) {
+            LOG.debug("Not sampling, as matching a null input failed, condition: " + expression, e);
+            return matcher;
+        }
+        schedule(sampledMatcher, Math.max(1, maxStaleness.toMillis()));
+        LOG.debug("Sampling every {}, condition: {}", maxStaleness, expression);
+        return sampledMatcher;
+    }
+
+    private void schedule(SampledMatcher<?> sampledMatcher, long periodMillis) {
+        // The task does not keep the matcher alive. Once the matcher (and hence the
+        // registry it belongs to) is garbage collected, the task cancels itself.
+        final Refresh refresh = new Refresh(sampledMatcher, refreshes);
+        refreshes.add(refresh);
+        synchronized (this) {
+            if (closed) {
+                sampledMatcher.stop();
+                return;
+            }
+            refresh.future = getScheduler()
+                    .scheduleAtFixedRate(refresh, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Stop the background thread. Conditions sampled so far are evaluated inline from now on,
+     * and no further conditions are sampled.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (scheduler != null) {
+                scheduler.shutdownNow();
+            }
+        }
+        for (Refresh refresh : refreshes) {
+            refresh.stop();
+        }
+        refreshes.clear();
+    }
+
+    private ScheduledExecutorService getScheduler() {
+        if (scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "rate-condition-sampler");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return scheduler;
+    }
+
+    private Duration getMaxStalenessOrNull(String expression) {
+        final List<String> variables = getVariables(expression);
+        if (variables.isEmpty()) {
+            return null;
+        }
+        Duration result = null;
+        for (String variable : variables) {
+            final Duration maxStaleness = getMaxStalenessForVariableOrNull(variable);
+            if (maxStaleness == null) {
+                return null; // All variables in the expression must be eligible for sampling
+            }
+            if (result == null || maxStaleness.compareTo(result) < 0) {
+                result = maxStaleness;
+            }
+        }
+        return result;
+    }
+
+    private Duration getMaxStalenessForVariableOrNull(String variable) {
+        for (String threadLocalPrefix : THREAD_LOCAL_VARIABLE_PREFIXES) {
+            if (variable.startsWith(threadLocalPrefix)) {
+                return null;
+            }
+        }
+        String longestPrefix = null;
+        for (String prefix : variableToMaxStaleness.keySet()) {
+            if (variable.startsWith(prefix)
+                    && (longestPrefix == null || prefix.length() > longestPrefix.length())) {
+                longestPrefix = prefix;
+            }
+        }
+        return longestPrefix == null ? null : variableToMaxStaleness.get(longestPrefix);
+    }
+
+    /**
+     * Given <code>jvm.memory.available &lt; 1GB &amp; sys.property[name] = [a | b]</code>,
+     * returns <code>[jvm.memory.available, sys.property]</code>
+     */
+    static List<String> getVariables(String expression) {
+        final List<String> variables = new ArrayList<>();
+        if (!StringUtils.hasText(expression)) {
+            return variables;
+        }
+        int depth = 0;
+        int start = 0;
+        final int length = expression.length();
+        for (int i = 0; i <= length; i++) {
+            final char ch = i < length ? expression.charAt(i) : '&';
+            if (ch == '[') {
+                ++depth;
+            } else if (ch == ']') {
+                --depth;
+            } else if (depth == 0 && (ch == '&' || ch == '|')) {
+                final String variable = getVariableOrNull(expression.substring(start, i));
+                if (variable != null) {
+                    variables.add(variable);
+                }
+                start = i + 1;
+            }
+        }
+        return variables;
+    }
+
+    private static String getVariableOrNull(String subExpression) {
+        final String trimmed = subExpression.trim();
+        int end = 0;
+        while (end < trimmed.length()) {
+            final char ch = trimmed.charAt(end);
+            if (Character.isWhitespace(ch) || ch == '[') {
+                break;
+            }
+            ++end;
+        }
+        return end == 0 ? null : trimmed.substring(0, end);
+    }
+
+    @Override
+    public String toString() {
+        return "DefaultMatcherSampler{variableToMaxStaleness=" + variableToMaxStaleness + '}';
+    }
+
+    private static final class Refresh implements Runnable {
+        private final WeakReference<SampledMatcher<?>> matcherReference;
+        private final Set<Refresh> refreshes;
+        private volatile ScheduledFuture<?> future;
+        private Refresh(SampledMatcher<?> sampledMatcher, Set<Refresh> refreshes) {
+            this.matcherReference = new WeakReference<>(sampledMatcher);
+            this.refreshes = refreshes;
+        }
+        private void stop() {
+            final SampledMatcher<?> sampledMatcher = matcherReference.get();
+            if (sampledMatcher != null) {
+                sampledMatcher.stop();
+            }
+        }
+        @Override public void run() {
+            final SampledMatcher<?> sampledMatcher = matcherReference.get();
+            if (sampledMatcher == null) {
+                final ScheduledFuture<?> scheduled = future;
+                if (scheduled != null) {
+                    scheduled.cancel(false);
+                }
+                refreshes.remove(this);
+                return;
+            }
+            try {
+                sampledMatcher.refresh();
+            } catch (RuntimeException e) {
+                // Keep the last snapshot; an exception here would stop all further refreshes.
+                LOG.warn("Failed to refresh sampled condition: " + sampledMatcher, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package io.github.poshjosh.ratelimiter.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Scheduled tasks are pushed onto a lock-free stack, which the timer thread drains into the
+ * wheel's buckets on each tick. Each bucket is a linked list touched only by the timer thread.
+ * The same entry serves as node of the stack and of its bucket, so scheduling allocates once.
+ */
+final class DefaultTimerWheel implements TimerWheel {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DefaultTimerWheel.class);
+
+    private static final int NEW = 0, STARTED = 1, CLOSED = 2;
+
+    private final long tickNanos;
+    private final Entry[] buckets;
+    private final int mask;
+    private final AtomicReference<Entry> added = new AtomicReference<>();
+    private final AtomicInteger state = new AtomicInteger(NEW);
+    private final AtomicInteger pending = new AtomicInteger();
+    private final long startNanos = System.nanoTime();
+    private volatile Thread thread;
+
+    DefaultTimerWheel(long tickNanos, int bucketCount) {
+        if (tickNanos <= 0) {
+            throw new IllegalArgumentException("Tick duration must be positive, found: " + tickNanos);
+        }
+        if (bucketCount <= 0 || bucketCount > (1 << 30)) {
+            throw new IllegalArgumentException("Bucket count out of range, found: " + bucketCount);
+        }
+        this.tickNanos = tickNanos;
+        final int size = Integer.highestOneBit(bucketCount - 1) << 1;
+        this.buckets = new Entry[Math.max(1, size)];
+        this.mask = buckets.length - 1;
+    }
+
+    @Override
+    public void schedule(Runnable task, long delay, TimeUnit unit) {
+        if (task == null) {
+            throw new NullPointerException();
+        }
+        start();
+        final long deadlineNanos = System.nanoTime() - startNanos + Math.max(0, unit.toNanos(delay));
+        pending.incrementAndGet();
+        final Entry entry = new Entry(task, deadlineNanos);
+        Entry head;
+        do {
+            head = added.get();
+            entry.next = head;
+        } while (!added.compareAndSet(head, entry));
+        if (state.get() == CLOSED) {
+            // Closed meanwhile, perhaps after the timer thread cancelled the added tasks.
+            cancel(added.getAndSet(null));
+        }
+    }
+
+    private void start() {
+        switch (state.get()) {
+            case NEW:
+                if (state.compareAndSet(NEW, STARTED)) {
+                    final Thread newThread = new Thread(this::run, "rate-limiter-timer-wheel");
+                    newThread.setDaemon(true);
+                    thread = newThread;
+                    newThread.start();
+                }
+                break;
+            case STARTED:
+                break;
+            default:
+                throw new IllegalStateException("Closed");
+        }
+    }
+
+    private void run() {
+        long tick = (System.nanoTime() - startNanos) / tickNanos;
+        while (state.get() == STARTED) {
+            final long deadlineNanos = (tick + 1) * tickNanos;
+            if (!waitUntil(deadlineNanos)) {
+                break;
+            }
+            transferAdded(tick);
+            expire((int) (tick & mask));
+            ++tick;
+        }
+        for (int i = 0; i < buckets.length; i++) {
+            cancel(buckets[i]);
+            buckets[i] = null;
+        }
+        cancel(added.getAndSet(null));
+    }
+
+    private void cancel(Entry entry) {
+        while (entry != null) {
+            final Entry next = entry.next;
+            pending.decrementAndGet();
+            if (entry.task instanceof Future) {
+                ((Future<?>) entry.task).cancel(false);
+            }
+            entry = next;
+        }
+    }
+
+    private boolean waitUntil(long deadlineNanos) {
+        while (true) {
+            final long sleepNanos = deadlineNanos - (System.nanoTime() - startNanos);
+            if (sleepNanos <= 0) {
+                return true;
+            }
+            LockSupport.parkNanos(this, sleepNanos);
+            if (state.get() != STARTED) {
+                return false;
+            }
+        }
+    }
+
+    private void transferAdded(long currentTick) {
+        Entry entry = added.getAndSet(null);
+        while (entry != null) {
+            final Entry next = entry.next;
+            // Entries whose deadline has passed, go into the current bucket.
+            final long deadlineTick = Math.max(currentTick, entry.deadlineNanos / tickNanos);
+            entry.remainingRounds = (deadlineTick - currentTick) / buckets.length;
+            final int index = (int) (deadlineTick & mask);
+            entry.next = buckets[index];
+            buckets[index] = entry;
+            entry = next;
+        }
+    }
+
+    private void expire(int i) {
+        Entry previous = null;
+        Entry entry = buckets[i];
+        while (entry != null) {
+            final Entry next = entry.next;
+            if (entry.remainingRounds <= 0) {
+                if (previous == null) {
+                    buckets[i] = next;
+                } else {
+                    previous.next = next;
+                }
+                pending.decrementAndGet();
+                run(entry.task);
+            } else {
+                --entry.remainingRounds;
+                previous = entry;
+            }
+            entry = next;
+        }
+    }
+
+    private void run(Runnable task) {
+        try {
+            task.run();
+        } catch (RuntimeException | Error e) {
+            LOG.warn("Task threw exception: " + task, e);
+        }
+    }
+
+    @Override
+    public int getPendingCount() {
+        return pending.get();
+    }
+
+    @Override
+    public void close() {
+        if (state.getAndSet(CLOSED) == STARTED) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "DefaultTimerWheel{tickNanos=" + tickNanos + ", buckets=" + buckets.length
+                + ", pending=" + pending.get() + '}';
+    }
+
+    private static final class Entry {
+        private final Runnable task;
+        private final long deadlineNanos;
+        private long remainingRounds;
+        private Entry next;
+        private Entry(Runnable task, long deadlineNanos) {
+            this.task = task;
+            this.deadlineNanos = deadlineNanos;
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package io.github.poshjosh.ratelimiter.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-memory, log-bucketed histograms of the time spent in each phase of rate limiting.
+ *
+ * <p>Owned by the {@link io.github.poshjosh.ratelimiter.RateLimiterMetrics} of a registry.
+ * Threads record to one of a fixed number of stripes of buckets, chosen by thread id, so
+ * that threads seldom contend for a bucket. There are as many stripes as processors (rounded
+ * up to a power of 2, at most 64), each of about 6 KB, all allocated up front. Thus memory
+ * grows neither with the number of recording threads, nor under contention; and recording
+ * neither locks nor loses records, even of threads which end. Snapshots sum the stripes.
+ * {@link #NONE}, the default, records nothing, at the cost of a field read per phase.</p>
+ *
+ * <p>Each power of 2 is divided into 4 buckets, so values are reported to within 25%.</p>
+ *
+ * <pre><code>
+ * LatencyHistograms histograms = LatencyHistograms.ofDefaults();
+ * RateLimiterContext.builder().metrics(RateLimiterMetrics.ofDefaults(1_000, histograms));
+ * // ... serve requests
+ * LatencyHistograms.Snapshot match = histograms.snapshot(LatencyHistograms.Phase.MATCH);
+ * long p99Nanos = match.getValueAtPercentile(99);
+ * </code></pre>
+ */
+public final class LatencyHistograms {
+
+    public enum Phase {
+        /** Evaluating the matchers of the nodes of the rate limiter tree */
+        MATCH,
+        /** Reading bandwidths from, and writing bandwidths to, the store */
+        STORE,
+        /** Reserving permits from bandwidths */
+        RESERVE
+    }
+
+    private static final int SUB_BUCKET_BITS = 2;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    static final int BUCKETS = (63 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private static final Phase[] PHASES = Phase.values();
+
+    private static final int MAX_STRIPES = 64;
+
+    public static final LatencyHistograms NONE = new LatencyHistograms(false);
+
+    public static LatencyHistograms ofDefaults() {
+        return new LatencyHistograms(true);
+    }
+
+    // Per stripe, the buckets of all the phases; those of phase p start at p * BUCKETS.
+    private final AtomicLongArray[] stripes;
+    private final int stripeShift;
+
+    private LatencyHistograms(boolean enabled) {
+        if (!enabled) {
+            this.stripes = null;
+            this.stripeShift = 0;
+            return;
+        }
+        final int processors = Runtime.getRuntime().availableProcessors();
+        final int stripeCount = Math.min(MAX_STRIPES,
+                processors <= 1 ? 1 : Integer.highestOneBit(processors - 1) << 1);
+        this.stripes = new AtomicLongArray[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new AtomicLongArray(PHASES.length * BUCKETS);
+        }
+        this.stripeShift = Long.SIZE - Integer.numberOfTrailingZeros(stripeCount);
+    }
+
+    public boolean isEnabled() {
+        return stripes != null;
+    }
+
+    /**
+     * @return The current time in nanos if enabled, otherwise {@code 0}. Pass the result
+     * to {@link #record(Phase, long)} at the end of the phase.
+     */
+    public long startNanos() {
+        return stripes == null ? 0 : System.nanoTime();
+    }
+
+    /**
+     * @param phase The phase which ended
+     * @param startNanos The value returned by {@link #startNanos()} at the start of the phase
+     */
+    public void record(Phase phase, long startNanos) {
+        if (startNanos == 0 || stripes == null) {
+            return;
+        }
+        final int bucket = phase.ordinal() * BUCKETS + bucketOf(System.nanoTime() - startNanos);
+        stripes[stripeOfCurrentThread()].incrementAndGet(bucket);
+    }
+
+    private int stripeOfCurrentThread() {
+        if (stripeShift == Long.SIZE) {
+            return 0;
+        }
+        // Spread the thread id, as consecutive threads often have consecutive ids.
+        return (int) ((Thread.currentThread().getId() * 0x9E3779B97F4A7C15L) >>> stripeShift);
+    }
+
+    /**
+     * Clear the histograms. Records made concurrently may or may not be retained.
+     */
+    public void reset() {
+        if (stripes == null) {
+            return;
+        }
+        for (AtomicLongArray stripe : stripes) {
+            for (int i = 0; i < stripe.length(); i++) {
+                stripe.set(i, 0);
+            }
+        }
+    }
+
+    public Snapshot snapshot(Phase phase) {
+        final long[] counts = new long[BUCKETS];
+        if (stripes != null) {
+            final int offset = phase.ordinal() * BUCKETS;
+            for (AtomicLongArray stripe : stripes) {
+                for (int i = 0; i < BUCKETS; i++) {
+                    counts[i] += stripe.get(offset + i);
+                }
+            }
+        }
+        return new Snapshot(phase, counts);
+    }
+
+    @Override public String toString() {
+        return "LatencyHistograms{enabled=" + isEnabled()
+                + ", stripes=" + (stripes == null ? 0 : stripes.length) + '}';
+    }
+
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return value < 0 ? 0 : (int)value;
+        }
+        final int powerOf2 = 63 - Long.numberOfLeadingZeros(value);
+        final int subBucket = (int)(value >>> (powerOf2 - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (powerOf2 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    static long lowerBoundOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        final int powerOf2 = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        final long subBucket = bucket % SUB_BUCKETS;
+        return (SUB_BUCKETS + subBucket) << (powerOf2 - SUB_BUCKET_BITS);
+    }
+
+    static long upperBoundOf(int bucket) {
+        return bucket + 1 >= BUCKETS ? Long.MAX_VALUE : lowerBoundOf(bucket + 1) - 1;
+    }
+
+    public static final class Snapshot {
+        private final Phase phase;
+        private final long[] counts;
+        private final long totalCount;
+
+        private Snapshot(Phase phase, long[] counts) {
+            this.phase = phase;
+            this.counts = counts;
+            long total = 0;
+            for (long count : counts) {
+                total += count;
+            }
+            this.totalCount = total;
+        }
+
+        public Phase getPhase() {
+            return phase;
+        }
+
+        public long getTotalCount() {
+            return totalCount;
+        }
+
+        /**
+         * @param percentile A value between 0 and 100, e.g 99.9
+         * @return The upper bound in nanos of the bucket containing the percentile,
+         * or {@code 0} if nothing was recorded.
+         */
+        public long getValueAtPercentile(double percentile) {
+            if (totalCount == 0) {
+                return 0;
+            }
+            final long rank = Math.max(1, (long)Math.ceil(percentile / 100 * totalCount));
+            long cumulative = 0;
+            for (int i = 0; i < counts.length; i++) {
+                cumulative += counts[i];
+                if (cumulative >= rank) {
+                    return upperBoundOf(i);
+                }
+            }
+            return upperBoundOf(counts.length - 1);
+        }
+
+        @Override public String toString() {
+            return "Snapshot{phase=" + phase + ", count=" + totalCount
+                    + ", p50=" + getValueAtPercentile(50) + "ns"
+                    + ", p99=" + getValueAtPercentile(99) + "ns"
+                    + ", p99.9=" + getValueAtPercentile(99.9) + "ns}";
+        }
+    }
+}
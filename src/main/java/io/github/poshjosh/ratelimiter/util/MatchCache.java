@@ -0,0 +1,55 @@
+package io.github.poshjosh.ratelimiter.util;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Caches the results of shared condition matchers, for the duration of a single traversal
+ * of the rate limiter tree on the current thread. This way, a condition shared by many
+ * nodes (e.g. a group and its members) is evaluated at most once per traversal.
+ *
+ * @see AbstractMatcherProvider#traverse(Object, Runnable)
+ */
+final class MatchCache {
+
+    private static final ThreadLocal<MatchCache> current = ThreadLocal.withInitial(MatchCache::new);
+
+    static MatchCache begin(Object key) {
+        final MatchCache matchCache = current.get();
+        if (matchCache.depth++ == 0) {
+            matchCache.key = key;
+        }
+        return matchCache;
+    }
+
+    static MatchCache currentOrNull() {
+        final MatchCache matchCache = current.get();
+        return matchCache.depth > 0 ? matchCache : null;
+    }
+
+    private final Map<Matcher<?>, String> matcherToResult = new IdentityHashMap<>();
+    private Object key;
+    private int depth;
+
+    private MatchCache() { }
+
+    void end() {
+        if (--depth == 0) {
+            key = null;
+            if (!matcherToResult.isEmpty()) {
+                matcherToResult.clear();
+            }
+        }
+    }
+
+    String getOrNull(Matcher<?> matcher, Object input) {
+        // Results are cached only for the key of the outermost traversal.
+        return input == key ? matcherToResult.get(matcher) : null;
+    }
+
+    void put(Matcher<?> matcher, Object input, String result) {
+        if (input == key) {
+            matcherToResult.put(matcher, result);
+        }
+    }
+}
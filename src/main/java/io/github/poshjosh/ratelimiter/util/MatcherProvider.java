@@ -8,6 +8,44 @@ public interface MatcherProvider<INPUT> {
     static <INPUT> MatcherProvider<INPUT> ofDefaults() {
         return new DefaultMatcherProvider<>();
     }
+    /**
+     * @param matcherSampler Determines which rate conditions are evaluated from
+     *                       periodically refreshed snapshots.
+     * @return A default {@link MatcherProvider} which samples rate conditions.
+     * @see MatcherSampler#of(java.util.Map)
+     */
+    static <INPUT> MatcherProvider<INPUT> ofDefaults(MatcherSampler matcherSampler) {
+        return new DefaultMatcherProvider<>(matcherSampler);
+    }
     Matcher<INPUT> createMainMatcher(RateConfig rateConfig);
     List<Matcher<INPUT>> createLimitMatchers(RateConfig rateConfig);
+
+    /**
+     * Return {@code true}, if each main matcher created by this provider matches a String key
+     * only when the key equals the rate id, or (for class rate sources) starts with the rate id;
+     * and matches a Class or Method key only when the key is, or belongs to (e.g via its
+     * rate group or declaring class), the rate source. This allows for the nodes which could
+     * match such keys, to be selected without evaluating each node's matcher.
+     *
+     * The default implementation returns {@code false}.
+     *
+     * @return {@code true}, if main matchers created by this provider are bound to the rate source.
+     */
+    default boolean isMainMatcherBoundToRateSource() {
+        return false;
+    }
+
+    /**
+     * Run a traversal, which matches an input against the rate conditions of multiple nodes.
+     * Within the traversal, a condition shared by multiple nodes may be evaluated only once
+     * for the input. Called by rate limiters on each acquire.
+     *
+     * The default implementation simply runs the traversal.
+     *
+     * @param input The input being matched
+     * @param traversal Matches the input against the nodes, on the current thread
+     */
+    default void traverse(INPUT input, Runnable traversal) {
+        traversal.run();
+    }
 }
@@ -0,0 +1,68 @@
+package io.github.poshjosh.ratelimiter.util;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Decides which rate condition matchers are evaluated from a periodically refreshed
+ * snapshot, rather than inline on every match.
+ *
+ * <p>Only conditions whose result does not depend on the match input may be sampled, for
+ * example <code>jvm.memory.available &lt; 1GB</code> or <code>jvm.thread.count &gt; 500</code>.
+ * A condition is sampled only when each variable (i.e. LHS) in it starts with one of the
+ * configured prefixes. Snapshots are taken by matching a {@code null} input, so conditions
+ * whose matchers do not accept a {@code null} input are evaluated inline. Variables starting with <code>jvm.thread.current</code> are never
+ * sampled, as their values depend on the calling thread.</p>
+ *
+ * <p>Example:</p>
+ * <pre>
+ * Map&lt;String, Duration&gt; maxStaleness = new HashMap&lt;&gt;();
+ * maxStaleness.put("jvm.memory", Duration.ofMillis(100));
+ * maxStaleness.put("jvm.thread", Duration.ofSeconds(1));
+ * MatcherProvider&lt;Object&gt; matcherProvider =
+ *         MatcherProvider.ofDefaults(MatcherSampler.of(maxStaleness));
+ * </pre>
+ */
+public interface MatcherSampler {
+
+    MatcherSampler NONE = new MatcherSampler() {
+        @Override public <INPUT> Matcher<INPUT> sample(String expression, Matcher<INPUT> matcher) {
+            return matcher;
+        }
+        @Override public String toString() { return "MatcherSampler$NONE"; }
+    };
+
+    static MatcherSampler none() {
+        return NONE;
+    }
+
+    /**
+     * @param variableToMaxStaleness Maps a variable (or variable prefix) e.g
+     *                               <code>jvm.memory</code> to the maximum age of its
+     *                               sampled value. The longest matching prefix applies.
+     * @return A sampler which refreshes matching conditions on a single background thread.
+     */
+    static MatcherSampler of(Map<String, Duration> variableToMaxStaleness) {
+        if (variableToMaxStaleness == null || variableToMaxStaleness.isEmpty()) {
+            return none();
+        }
+        return new DefaultMatcherSampler(Collections.unmodifiableMap(variableToMaxStaleness));
+    }
+
+    /**
+     * @param expression The rate condition expression from which the matcher was created
+     * @param matcher The matcher to sample
+     * @return Either a sampled version of the matcher, or the matcher itself, if the expression
+     * is not eligible for sampling.
+     */
+    <INPUT> Matcher<INPUT> sample(String expression, Matcher<INPUT> matcher);
+
+    /**
+     * Stop refreshing. Conditions sampled so far are evaluated inline from now on.
+     * The sampler is not closed by the registries using it, so close it once those
+     * registries are no longer used (e.g on undeploy).
+     * The default implementation does nothing.
+     */
+    default void close() { }
+}
@@ -0,0 +1,78 @@
+package io.github.poshjosh.ratelimiter.util;
+
+import io.github.poshjosh.ratelimiter.annotations.RateGroup;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.GenericDeclaration;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves the rate group (i.e. the annotation type annotated with {@link RateGroup})
+ * of a class or method. Results are cached, as annotations do not change at runtime,
+ * while {@link Class#getAnnotations()} clones the annotation array on every call.
+ */
+public final class RateGroupLookup {
+
+    // Stands in for "no rate group", as neither ClassValue nor ConcurrentHashMap accept null.
+    private static final Class<?> NO_RATE_GROUP = Void.class;
+
+    private static final ClassValue<Class<?>> classToRateGroup = new ClassValue<Class<?>>() {
+        @Override protected Class<?> computeValue(Class<?> clazz) {
+            if (clazz.isAnnotation()) {
+                return clazz.getAnnotation(RateGroup.class) != null ? clazz : NO_RATE_GROUP;
+            }
+            return findRateGroupClassOrDefault(clazz, NO_RATE_GROUP);
+        }
+    };
+
+    // Methods are cached per declaring class. Note that a ClassValue's value which strongly
+    // references its class (as the Method keys here do) keeps that class, and its class loader,
+    // reachable (JDK-8136353). So entries are never released; the same applies to the rate
+    // group classes cached above. Rate limited classes are expected to live as long as the
+    // application, so this is bounded by the number of rate limited classes and methods.
+    private static final ClassValue<Map<Method, Class<?>>> methodToRateGroup =
+            new ClassValue<Map<Method, Class<?>>>() {
+                @Override protected Map<Method, Class<?>> computeValue(Class<?> clazz) {
+                    return new ConcurrentHashMap<>();
+                }
+            };
+
+    private RateGroupLookup() { }
+
+    /**
+     * @param clazz The class whose rate group is to be returned
+     * @return The class itself if it is a rate group annotation type, otherwise the
+     * rate group annotation type on the class, or {@code null} if none.
+     */
+    public static Class<?> getRateGroupOrNull(Class<?> clazz) {
+        final Class<?> rateGroupClass = classToRateGroup.get(clazz);
+        return rateGroupClass == NO_RATE_GROUP ? null : rateGroupClass;
+    }
+
+    /**
+     * @param method The method whose rate group is to be returned
+     * @return The rate group annotation type on the method, or {@code null} if none.
+     */
+    public static Class<?> getRateGroupOrNull(Method method) {
+        final Class<?> rateGroupClass = methodToRateGroup.get(method.getDeclaringClass())
+                .computeIfAbsent(method, m -> findRateGroupClassOrDefault(m, NO_RATE_GROUP));
+        return rateGroupClass == NO_RATE_GROUP ? null : rateGroupClass;
+    }
+
+    private static Class<?> findRateGroupClassOrDefault(
+            GenericDeclaration source, Class<?> resultIfNone) {
+        Annotation[] annotations = source.getAnnotations();
+        for (Annotation annotation : annotations) {
+            Class<? extends Annotation> annotationType = annotation.annotationType();
+            boolean rateGroup = annotationType.getAnnotation(RateGroup.class) != null;
+            if (rateGroup) {
+                // RateGroup is not a repeatable annotation
+                // so only one annotation is expected.
+                return annotationType;
+            }
+        }
+        return resultIfNone;
+    }
+}
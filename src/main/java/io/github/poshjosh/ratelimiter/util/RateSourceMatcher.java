@@ -1,13 +1,10 @@
 package io.github.poshjosh.ratelimiter.util;
 
-import io.github.poshjosh.ratelimiter.annotations.RateGroup;
-
-import java.lang.annotation.Annotation;
-import java.lang.reflect.GenericDeclaration;
 import java.lang.reflect.Method;
 import java.util.Objects;
 
 final class RateSourceMatcher<INPUT> implements Matcher<INPUT> {
+
     private final String id;
     private final Object source;
 
@@ -25,6 +22,7 @@ final class RateSourceMatcher<INPUT> implements Matcher<INPUT> {
         return doMatch(input, false);
     }
 
+    // Tag:Rule:rate-source-matching
     private String doMatch(Object input, boolean annotationClassDetermined) {
 
         if (input == null) {
@@ -61,6 +59,7 @@ final class RateSourceMatcher<INPUT> implements Matcher<INPUT> {
                 return id;
             }
             final String sval = (String)input;
+            // Tag:Rule:class-id-matches-keys-starting-with-id
             if (source instanceof Class && sval.startsWith(id)) {
                 return id;
             }
@@ -74,26 +73,15 @@ final class RateSourceMatcher<INPUT> implements Matcher<INPUT> {
         return Matchers.NO_MATCH;
     }
 
-    private Class<?> getRateGroupClassOrDefaultForClass(Class<?> clazz, Class<?> resultIfNone) {
-        if (clazz.isAnnotation()) {
-            return clazz.getAnnotation(RateGroup.class) != null ? clazz : resultIfNone;
-        }
-        return getRateGroupClassOrDefaultFor(clazz, resultIfNone);
+    private static Class<?> getRateGroupClassOrDefaultForClass(
+            Class<?> clazz, Class<?> resultIfNone) {
+        final Class<?> rateGroupClass = RateGroupLookup.getRateGroupOrNull(clazz);
+        return rateGroupClass == null ? resultIfNone : rateGroupClass;
     }
 
-    private Class<?> getRateGroupClassOrDefaultFor(
-            GenericDeclaration source, Class<?> resultIfNone) {
-        Annotation[] annotations = source.getAnnotations();
-        for (Annotation annotation : annotations) {
-            Class<? extends Annotation> annotationType = annotation.annotationType();
-            boolean rateGroup = annotationType.getAnnotation(RateGroup.class) != null;
-            if (rateGroup) {
-                // RateGroup is not a repeatable annotation
-                // so only one annotation is expected.
-                return annotationType;
-            }
-        }
-        return resultIfNone;
+    private static Class<?> getRateGroupClassOrDefaultFor(Method method, Class<?> resultIfNone) {
+        final Class<?> rateGroupClass = RateGroupLookup.getRateGroupOrNull(method);
+        return rateGroupClass == null ? resultIfNone : rateGroupClass;
     }
 
     @Override
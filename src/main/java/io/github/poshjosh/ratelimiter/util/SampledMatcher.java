@@ -0,0 +1,56 @@
+package io.github.poshjosh.ratelimiter.util;
+
+import java.util.Objects;
+
+/**
+ * A matcher whose result is read from a snapshot, which is refreshed in the background.
+ * Suitable only for matchers whose result is independent of the match input.
+ *
+ * <p>Snapshots are taken by matching a {@code null} input, so no request input is ever
+ * retained. Until a snapshot is taken, or once sampling is stopped, each match is
+ * evaluated inline.</p>
+ * @param <INPUT> The type of the input to match
+ */
+final class SampledMatcher<INPUT> implements Matcher<INPUT> {
+
+    private final String expression;
+    private final Matcher<INPUT> delegate;
+
+    private volatile boolean sampled;
+    private volatile String snapshot;
+
+    SampledMatcher(String expression, Matcher<INPUT> delegate) {
+        this.expression = Objects.requireNonNull(expression);
+        this.delegate = Objects.requireNonNull(delegate);
+    }
+
+    @Override
+    public String match(INPUT input) {
+        if (sampled) {
+            return snapshot;
+        }
+        return delegate.match(input);
+    }
+
+    /**
+     * @throws RuntimeException If the delegate does not accept a {@code null} input; in which
+     * case, matches continue to be evaluated inline.
+     */
+    void refresh() {
+        snapshot = delegate.match(null);
+        sampled = true;
+    }
+
+    /**
+     * Evaluate each match inline, from now on.
+     */
+    void stop() {
+        sampled = false;
+    }
+
+    @Override
+    public String toString() {
+        return "SampledMatcher{expression='" + expression + "', sampled=" + sampled
+                + ", snapshot=" + snapshot + '}';
+    }
+}
@@ -0,0 +1,39 @@
+package io.github.poshjosh.ratelimiter.util;
+
+import java.util.Objects;
+
+/**
+ * A condition matcher which may be shared by multiple nodes. Within a single traversal
+ * of the rate limiter tree, the result of this matcher is computed only once.
+ * @param <INPUT> The type of the input to match
+ * @see MatchCache
+ */
+final class SharedMatcher<INPUT> implements Matcher<INPUT> {
+
+    private final String expression;
+    private final Matcher<INPUT> delegate;
+
+    SharedMatcher(String expression, Matcher<INPUT> delegate) {
+        this.expression = Objects.requireNonNull(expression);
+        this.delegate = Objects.requireNonNull(delegate);
+    }
+
+    @Override
+    public String match(INPUT input) {
+        final MatchCache matchCache = MatchCache.currentOrNull();
+        if (matchCache == null) {
+            return delegate.match(input);
+        }
+        String result = matchCache.getOrNull(this, input);
+        if (result == null) {
+            result = delegate.match(input);
+            matchCache.put(this, input, result);
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "SharedMatcher{expression='" + expression + "', delegate=" + delegate + '}';
+    }
+}
@@ -0,0 +1,56 @@
+package io.github.poshjosh.ratelimiter.util;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A hashed timer wheel, for running many short tasks after a delay, from a single thread.
+ *
+ * <p>Scheduling and expiring a task are O(1), rather than the O(log n) of a
+ * {@link java.util.concurrent.ScheduledExecutorService}; at the cost of precision. A task
+ * runs on the first tick at or after its deadline, so may run up to one tick late.</p>
+ *
+ * <p>Tasks are run on the timer thread, so should be brief e.g completing a future.</p>
+ *
+ * <p>Tasks which are also a {@link java.util.concurrent.Future} are cancelled, if this timer
+ * wheel is closed before they run; so that nothing waits for them forever.</p>
+ */
+public interface TimerWheel extends AutoCloseable {
+
+    /**
+     * @return A timer wheel which ticks every millisecond, over 512 buckets.
+     */
+    static TimerWheel ofDefaults() {
+        return of(1, TimeUnit.MILLISECONDS, 512);
+    }
+
+    /**
+     * @param tickDuration The duration of each tick
+     * @param unit The time unit of the tick duration
+     * @param bucketCount The number of buckets on the wheel. Rounded up to a power of 2.
+     * @return A new timer wheel, whose thread is started when the first task is scheduled.
+     */
+    static TimerWheel of(long tickDuration, TimeUnit unit, int bucketCount) {
+        return new DefaultTimerWheel(unit.toNanos(tickDuration), bucketCount);
+    }
+
+    /**
+     * Schedule a task to run after the specified delay.
+     * @param task The task to run
+     * @param delay The delay after which the task should run
+     * @param unit The time unit of the delay
+     * @throws IllegalStateException If this timer wheel is closed
+     */
+    void schedule(Runnable task, long delay, TimeUnit unit);
+
+    /**
+     * @return The number of tasks scheduled but not yet run
+     */
+    int getPendingCount();
+
+    /**
+     * Stop the timer thread. Tasks not yet run are discarded; those which are also a
+     * {@link java.util.concurrent.Future} are first cancelled, on the timer thread.
+     */
+    @Override
+    void close();
+}
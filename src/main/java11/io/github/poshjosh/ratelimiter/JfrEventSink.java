@@ -0,0 +1,131 @@
+package io.github.poshjosh.ratelimiter;
+
+import jdk.jfr.*;
+
+/**
+ * Emits JFR events. Loaded only when JFR is available, see {@link JfrEvents}.
+ */
+final class JfrEventSink implements JfrEvents.Sink {
+
+    private final RateLimiterMetrics metrics = (nodeId, key) -> new PermitsRecorder(nodeId, key);
+
+    JfrEventSink() { }
+
+    @Override
+    public RateLimiterMetrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public Object beginStoreAccess() {
+        final StoreAccessEvent event = new StoreAccessEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public void endStoreAccess(Object event, Object key, boolean write) {
+        final StoreAccessEvent storeAccessEvent = (StoreAccessEvent)event;
+        storeAccessEvent.end();
+        if (storeAccessEvent.shouldCommit()) {
+            storeAccessEvent.key = String.valueOf(key);
+            storeAccessEvent.write = write;
+            storeAccessEvent.commit();
+        }
+    }
+
+    @Override
+    public Object beginRegistryBuildPhase() {
+        final RegistryBuildPhaseEvent event = new RegistryBuildPhaseEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public void endRegistryBuildPhase(Object event, String phase, int nodeCount) {
+        final RegistryBuildPhaseEvent buildPhaseEvent = (RegistryBuildPhaseEvent)event;
+        buildPhaseEvent.end();
+        if (buildPhaseEvent.shouldCommit()) {
+            buildPhaseEvent.phase = phase;
+            buildPhaseEvent.nodeCount = nodeCount;
+            buildPhaseEvent.commit();
+        }
+    }
+
+    private static final class PermitsRecorder implements RateLimiterMetrics.Recorder {
+        private final String nodeId;
+        private final String key;
+        private PermitsRecorder(String nodeId, String key) {
+            this.nodeId = nodeId;
+            this.key = key;
+        }
+        @Override public void onPermitsGranted(int permits, long waitNanos) {
+            final PermitsAcquiredEvent event = new PermitsAcquiredEvent();
+            if (event.isEnabled()) {
+                event.nodeId = nodeId;
+                event.key = key;
+                event.permits = permits;
+                event.waitNanos = waitNanos;
+                event.commit();
+            }
+        }
+        @Override public void onPermitsDenied(int permits) {
+            final PermitsDeniedEvent event = new PermitsDeniedEvent();
+            if (event.isEnabled()) {
+                event.nodeId = nodeId;
+                event.key = key;
+                event.permits = permits;
+                event.commit();
+            }
+        }
+    }
+
+    @Name("io.github.poshjosh.ratelimiter.PermitsAcquired")
+    @Label("Permits Acquired")
+    @Category({"Rate Limiter"})
+    @Description("Permits granted by a rate limiter")
+    @Enabled(false)
+    static final class PermitsAcquiredEvent extends Event {
+        @Label("Node Id") String nodeId;
+        @Label("Key") String key;
+        @Label("Permits") int permits;
+        @Label("Wait Time") @Timespan(Timespan.NANOSECONDS) long waitNanos;
+    }
+
+    @Name("io.github.poshjosh.ratelimiter.PermitsDenied")
+    @Label("Permits Denied")
+    @Category({"Rate Limiter"})
+    @Description("Permits denied by a rate limiter, as its limit was exceeded")
+    @Enabled(false)
+    static final class PermitsDeniedEvent extends Event {
+        @Label("Node Id") String nodeId;
+        @Label("Key") String key;
+        @Label("Permits") int permits;
+    }
+
+    @Name("io.github.poshjosh.ratelimiter.StoreAccess")
+    @Label("Bandwidth Store Access")
+    @Category({"Rate Limiter"})
+    @Description("A read from, or write to, the bandwidths store")
+    @Enabled(false)
+    static final class StoreAccessEvent extends Event {
+        @Label("Key") String key;
+        @Label("Write") boolean write;
+    }
+
+    @Name("io.github.poshjosh.ratelimiter.RegistryBuildPhase")
+    @Label("Registry Build Phase")
+    @Category({"Rate Limiter"})
+    @Description("A phase of building the tree of nodes of a rate limiter registry")
+    @Enabled(false)
+    static final class RegistryBuildPhaseEvent extends Event {
+        @Label("Phase") String phase;
+        @Label("Node Count") int nodeCount;
+    }
+}
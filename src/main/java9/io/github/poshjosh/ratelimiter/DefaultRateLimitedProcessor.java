@@ -0,0 +1,310 @@
+package io.github.poshjosh.ratelimiter;
+
+import io.github.poshjosh.ratelimiter.util.Ticker;
+import io.github.poshjosh.ratelimiter.util.TimerWheel;
+
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Items are passed downstream by a single drain loop, entered by whichever of the upstream,
+ * downstream or timer wheel threads signals first. Threads signalling while another drains,
+ * only make it loop once more.
+ */
+final class DefaultRateLimitedProcessor<T> implements RateLimitedProcessor<T>, Flow.Subscription {
+
+    private static final long NO_RESERVATION = Long.MIN_VALUE;
+
+    private static final Flow.Subscription CANCELLED = new Flow.Subscription() {
+        @Override public void request(long n) { }
+        @Override public void cancel() { }
+    };
+
+    private final RateLimiter rateLimiter;
+    private final Ticker ticker;
+    private final TimerWheel timerWheel;
+    private final OverflowPolicy overflowPolicy;
+    private final int bufferSize;
+    private final ArrayBlockingQueue<T> queue;
+
+    private final AtomicReference<Flow.Subscription> upstream = new AtomicReference<>();
+    private final AtomicReference<Flow.Subscriber<? super T>> downstream = new AtomicReference<>();
+    private final AtomicBoolean upstreamRequested = new AtomicBoolean();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+    private final AtomicLong requested = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicInteger wip = new AtomicInteger();
+
+    private volatile boolean done;
+    private volatile Throwable error;
+    private volatile boolean cancelled;
+
+    // The time the head item's permit was reserved for. Accessed only within the drain loop.
+    private long reservedMicros = NO_RESERVATION;
+
+    // Whether permits may be reserved from the rate limiter; false when a composite matched
+    // rate limiters of other providers. Accessed only within the drain loop, once constructed.
+    private boolean reservable;
+
+    DefaultRateLimitedProcessor(RateLimiter rateLimiter, Ticker ticker, TimerWheel timerWheel,
+            OverflowPolicy overflowPolicy, int bufferSize) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("Buffer size must be positive, found: " + bufferSize);
+        }
+        this.rateLimiter = Objects.requireNonNull(rateLimiter);
+        this.reservable = AllOrNothingReservation.isReservable(rateLimiter);
+        this.ticker = Objects.requireNonNull(ticker);
+        this.timerWheel = Objects.requireNonNull(timerWheel);
+        this.overflowPolicy = Objects.requireNonNull(overflowPolicy);
+        this.bufferSize = bufferSize;
+        this.queue = new ArrayBlockingQueue<>(bufferSize);
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super T> subscriber) {
+        Objects.requireNonNull(subscriber);
+        if (!downstream.compareAndSet(null, subscriber)) {
+            subscriber.onSubscribe(CANCELLED);
+            subscriber.onError(new IllegalStateException(
+                    "Only one subscriber is supported by " + this));
+            return;
+        }
+        subscriber.onSubscribe(this);
+        requestUpstreamIfSubscribed();
+        drain();
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        Objects.requireNonNull(subscription);
+        if (!upstream.compareAndSet(null, subscription)) {
+            subscription.cancel();
+            return;
+        }
+        if (cancelled) {
+            subscription.cancel();
+            return;
+        }
+        requestUpstreamIfSubscribed();
+    }
+
+    private void requestUpstreamIfSubscribed() {
+        final Flow.Subscription subscription = upstream.get();
+        if (subscription == null || downstream.get() == null) {
+            return;
+        }
+        if (upstreamRequested.compareAndSet(false, true)) {
+            subscription.request(overflowPolicy == OverflowPolicy.DROP ? Long.MAX_VALUE : bufferSize);
+        }
+    }
+
+    @Override
+    public void onNext(T item) {
+        Objects.requireNonNull(item);
+        if (done || cancelled) {
+            return;
+        }
+        if (overflowPolicy == OverflowPolicy.DROP) {
+            // Only this thread adds to the queue, so the capacity checked can not be taken.
+            if (queue.remainingCapacity() == 0 || !rateLimiter.tryAcquire()) {
+                dropped.incrementAndGet();
+                return;
+            }
+            queue.offer(item);
+        } else if (!queue.offer(item)) {
+            cancelUpstream();
+            onError(new IllegalStateException("Received more items than requested, by " + this));
+            return;
+        }
+        drain();
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        Objects.requireNonNull(throwable);
+        if (done) {
+            return;
+        }
+        error = throwable;
+        done = true;
+        drain();
+    }
+
+    @Override
+    public void onComplete() {
+        done = true;
+        drain();
+    }
+
+    @Override
+    public void request(long n) {
+        if (n <= 0) {
+            cancelUpstream();
+            onError(new IllegalArgumentException("Requested items must be positive, found: " + n));
+            return;
+        }
+        long current;
+        do {
+            current = requested.get();
+            if (current == Long.MAX_VALUE) {
+                break;
+            }
+        } while (!requested.compareAndSet(current, addCapped(current, n)));
+        drain();
+    }
+
+    @Override
+    public void cancel() {
+        if (cancelled) {
+            return;
+        }
+        cancelled = true;
+        cancelUpstream();
+        drain();
+    }
+
+    private void cancelUpstream() {
+        final Flow.Subscription subscription = upstream.getAndSet(CANCELLED);
+        if (subscription != null) {
+            subscription.cancel();
+        }
+    }
+
+    private void drain() {
+        if (wip.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            final Flow.Subscriber<? super T> subscriber = downstream.get();
+            // Once terminated, wip is never decremented, so this loop is never entered again.
+            if (subscriber != null && !emit(subscriber)) {
+                queue.clear();
+                return;
+            }
+            missed = wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    /**
+     * @return false if terminated, otherwise true
+     */
+    private boolean emit(Flow.Subscriber<? super T> subscriber) {
+        final long requestedCount = requested.get();
+        long emitted = 0;
+        while (true) {
+            if (cancelled) {
+                return false;
+            }
+            final boolean isDone = done;
+            final Throwable throwable = error;
+            if (throwable != null) {
+                subscriber.onError(throwable);
+                return false;
+            }
+            final T item = queue.peek();
+            if (item == null) {
+                if (isDone) {
+                    subscriber.onComplete();
+                    return false;
+                }
+                break;
+            }
+            if (emitted == requestedCount) {
+                break;
+            }
+            // With OverflowPolicy.DROP, items were charged on arrival.
+            if (overflowPolicy == OverflowPolicy.BUFFER && !acquirePermit()) {
+                break;
+            }
+            queue.poll();
+            subscriber.onNext(item);
+            ++emitted;
+        }
+        if (emitted != 0) {
+            if (requestedCount != Long.MAX_VALUE) {
+                requested.addAndGet(-emitted);
+            }
+            if (overflowPolicy == OverflowPolicy.BUFFER) {
+                upstream.get().request(emitted);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return true if the head item may be passed downstream now, otherwise false; in which
+     * case a drain is scheduled for when it may.
+     */
+    private boolean acquirePermit() {
+        final long nowMicros = ticker.elapsedMicros();
+        if (reservedMicros != NO_RESERVATION) {
+            if (reservedMicros > nowMicros) {
+                scheduleDrain(reservedMicros - nowMicros);
+                return false;
+            }
+            reservedMicros = NO_RESERVATION;
+            return true;
+        }
+        if (rateLimiter.tryAcquire()) {
+            return true;
+        }
+        if (reservable) {
+            try {
+                return reservePermit(nowMicros);
+            } catch (UnsupportedOperationException e) {
+                reservable = false;
+            }
+        }
+        // Permits may not be reserved from the rate limiters of other providers, so retry
+        // when the bandwidth estimates that a permit is available.
+        final long nextMicros = rateLimiter.getBandwidth().queryEarliestAvailable(nowMicros);
+        scheduleDrain(Math.max(nextMicros - nowMicros, 1));
+        return false;
+    }
+
+    private boolean reservePermit(long nowMicros) {
+        // Reserve the next permit, rather than retry when it is due. So items pass at the
+        // rate, however late the timer wheel runs the drain. The reservation is made from all
+        // the rate limiters of a composite, under the same locks as their other acquisitions.
+        final long waitMicros = AllOrNothingReservation.reserve(rateLimiter, 1);
+        if (waitMicros <= 0) {
+            return true;
+        }
+        reservedMicros = nowMicros + waitMicros;
+        scheduleDrain(waitMicros);
+        return false;
+    }
+
+    private void scheduleDrain(long delayMicros) {
+        if (!drainScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        timerWheel.schedule(() -> {
+            drainScheduled.set(false);
+            drain();
+        }, delayMicros, TimeUnit.MICROSECONDS);
+    }
+
+    private static long addCapped(long a, long b) {
+        final long sum = a + b;
+        return sum < 0 ? Long.MAX_VALUE : sum;
+    }
+
+    @Override
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    @Override
+    public String toString() {
+        return "DefaultRateLimitedProcessor{overflowPolicy=" + overflowPolicy +
+                ", bufferSize=" + bufferSize + ", rateLimiter=" + rateLimiter + '}';
+    }
+}
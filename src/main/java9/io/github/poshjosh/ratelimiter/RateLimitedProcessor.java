@@ -0,0 +1,91 @@
+package io.github.poshjosh.ratelimiter;
+
+import io.github.poshjosh.ratelimiter.util.Ticker;
+import io.github.poshjosh.ratelimiter.util.TimerWheel;
+
+import java.util.concurrent.Flow;
+
+/**
+ * A {@link Flow.Processor} which passes items downstream at the rate of a rate limiter.
+ *
+ * <p>No thread ever sleeps or blocks waiting for permits. When no permit is available,
+ * the processor reserves the next permit from the rate limiter's bandwidth, and resumes
+ * from a {@link TimerWheel} thread at the time reserved. Thus signals to the subscriber may
+ * be delivered from the timer wheel's thread.</p>
+ *
+ * <p>With {@link OverflowPolicy#BUFFER}, at most {@code bufferSize} items are requested
+ * from upstream, and more only as items are passed downstream. So the publisher is slowed
+ * to the rate, via {@link Flow.Subscription#request(long)}. With {@link OverflowPolicy#DROP},
+ * unbounded demand is requested from upstream, and items arriving without a permit are
+ * dropped.</p>
+ *
+ * <p>Items are not spaced, rather they are passed as the bandwidth grants permits. The
+ * default bandwidth grants all the permits of its window at once; so given 5 permits per
+ * second, five items are passed back to back, then the next in the following second. For
+ * evenly spaced items, use a smooth bandwidth, e.g
+ * {@link io.github.poshjosh.ratelimiter.bandwidths.BandwidthFactories.SmoothBursty}.</p>
+ *
+ * <p>Requires JDK 9+. Compiled only when building with JDK 9+.</p>
+ *
+ * <p>Example:</p>
+ * <pre>
+ * RateLimitedProcessor&lt;Event&gt; processor = RateLimitedProcessor.of(
+ *         registry, EventHandler.class, RateLimitedProcessor.OverflowPolicy.BUFFER, 256);
+ * publisher.subscribe(processor);
+ * processor.subscribe(subscriber);
+ * </pre>
+ *
+ * @param <T> The type of the items processed
+ */
+public interface RateLimitedProcessor<T> extends Flow.Processor<T, T> {
+
+    enum OverflowPolicy {
+        /**
+         * Drop items arriving when no permit is available, or when the buffer is full.
+         */
+        DROP,
+        /**
+         * Buffer items until permits are available. Upstream demand is bounded by the buffer.
+         */
+        BUFFER
+    }
+
+    /**
+     * @param registry The registry from which the rate limiter of the key is resolved
+     * @param key The key whose rate (e.g of a {@code @Rate} class, or a {@code Rates} property)
+     *            items are passed downstream at
+     * @param overflowPolicy What to do with items arriving faster than the rate
+     * @param bufferSize The maximum number of items held, awaiting permits or downstream demand
+     * @return A new rate limited processor, whose time is kept by the registry's
+     * {@link RateLimiterRegistry#getTicker() ticker}.
+     * @param <K> The type of the key
+     * @param <T> The type of the items processed
+     */
+    static <K, T> RateLimitedProcessor<T> of(
+            RateLimiterRegistry<K> registry, K key, OverflowPolicy overflowPolicy, int bufferSize) {
+        return of(registry.getRateLimiterOrUnlimited(key), registry.getTicker(),
+                overflowPolicy, bufferSize);
+    }
+
+    /**
+     * @param ticker The ticker used by the rate limiter
+     * @return A new rate limited processor, which resumes from a shared timer wheel.
+     * @see #of(RateLimiterRegistry, Object, OverflowPolicy, int)
+     */
+    static <T> RateLimitedProcessor<T> of(
+            RateLimiter rateLimiter, Ticker ticker, OverflowPolicy overflowPolicy, int bufferSize) {
+        return of(rateLimiter, ticker, DefaultAsyncRateLimiter.sharedTimerWheel(),
+                overflowPolicy, bufferSize);
+    }
+
+    static <T> RateLimitedProcessor<T> of(RateLimiter rateLimiter, Ticker ticker,
+            TimerWheel timerWheel, OverflowPolicy overflowPolicy, int bufferSize) {
+        return new DefaultRateLimitedProcessor<>(
+                rateLimiter, ticker, timerWheel, overflowPolicy, bufferSize);
+    }
+
+    /**
+     * @return The number of items dropped. Always zero for {@link OverflowPolicy#BUFFER}.
+     */
+    long getDroppedCount();
+}
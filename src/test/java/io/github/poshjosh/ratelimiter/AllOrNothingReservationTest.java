@@ -0,0 +1,149 @@
+package io.github.poshjosh.ratelimiter;
+
+import io.github.poshjosh.ratelimiter.bandwidths.Bandwidth;
+import io.github.poshjosh.ratelimiter.bandwidths.RateToBandwidthConverter;
+import io.github.poshjosh.ratelimiter.model.Rate;
+import io.github.poshjosh.ratelimiter.performance.simulation.VirtualTicker;
+import io.github.poshjosh.ratelimiter.store.BandwidthsStore;
+import io.github.poshjosh.ratelimiter.util.Ticker;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AllOrNothingReservationTest {
+
+    private static final long START_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void tryAcquire_givenTimeout_shouldWaitOnceForTheSlowestRateLimiter() {
+        final VirtualTicker ticker = new VirtualTicker(START_NANOS);
+        final RateLimiter first = givenRateLimiter(ticker, "first", Rate.ofSeconds(1));
+        final RateLimiter second = givenRateLimiter(ticker, "second", Rate.ofSeconds(1));
+        assertTrue(first.tryAcquire());
+        assertTrue(second.tryAcquire());
+        assertTrue(givenReservation(first, second).tryAcquire(ticker, 1, 2, TimeUnit.SECONDS));
+        final long sleptMicros = ticker.takeSleptMicros();
+        // Each rate limiter is due within a second. Waiting for each in turn would take longer.
+        assertTrue(sleptMicros > 0 && sleptMicros <= 1_000_000, "Slept micros: " + sleptMicros);
+    }
+
+    @Test
+    void tryAcquire_givenTimeoutShorterThanTheSlowestWait_shouldConsumeNoPermits() {
+        final VirtualTicker ticker = new VirtualTicker(START_NANOS);
+        final RateLimiter fast = givenRateLimiter(ticker, "fast", Rate.ofSeconds(1));
+        final RateLimiter slow = givenRateLimiter(ticker, "slow", Rate.of(1, Duration.ofSeconds(10)));
+        assertTrue(slow.tryAcquire());
+        assertFalse(givenReservation(fast, slow).tryAcquire(ticker, 1, 2, TimeUnit.SECONDS));
+        assertEquals(0, ticker.takeSleptMicros());
+        assertTrue(fast.tryAcquire());
+    }
+
+    @Test
+    void tryAcquire_givenConcurrentCallersOfOneRateLimiter_shouldConsumeThePermitsOfAllOrNone()
+            throws Exception {
+        // The time is fixed, so acquire never waits; rather, it reserves future permits.
+        final VirtualTicker ticker = new VirtualTicker(START_NANOS);
+        final int rounds = 50, callsPerThread = 20, threadsPerKind = 2;
+        for (int round = 0; round < rounds; round++) {
+            final RateLimiter contended = givenRateLimiter(ticker, "contended", Rate.ofSeconds(40));
+            final RateLimiter other = givenRateLimiter(ticker, "other", Rate.ofSeconds(1_000));
+            final AtomicInteger granted = new AtomicInteger();
+            final CountDownLatch start = new CountDownLatch(1);
+            final List<Thread> threads = new ArrayList<>();
+            for (int i = 0; i < threadsPerKind; i++) {
+                threads.add(new Thread(() -> {
+                    awaitQuietly(start);
+                    for (int j = 0; j < callsPerThread; j++) {
+                        contended.acquire();
+                    }
+                }));
+                threads.add(new Thread(() -> {
+                    awaitQuietly(start);
+                    for (int j = 0; j < callsPerThread; j++) {
+                        // The other rate limiter first, so it would be charged before a denial.
+                        if (givenReservation(other, contended).tryAcquire(ticker, 1, 0, TimeUnit.SECONDS)) {
+                            granted.incrementAndGet();
+                        }
+                    }
+                }));
+            }
+            threads.forEach(Thread::start);
+            start.countDown();
+            for (Thread thread : threads) {
+                thread.join(TimeUnit.SECONDS.toMillis(10));
+            }
+            int remaining = 0;
+            while (other.tryAcquire()) {
+                ++remaining;
+            }
+            assertEquals(1_000 - granted.get(), remaining, "Round: " + round);
+        }
+    }
+
+    @Test
+    void tryAcquire_givenRateLimiterNotReservable_shouldNotWaitWithinIt() {
+        final Ticker ticker = new SleepAdvancedTicker();
+        final RateLimiter reservable = givenRateLimiter(ticker, "reservable", Rate.ofSeconds(1));
+        final RateLimiter delegate = givenRateLimiter(ticker, "other", Rate.ofSeconds(1));
+        final AtomicLong maxTimeoutPassed = new AtomicLong();
+        final RateLimiter notReservable = new RateLimiter() {
+            @Override public double acquire(int permits) {
+                throw new AssertionError("Should not be called");
+            }
+            @Override public boolean tryAcquire(int permits, long timeout, TimeUnit unit) {
+                maxTimeoutPassed.accumulateAndGet(timeout, Math::max);
+                return delegate.tryAcquire(permits, timeout, unit);
+            }
+            @Override public Bandwidth getBandwidth() {
+                return delegate.getBandwidth();
+            }
+        };
+        assertTrue(givenReservation(reservable, notReservable).tryAcquire(ticker, 1, 0, TimeUnit.SECONDS));
+        final long startMicros = ticker.elapsedMicros();
+        assertTrue(givenReservation(reservable, notReservable).tryAcquire(ticker, 1, 2, TimeUnit.SECONDS));
+        final long waitedMicros = ticker.elapsedMicros() - startMicros;
+        assertTrue(waitedMicros > 0 && waitedMicros <= 1_000_000, "Waited micros: " + waitedMicros);
+        assertEquals(0, maxTimeoutPassed.get());
+    }
+
+    /** A ticker whose time advances only while sleeping. */
+    private static final class SleepAdvancedTicker implements Ticker {
+        private final AtomicLong nanos = new AtomicLong(START_NANOS);
+        @Override public long elapsedNanos() {
+            return nanos.get();
+        }
+        @Override public void sleepMicrosWithoutInterruption(long micros) {
+            nanos.addAndGet(TimeUnit.MICROSECONDS.toNanos(Math.max(micros, 0)));
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private AllOrNothingReservation givenReservation(RateLimiter... rateLimiters) {
+        final AllOrNothingReservation reservation = new AllOrNothingReservation();
+        for (RateLimiter rateLimiter : rateLimiters) {
+            reservation.accept(rateLimiter.toString(), rateLimiter);
+        }
+        return reservation;
+    }
+
+    /** A rate limiter as matched at a node of the registry. */
+    private RateLimiter givenRateLimiter(Ticker ticker, String key, Rate rate) {
+        return RateLimiterProviders.of(RateToBandwidthConverter.of(ticker), BandwidthsStore.ofDefaults(), ticker)
+                .getRateLimiter(key, rate);
+    }
+}
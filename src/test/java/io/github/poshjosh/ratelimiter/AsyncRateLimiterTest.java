@@ -0,0 +1,116 @@
+package io.github.poshjosh.ratelimiter;
+
+import io.github.poshjosh.ratelimiter.bandwidths.BandwidthFactories;
+import io.github.poshjosh.ratelimiter.bandwidths.Bandwidths;
+import io.github.poshjosh.ratelimiter.model.Rate;
+import io.github.poshjosh.ratelimiter.model.Rates;
+import io.github.poshjosh.ratelimiter.util.TimerWheel;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncRateLimiterTest {
+
+    private static final String KEY = "async";
+    // Smooth, as the default bandwidth grants all the permits of its window at once.
+    private static final Rate TEN_PER_SECOND =
+            Rate.of(10, Duration.ofSeconds(1), "", BandwidthFactories.SmoothBursty.class);
+
+    @Test
+    void givenAvailablePermits_shouldCompleteImmediately() {
+        final AsyncRateLimiter rateLimiter = givenAsyncRateLimiter(TEN_PER_SECOND);
+        final CompletableFuture<Double> future = rateLimiter.acquireAsync();
+        assertTrue(future.isDone());
+        assertEquals(0.0, future.join());
+    }
+
+    @Test
+    void givenNoAvailablePermits_shouldCompleteWhenPermitsAvailable() throws Exception {
+        final AsyncRateLimiter rateLimiter = givenAsyncRateLimiter(TEN_PER_SECOND);
+        rateLimiter.acquireAsync();
+        final long start = System.nanoTime();
+        final CompletableFuture<Double> future = rateLimiter.acquireAsync();
+        assertFalse(future.isDone());
+        final double waitSeconds = future.get(1, TimeUnit.SECONDS);
+        final long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue(waitSeconds > 0, "Wait seconds: " + waitSeconds);
+        assertTrue(elapsedMillis >= 50, "Elapsed millis: " + elapsedMillis);
+    }
+
+    @Test
+    void givenExecutor_dependentStages_shouldNotRunOnTheTimerThread() throws Exception {
+        final ExecutorService executor = Executors.newSingleThreadExecutor(
+                task -> new Thread(task, "async-rate-limiter-test"));
+        try {
+            final AsyncRateLimiter rateLimiter = AsyncRateLimiter.of(
+                    givenRateLimiter(TEN_PER_SECOND, RateLimiterMetrics.NONE),
+                    DefaultAsyncRateLimiter.sharedTimerWheel(), executor);
+            rateLimiter.acquireAsync();
+            final String threadName = rateLimiter.acquireAsync()
+                    .thenApply(waitSeconds -> Thread.currentThread().getName())
+                    .get(1, TimeUnit.SECONDS);
+            assertEquals("async-rate-limiter-test", threadName);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void givenMetrics_shouldRecordReservedPermits() {
+        final RateLimiterMetrics metrics = RateLimiterMetrics.ofDefaults();
+        final AsyncRateLimiter rateLimiter = AsyncRateLimiter.of(
+                givenRateLimiter(TEN_PER_SECOND, metrics));
+        rateLimiter.acquireAsync(1);
+        rateLimiter.acquireAsync(2);
+        final long permitsGranted = metrics.snapshot().stream()
+                .mapToLong(RateLimiterMetrics.Snapshot::getPermitsGranted).sum();
+        assertEquals(3, permitsGranted);
+    }
+
+    @Test
+    void givenRateLimiterNotReservable_shouldThrowOnCreation() {
+        // The core rate limiter of other rate limiters only acquires from them.
+        final RateLimiter rateLimiter = RateLimiters.of(
+                RateLimiters.of(Bandwidths.ofSeconds(10)), RateLimiters.of(Bandwidths.ofSeconds(5)));
+        assertThrows(UnsupportedOperationException.class, () -> AsyncRateLimiter.of(rateLimiter));
+    }
+
+    @Test
+    void givenTimerWheelClosed_pendingFuturesShouldCompleteExceptionally() throws Exception {
+        final TimerWheel timerWheel = TimerWheel.ofDefaults();
+        final AsyncRateLimiter rateLimiter = AsyncRateLimiter.of(
+                givenRateLimiter(TEN_PER_SECOND, RateLimiterMetrics.NONE), timerWheel);
+        rateLimiter.acquireAsync();
+        final CompletableFuture<Double> pending = rateLimiter.acquireAsync();
+        assertFalse(pending.isDone());
+        timerWheel.close();
+        assertThrows(CancellationException.class, () -> pending.get(1, TimeUnit.SECONDS));
+        final CompletableFuture<Double> afterClose = rateLimiter.acquireAsync();
+        final ExecutionException e =
+                assertThrows(ExecutionException.class, () -> afterClose.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+    }
+
+    private AsyncRateLimiter givenAsyncRateLimiter(Rate rate) {
+        final RateLimiter rateLimiter = RateLimiterRegistries.<String>of(KEY, rate)
+                .getRateLimiterOrUnlimited(KEY);
+        return AsyncRateLimiter.of(rateLimiter);
+    }
+
+    private RateLimiter givenRateLimiter(Rate rate, RateLimiterMetrics metrics) {
+        final RateLimiterContext<String> context = RateLimiterContext.<String>builder()
+                .rates(Collections.singletonMap(KEY, Rates.of(rate)))
+                .metrics(metrics)
+                .build();
+        return RateLimiterRegistries.of(context).getRateLimiterOrUnlimited(KEY);
+    }
+}
@@ -0,0 +1,129 @@
+package io.github.poshjosh.ratelimiter;
+
+import io.github.poshjosh.ratelimiter.bandwidths.Bandwidths;
+import io.github.poshjosh.ratelimiter.model.Rate;
+import io.github.poshjosh.ratelimiter.model.Rates;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DecisionTracerTest {
+
+    private static final String ID = "traced-resource";
+
+    @Test
+    void givenSampleAll_tryAcquire_shouldTraceDenyingNode() {
+        final DecisionTracer tracer = DecisionTracer.sampling(1, 8);
+        final RateLimiter rateLimiter = givenRegistry(tracer).getRateLimiter(ID);
+        assertTrue(rateLimiter.tryAcquire(1));
+        assertFalse(rateLimiter.tryAcquire(1));
+
+        final List<DecisionTrace> traces = tracer.getRecent();
+        assertEquals(2, traces.size());
+        assertTrue(traces.get(0).isGranted());
+
+        final DecisionTrace denied = traces.get(1);
+        assertFalse(denied.isGranted());
+        assertEquals(ID, denied.getKey());
+        assertEquals(1, denied.getDenials().size());
+        assertEquals(ID, denied.getDenials().get(0).getNodeId());
+        assertTrue(denied.getSteps().stream().anyMatch(step ->
+                step.getType() == DecisionTrace.StepType.MATCHER && ID.equals(step.getNodeId())));
+    }
+
+    @Test
+    void givenMoreTracesThanCapacity_getRecent_shouldReturnLatestInOrder() {
+        final DecisionTracer tracer = DecisionTracer.sampling(1, 4);
+        for (int i = 0; i < 10; i++) {
+            tracer.onTraced(DecisionTrace.builder("key-" + i, 1).build());
+        }
+        final List<DecisionTrace> traces = tracer.getRecent();
+        assertEquals(4, traces.size());
+        for (int i = 0; i < 4; i++) {
+            assertEquals("key-" + (6 + i), traces.get(i).getKey());
+        }
+    }
+
+    @Test
+    void givenNoTracer_tryAcquire_shouldTraceNothing() {
+        final RateLimiter rateLimiter = givenRegistry(DecisionTracer.NONE).getRateLimiter(ID);
+        assertTrue(rateLimiter.tryAcquire(1));
+        assertTrue(DecisionTracer.NONE.getRecent().isEmpty());
+    }
+
+    @Test
+    void explain_shouldNotAcquirePermits() {
+        final RateLimiterRegistry<String> registry = givenRegistry(DecisionTracer.NONE);
+        final DecisionTrace before = registry.explain(ID, 1);
+        assertTrue(before.isGranted(), before.toString());
+        assertTrue(registry.getRateLimiter(ID).tryAcquire(1));
+
+        final DecisionTrace after = registry.explain(ID, 1);
+        assertFalse(after.isGranted(), after.toString());
+        assertTrue(after.getWaitNanos() > 0, after.toString());
+        assertEquals(ID, after.getDenials().get(0).getNodeId());
+    }
+
+    @Test
+    void explain_givenUnknownKey_shouldBeGrantedWithoutLimiterSteps() {
+        final DecisionTrace trace = givenRegistry(DecisionTracer.NONE).explain("unknown", 1);
+        assertTrue(trace.isGranted());
+        assertTrue(trace.getSteps().stream()
+                .noneMatch(step -> step.getType() == DecisionTrace.StepType.LIMITER));
+    }
+
+    @io.github.poshjosh.ratelimiter.annotations.Rate(1)
+    static class ClassAndMethodSharingRateLimiter {
+        @io.github.poshjosh.ratelimiter.annotations.Rate(1)
+        void method_0() { }
+    }
+
+    @Test
+    void givenSameRateLimiterMatchedAtClassAndMethod_tryAcquire_shouldTraceOutcomeAtBoth()
+            throws NoSuchMethodException {
+        final RateLimiter shared = RateLimiters.of(Bandwidths.ofSeconds(1));
+        final RateLimiterProvider provider = new RateLimiterProvider() {
+            @Override public RateLimiter getRateLimiter(String key, Rate rate) {
+                return shared;
+            }
+            @Override public RateLimiter getRateLimiter(String key, Rates rates) {
+                return shared;
+            }
+        };
+        final DecisionTracer tracer = DecisionTracer.sampling(1, 8);
+        final RateLimiterRegistry<Object> registry = RateLimiterRegistries.of(
+                RateLimiterContext.builder()
+                        .classes(ClassAndMethodSharingRateLimiter.class)
+                        .rateLimiterProvider(provider)
+                        .decisionTracer(tracer)
+                        .build());
+        final Method key = ClassAndMethodSharingRateLimiter.class.getDeclaredMethod("method_0");
+        assertTrue(registry.getRateLimiter(key).tryAcquire(1));
+        assertFalse(registry.getRateLimiter(key).tryAcquire(1));
+
+        final List<DecisionTrace> traces = tracer.getRecent();
+        assertEquals(2, traces.size());
+        assertEquals(2, limiterSteps(traces.get(0)).size(), traces.get(0).toString());
+        assertTrue(limiterSteps(traces.get(0)).stream().allMatch(DecisionTrace.Step::isGranted),
+                traces.get(0).toString());
+        assertEquals(2, traces.get(1).getDenials().size(), traces.get(1).toString());
+    }
+
+    private static List<DecisionTrace.Step> limiterSteps(DecisionTrace trace) {
+        return trace.getSteps().stream()
+                .filter(step -> step.getType() == DecisionTrace.StepType.LIMITER)
+                .collect(Collectors.toList());
+    }
+
+    private RateLimiterRegistry<String> givenRegistry(DecisionTracer tracer) {
+        return RateLimiterRegistries.of(RateLimiterContext.<String>builder()
+                .rates(Collections.singletonMap(ID, Rates.of(Rate.ofSeconds(1))))
+                .decisionTracer(tracer)
+                .build());
+    }
+}
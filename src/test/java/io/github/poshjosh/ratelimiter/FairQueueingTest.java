@@ -0,0 +1,109 @@
+package io.github.poshjosh.ratelimiter;
+
+import io.github.poshjosh.ratelimiter.model.Rate;
+import io.github.poshjosh.ratelimiter.model.Rates;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FairQueueingTest {
+
+    private static final String ID = "fair-resource";
+
+    @Test
+    void givenFifo_acquire_shouldGrantPermitsInArrivalOrder() throws Exception {
+        final RateLimiter rateLimiter = givenRateLimiter(Rate.ofSeconds(20), FairQueueing.fifo(16));
+        assertTrue(rateLimiter.tryAcquire(1));
+        final List<Integer> acquired = new CopyOnWriteArrayList<>();
+        final List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            final int index = i;
+            final Thread thread = new Thread(() -> {
+                rateLimiter.acquire();
+                acquired.add(index);
+            });
+            thread.start();
+            awaitBlocked(thread);
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join(TimeUnit.SECONDS.toMillis(2));
+        }
+        assertEquals(Arrays.asList(0, 1, 2, 3, 4), acquired);
+    }
+
+    @Test
+    void givenFullQueue_shouldRejectWithoutWaiting() throws Exception {
+        final RateLimiter rateLimiter = givenRateLimiter(Rate.ofSeconds(1), FairQueueing.fifo(1));
+        assertTrue(rateLimiter.tryAcquire(1));
+        final Thread waiter = new Thread(rateLimiter::acquire);
+        waiter.start();
+        awaitBlocked(waiter);
+
+        assertThrows(WaitQueueFullException.class, rateLimiter::acquire);
+        final long start = System.nanoTime();
+        assertFalse(rateLimiter.tryAcquire(1, 500, TimeUnit.MILLISECONDS));
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(250));
+
+        waiter.join(TimeUnit.SECONDS.toMillis(2));
+    }
+
+    @Test
+    void givenFifo_acquireViaRateLimiterResolvedPerCall_shouldGrantPermitsInArrivalOrder() throws Exception {
+        final RateLimiterRegistry<String> registry = givenRegistry(Rate.ofSeconds(20), FairQueueing.fifo(16));
+        assertTrue(registry.getRateLimiter(ID).tryAcquire(1));
+        final List<Integer> acquired = new CopyOnWriteArrayList<>();
+        final List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            final int index = i;
+            final Thread thread = new Thread(() -> {
+                registry.getRateLimiter(ID).acquire();
+                acquired.add(index);
+            });
+            thread.start();
+            awaitBlocked(thread);
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join(TimeUnit.SECONDS.toMillis(2));
+        }
+        assertEquals(Arrays.asList(0, 1, 2, 3, 4), acquired);
+    }
+
+    @Test
+    void givenFullQueue_andRateLimiterResolvedPerCall_shouldRejectWithoutWaiting() throws Exception {
+        final RateLimiterRegistry<String> registry = givenRegistry(Rate.ofSeconds(1), FairQueueing.fifo(1));
+        assertTrue(registry.getRateLimiter(ID).tryAcquire(1));
+        final Thread waiter = new Thread(() -> registry.getRateLimiter(ID).acquire());
+        waiter.start();
+        awaitBlocked(waiter);
+
+        assertThrows(WaitQueueFullException.class, () -> registry.getRateLimiter(ID).acquire());
+
+        waiter.join(TimeUnit.SECONDS.toMillis(2));
+    }
+
+    private static void awaitBlocked(Thread thread) throws InterruptedException {
+        while (thread.getState() == Thread.State.NEW || thread.getState() == Thread.State.RUNNABLE) {
+            Thread.sleep(1);
+        }
+    }
+
+    private RateLimiter givenRateLimiter(Rate rate, FairQueueing fairQueueing) {
+        return givenRegistry(rate, fairQueueing).getRateLimiter(ID);
+    }
+
+    private RateLimiterRegistry<String> givenRegistry(Rate rate, FairQueueing fairQueueing) {
+        return RateLimiterRegistries.of(RateLimiterContext.<String>builder()
+                .rates(Collections.singletonMap(ID, Rates.of(rate)))
+                .fairQueueing(fairQueueing)
+                .build());
+    }
+}
@@ -1,6 +1,42 @@
 package io.github.poshjosh.ratelimiter;
 
+import io.github.poshjosh.ratelimiter.model.Rate;
+import io.github.poshjosh.ratelimiter.model.RateConfig;
+import io.github.poshjosh.ratelimiter.model.RateSource;
+import io.github.poshjosh.ratelimiter.model.Rates;
+import io.github.poshjosh.ratelimiter.node.Nodes;
+import io.github.poshjosh.ratelimiter.util.MatcherProvider;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
 class RateContextTest {
 
     void matchForClassShouldMatchMethod() { }
-}
\ No newline at end of file
+
+    @Test
+    void getMatchKey_givenAlternatingMatches_shouldReuseKeys() {
+        RateContext<String> rateContext = givenRateContext("test-id");
+        MatchKey first = rateContext.getMatchKey("user-1");
+        MatchKey second = rateContext.getMatchKey("user-2");
+        assertSame(first, rateContext.getMatchKey(new String("user-1")));
+        assertSame(second, rateContext.getMatchKey(new String("user-2")));
+    }
+
+    @Test
+    void getMatchKey_givenManyDistinctMatches_shouldKeepOnlyTheRecentKeys() {
+        RateContext<String> rateContext = givenRateContext("test-id");
+        MatchKey first = rateContext.getMatchKey("user-0");
+        for (int i = 1; i <= 100; i++) {
+            rateContext.getMatchKey("user-" + i);
+        }
+        MatchKey recomposed = rateContext.getMatchKey("user-0");
+        assertNotSame(first, recomposed);
+        assertEquals(first, recomposed);
+    }
+
+    private RateContext<String> givenRateContext(String id) {
+        RateConfig rateConfig = RateConfig.of(RateSource.of(id, true), Rates.of(Rate.ofSeconds(1)));
+        return RateContext.of(MatcherProvider.ofDefaults(), Nodes.of(id, rateConfig));
+    }
+}
@@ -0,0 +1,108 @@
+package io.github.poshjosh.ratelimiter;
+
+import io.github.poshjosh.ratelimiter.model.Rate;
+import io.github.poshjosh.ratelimiter.model.Rates;
+import io.github.poshjosh.ratelimiter.node.Node;
+import io.github.poshjosh.ratelimiter.util.ClassesInPackageFinder;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Traversing only the candidate leaf nodes selected by {@link RateIdTrie} must yield
+ * the same result as traversing all the leaf nodes.
+ */
+class RateIdTrieTest {
+
+    private static final int KEYS_PER_SEED = 2_000;
+
+    private static final String ALPHABET = "ab.";
+
+    @ParameterizedTest
+    @ValueSource(longs = {1, 7, 31, 1_000_003})
+    void givenAnnotations_candidateLeafNodes_shouldMatchSameAsAllLeafNodes(long seed) {
+        final RateLimiterContext<String> context = RateLimiterContext.<String>builder()
+                .classes(annotatedClasses().toArray(new Class[0])).build();
+        final RootNodes<String> rootNodes = RootNodes.of(context);
+        final Random random = new Random(seed);
+        final List<String> ids = collectIds(rootNodes.getAnnotationsRootNode());
+        for (int i = 0; i < KEYS_PER_SEED; i++) {
+            final String key = randomKey(random, ids);
+            assertEquals(
+                    visit(key, rootNodes.getAnnotationsLeafNodes(), context),
+                    visit(key, rootNodes.getAnnotationsLeafNodes(key), context),
+                    "Key: " + key);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {1, 7, 31, 1_000_003})
+    void givenProperties_candidateLeafNodes_shouldMatchSameAsAllLeafNodes(long seed) {
+        final Random random = new Random(seed);
+        final Map<String, Rates> rates = new LinkedHashMap<>();
+        for (int i = 0; i < 50; i++) {
+            rates.put(randomText(random, 1 + random.nextInt(5)), random.nextInt(4) == 0
+                    ? Rates.of(Rate.of(1, "sys.time.elapsed >= PT0S"))
+                    : Rates.of(Rate.ofSeconds(1 + random.nextInt(10))));
+        }
+        final RateLimiterContext<String> context = RateLimiterContext.<String>builder()
+                .rates(rates).build();
+        final RootNodes<String> rootNodes = RootNodes.of(context);
+        final List<String> ids = new ArrayList<>(rates.keySet());
+        for (int i = 0; i < KEYS_PER_SEED; i++) {
+            final String key = randomKey(random, ids);
+            assertEquals(
+                    visit(key, rootNodes.getPropertiesLeafNodes(), context),
+                    visit(key, rootNodes.getPropertiesLeafNodes(key), context),
+                    "Key: " + key);
+        }
+    }
+
+    private List<String> visit(String key, Node<RateContext<String>>[] leafNodes,
+            RateLimiterContext<String> context) {
+        final List<String> matches = new ArrayList<>();
+        new RateLimiterCompositeBottomUp<>(key, leafNodes, context.getRateLimiterProvider())
+                .visitNodes((match, rateLimiter) -> matches.add(match));
+        return matches;
+    }
+
+    private String randomKey(Random random, List<String> ids) {
+        final String id = ids.get(random.nextInt(ids.size()));
+        switch (random.nextInt(5)) {
+            case 0: return id;
+            case 1: return id.substring(0, random.nextInt(id.length() + 1));
+            case 2: return id + randomText(random, 1 + random.nextInt(3));
+            case 3:
+                final char [] chars = id.toCharArray();
+                if (chars.length > 0) {
+                    chars[random.nextInt(chars.length)] = ALPHABET.charAt(random.nextInt(ALPHABET.length()));
+                }
+                return new String(chars);
+            default: return randomText(random, random.nextInt(8));
+        }
+    }
+
+    private String randomText(Random random, int length) {
+        final StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            builder.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        return builder.toString();
+    }
+
+    private List<String> collectIds(Node<RateContext<String>> root) {
+        final Set<String> ids = new LinkedHashSet<>();
+        root.visitAll(node -> ids.add(node.getName()));
+        return new ArrayList<>(ids);
+    }
+
+    private List<Class<?>> annotatedClasses() {
+        // This package contains 100 randomly rate limited classes
+        final String packageName = "io.github.poshjosh.ratelimiter.performance.dummyclasses";
+        return ClassesInPackageFinder.ofDefaults()
+                .findClasses(Collections.singletonList(packageName), clazz -> true);
+    }
+}
@@ -0,0 +1,106 @@
+package io.github.poshjosh.ratelimiter;
+
+import io.github.poshjosh.ratelimiter.bandwidths.BandwidthFactories;
+import io.github.poshjosh.ratelimiter.model.Rate;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitedExecutorServiceTest {
+
+    private static final String LIMITED = "limited";
+    private static final String UNLIMITED = "unlimited";
+
+    @Test
+    void shouldReleaseTasksAtTheLimitedRate() throws Exception {
+        // Smooth, as the default bandwidth grants all the permits of its window at once.
+        final RateLimitedExecutorService<String> executor = givenExecutor(
+                Rate.of(10, Duration.ofSeconds(1), "", BandwidthFactories.SmoothBursty.class));
+        try {
+            final List<Long> startNanos = Collections.synchronizedList(new ArrayList<>());
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                futures.add(executor.submit(LIMITED, () -> startNanos.add(System.nanoTime())));
+            }
+            for (Future<?> future : futures) {
+                future.get(2, TimeUnit.SECONDS);
+            }
+            assertEquals(4, startNanos.size());
+            final long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(startNanos.get(3) - startNanos.get(0));
+            assertTrue(elapsedMillis >= 250, "Elapsed millis: " + elapsedMillis);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void givenDefaultBandwidth_shouldReleaseAllThePermitsOfTheWindowAtOnce() throws Exception {
+        final RateLimitedExecutorService<String> executor = givenExecutor(Rate.ofSeconds(3));
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                futures.add(executor.submit(LIMITED, () -> { }));
+            }
+            for (int i = 0; i < 3; i++) {
+                futures.get(i).get(500, TimeUnit.MILLISECONDS);
+            }
+            // Due with the next window, a second after the first.
+            assertFalse(futures.get(3).isDone());
+            futures.get(3).get(2, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void givenManyPendingTasks_shouldNotBlockSubmitter() throws Exception {
+        final RateLimitedExecutorService<String> executor = givenExecutor(Rate.ofSeconds(1));
+        try {
+            final long start = System.nanoTime();
+            for (int i = 0; i < 1000; i++) {
+                executor.execute(LIMITED, () -> { });
+            }
+            final long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            assertTrue(elapsedMillis < 1000, "Elapsed millis: " + elapsedMillis);
+        } finally {
+            assertEquals(999, executor.shutdownNow().size());
+        }
+    }
+
+    @Test
+    void givenKeyWithoutLimit_shouldNotWaitForLimitedKey() throws Exception {
+        final RateLimitedExecutorService<String> executor = givenExecutor(Rate.ofSeconds(1));
+        try {
+            executor.execute(LIMITED, () -> { });
+            executor.execute(LIMITED, () -> { });
+            final Future<String> future = executor.submit(UNLIMITED, () -> UNLIMITED);
+            assertEquals(UNLIMITED, future.get(200, TimeUnit.MILLISECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void whenShutdown_shouldRunPendingTasksThenTerminate() throws Exception {
+        final RateLimitedExecutorService<String> executor = givenExecutor(Rate.ofSeconds(20));
+        final CountDownLatch latch = new CountDownLatch(3);
+        for (int i = 0; i < 3; i++) {
+            executor.execute(latch::countDown);
+        }
+        executor.shutdown();
+        assertThrows(RejectedExecutionException.class, () -> executor.execute(latch::countDown));
+        assertTrue(executor.awaitTermination(2, TimeUnit.SECONDS));
+        assertEquals(0, latch.getCount());
+    }
+
+    private RateLimitedExecutorService<String> givenExecutor(Rate rate) {
+        final RateLimiterRegistry<String> registry = RateLimiterRegistries.of(LIMITED, rate);
+        return RateLimitedExecutorService.of(registry, LIMITED, Executors.newFixedThreadPool(2));
+    }
+}
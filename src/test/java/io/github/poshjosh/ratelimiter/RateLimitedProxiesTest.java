@@ -0,0 +1,90 @@
+package io.github.poshjosh.ratelimiter;
+
+import io.github.poshjosh.ratelimiter.annotations.Rate;
+import io.github.poshjosh.ratelimiter.bandwidths.BandwidthFactories;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitedProxiesTest {
+
+    public interface Resource {
+        String limited();
+        String unlimited();
+        void failing();
+    }
+
+    static class ResourceImpl implements Resource {
+        @Rate(1)
+        @Override public String limited() { return "limited"; }
+        @Override public String unlimited() { return "unlimited"; }
+        @Override public void failing() { throw new IllegalStateException("failed"); }
+    }
+
+    static class FastResourceImpl extends ResourceImpl {
+        // Smooth, as the default bandwidth grants all the permits of its window at once.
+        @Rate(permits = 5, factoryClass = BandwidthFactories.SmoothBursty.class)
+        @Override public String limited() { return "limited"; }
+    }
+
+    static class WindowResourceImpl extends ResourceImpl {
+        @Rate(5)
+        @Override public String limited() { return "limited"; }
+    }
+
+    @Test
+    void givenDefaultBandwidth_shouldPassAllThePermitsOfTheWindowAtOnce() {
+        final Resource resource = givenProxy(new WindowResourceImpl(), RateLimitedProxies.DenialPolicy.fail());
+        for (int i = 0; i < 5; i++) {
+            assertEquals("limited", resource.limited());
+        }
+        assertThrows(PermitsDeniedException.class, resource::limited);
+    }
+
+    @Test
+    void givenFailPolicy_whenLimitExceeded_shouldThrow() {
+        final Resource resource = givenProxy(new ResourceImpl(), RateLimitedProxies.DenialPolicy.fail());
+        assertEquals("limited", resource.limited());
+        final PermitsDeniedException exception =
+                assertThrows(PermitsDeniedException.class, resource::limited);
+        assertEquals("limited", exception.getMethod().getName());
+    }
+
+    @Test
+    void givenUnlimitedMethod_shouldNeverBeDenied() {
+        final Resource resource = givenProxy(new ResourceImpl(), RateLimitedProxies.DenialPolicy.fail());
+        for (int i = 0; i < 10; i++) {
+            assertEquals("unlimited", resource.unlimited());
+        }
+    }
+
+    @Test
+    void givenWaitPolicy_whenLimitExceeded_shouldWaitThenInvoke() {
+        final Resource resource = givenProxy(
+                new FastResourceImpl(), RateLimitedProxies.DenialPolicy.waitForPermits());
+        final long start = System.nanoTime();
+        assertEquals("limited", resource.limited());
+        assertEquals("limited", resource.limited());
+        final long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue(elapsedMillis >= 100, "Elapsed millis: " + elapsedMillis);
+    }
+
+    @Test
+    void whenTargetThrows_shouldPropagateTheCause() {
+        final Resource resource = givenProxy(new ResourceImpl(), RateLimitedProxies.DenialPolicy.fail());
+        assertThrows(IllegalStateException.class, resource::failing);
+    }
+
+    @Test
+    void givenClass_shouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> RateLimitedProxies.of(
+                ResourceImpl.class, new ResourceImpl(), RateLimiterRegistries.of(ResourceImpl.class)));
+    }
+
+    private Resource givenProxy(ResourceImpl target, RateLimitedProxies.DenialPolicy policy) {
+        final RateLimiterRegistry<?> registry = RateLimiterRegistries.of(target.getClass());
+        return RateLimitedProxies.of(Resource.class, target, registry, policy);
+    }
+}
@@ -0,0 +1,100 @@
+package io.github.poshjosh.ratelimiter;
+
+import io.github.poshjosh.ratelimiter.bandwidths.Bandwidth;
+import io.github.poshjosh.ratelimiter.bandwidths.BandwidthFactories;
+import io.github.poshjosh.ratelimiter.model.Rate;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitedStreamsTest {
+
+    @Test
+    void iterator_shouldAcquirePermitsInBatches() {
+        final CountingRateLimiter rateLimiter = new CountingRateLimiter();
+        final Iterator<Integer> iterator = RateLimitedStreams.of(
+                IntStream.range(0, 10).boxed().iterator(), rateLimiter, 4);
+        int count = 0;
+        while (iterator.hasNext()) {
+            iterator.next();
+            ++count;
+        }
+        assertEquals(10, count);
+        assertEquals(3, rateLimiter.calls.get());
+        assertEquals(12, rateLimiter.permits.get());
+    }
+
+    @Test
+    void parallelStream_shouldNotReleaseMoreElementsThanPermitsAcquired() {
+        final int elements = 10_000;
+        final int batchSize = 10;
+        final CountingRateLimiter rateLimiter = new CountingRateLimiter();
+        final AtomicInteger released = new AtomicInteger();
+        RateLimitedStreams.of(IntStream.range(0, elements).boxed().parallel(), rateLimiter, batchSize)
+                .forEach(i -> assertTrue(released.incrementAndGet() <= rateLimiter.permits.get()));
+        assertEquals(elements, released.get());
+        assertTrue(rateLimiter.permits.get() >= elements);
+        assertTrue(rateLimiter.permits.get() <= elements + batchSize - 1,
+                "Permits: " + rateLimiter.permits.get());
+    }
+
+    @Test
+    void givenKeyFunction_shouldChargeEachElementToItsKey() {
+        // Smooth, as the default bandwidth grants all the permits of its window at once.
+        final RateLimiterRegistry<String> registry = RateLimiterRegistries.of("limited",
+                Rate.of(10, Duration.ofSeconds(1), "", BandwidthFactories.SmoothBursty.class));
+        final List<String> elements = Arrays.asList("limited", "unlimited", "limited", "limited");
+        final long start = System.nanoTime();
+        final List<String> result = RateLimitedStreams.of(
+                elements.stream(), registry, element -> element, 1).collect(Collectors.toList());
+        final long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertEquals(elements, result);
+        assertTrue(elapsedMillis >= 150, "Elapsed millis: " + elapsedMillis);
+    }
+
+    @Test
+    void givenDefaultBandwidth_shouldReleaseAllThePermitsOfTheWindowAtOnce() {
+        final RateLimiter rateLimiter = RateLimiterRegistries.of("limited", Rate.ofSeconds(3))
+                .getRateLimiter("limited");
+        final long start = System.nanoTime();
+        final List<Long> elapsedMillis = RateLimitedStreams.of(Stream.of(1, 2, 3, 4), rateLimiter, 1)
+                .map(i -> TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start))
+                .collect(Collectors.toList());
+        assertTrue(elapsedMillis.get(2) < 500, "Elapsed millis: " + elapsedMillis);
+        // Released with the next window, a second after the first.
+        assertTrue(elapsedMillis.get(3) >= 500, "Elapsed millis: " + elapsedMillis);
+    }
+
+    @Test
+    void givenInvalidBatchSize_shouldThrow() {
+        assertThrows(IllegalArgumentException.class,
+                () -> RateLimitedStreams.of(Stream.of(1), new CountingRateLimiter(), 0));
+    }
+
+    private static final class CountingRateLimiter implements RateLimiter {
+        private final AtomicInteger calls = new AtomicInteger();
+        private final AtomicInteger permits = new AtomicInteger();
+        @Override public double acquire(int permits) {
+            this.calls.incrementAndGet();
+            this.permits.addAndGet(permits);
+            return 0;
+        }
+        @Override public boolean tryAcquire(int permits, long timeout, TimeUnit unit) {
+            acquire(permits);
+            return true;
+        }
+        @Override public Bandwidth getBandwidth() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package io.github.poshjosh.ratelimiter;
+
+import io.github.poshjosh.ratelimiter.model.Rate;
+import io.github.poshjosh.ratelimiter.model.Rates;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimiterMetricsTest {
+
+    private static final String ID = "metered-resource";
+
+    @Test
+    void tryAcquire_shouldRecordPermitsGrantedAndDenied() {
+        final RateLimiterMetrics metrics = RateLimiterMetrics.ofDefaults();
+        final RateLimiter rateLimiter = givenRegistry(metrics).getRateLimiter(ID);
+        assertTrue(rateLimiter.tryAcquire(1));
+        assertFalse(rateLimiter.tryAcquire(1));
+        assertFalse(rateLimiter.tryAcquire(2));
+
+        final RateLimiterMetrics.Snapshot keySnapshot = getKeySnapshot(metrics);
+        assertEquals(ID, keySnapshot.getNodeId());
+        assertEquals(1, keySnapshot.getPermitsGranted());
+        assertEquals(3, keySnapshot.getPermitsDenied());
+    }
+
+    @Test
+    void acquire_shouldRecordPermitsGrantedAndWaitTime() {
+        final RateLimiterMetrics metrics = RateLimiterMetrics.ofDefaults();
+        final RateLimiter rateLimiter = givenRegistry(metrics).getRateLimiter(ID);
+        rateLimiter.acquire(1);
+        rateLimiter.acquire(1); // Waits about 1 second
+
+        final RateLimiterMetrics.Snapshot keySnapshot = getKeySnapshot(metrics);
+        assertEquals(2, keySnapshot.getPermitsGranted());
+        assertTrue(keySnapshot.getWaitNanos() > 0, "Wait nanos: " + keySnapshot.getWaitNanos());
+    }
+
+    @Test
+    void getRateLimiter_shouldRecordMatcherEvaluationsPerNode() {
+        final RateLimiterMetrics metrics = RateLimiterMetrics.ofDefaults();
+        final RateLimiterRegistry<String> registry = givenRegistry(metrics);
+        registry.getRateLimiter(ID).tryAcquire(1);
+        registry.getRateLimiter(ID).tryAcquire(1);
+
+        final RateLimiterMetrics.Snapshot nodeSnapshot = getSnapshots(metrics, true).get(0);
+        assertEquals(ID, nodeSnapshot.getNodeId());
+        assertNull(nodeSnapshot.getKey());
+        assertEquals(2, nodeSnapshot.getMatcherEvaluations());
+        assertEquals(2, nodeSnapshot.getMatches());
+    }
+
+    @Test
+    void givenMaxKeysPerNode_shouldRecordFurtherKeysAsOtherKeys() {
+        final RateLimiterMetrics metrics = RateLimiterMetrics.ofDefaults(2);
+        for (int i = 0; i < 5; i++) {
+            metrics.getRecorder(ID, "key-" + i).onPermitsGranted(1, 0);
+        }
+
+        final List<RateLimiterMetrics.Snapshot> snapshots = getSnapshots(metrics, false);
+        assertEquals(3, snapshots.size(), "Snapshots: " + snapshots);
+        final RateLimiterMetrics.Snapshot otherKeys = snapshots.stream()
+                .filter(snapshot -> RateLimiterMetrics.OTHER_KEYS.equals(snapshot.getKey()))
+                .findFirst().orElseThrow(AssertionError::new);
+        assertEquals(3, otherKeys.getPermitsGranted());
+    }
+
+    @Test
+    void givenNoMetrics_shouldRecordNothing() {
+        final RateLimiter rateLimiter = givenRegistry(RateLimiterMetrics.NONE).getRateLimiter(ID);
+        assertTrue(rateLimiter.tryAcquire(1));
+        assertTrue(RateLimiterMetrics.NONE.snapshot().isEmpty());
+    }
+
+    private RateLimiterRegistry<String> givenRegistry(RateLimiterMetrics metrics) {
+        return RateLimiterRegistries.of(RateLimiterContext.<String>builder()
+                .rates(Collections.singletonMap(ID, Rates.of(Rate.ofSeconds(1))))
+                .metrics(metrics)
+                .build());
+    }
+
+    private RateLimiterMetrics.Snapshot getKeySnapshot(RateLimiterMetrics metrics) {
+        final List<RateLimiterMetrics.Snapshot> snapshots = getSnapshots(metrics, false);
+        assertEquals(1, snapshots.size(), "Snapshots: " + snapshots);
+        return snapshots.get(0);
+    }
+
+    private List<RateLimiterMetrics.Snapshot> getSnapshots(RateLimiterMetrics metrics, boolean nodes) {
+        return metrics.snapshot().stream()
+                .filter(snapshot -> nodes == (snapshot.getKey() == null))
+                .collect(Collectors.toList());
+    }
+}
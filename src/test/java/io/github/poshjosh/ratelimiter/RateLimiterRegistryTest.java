@@ -1,9 +1,11 @@
 package io.github.poshjosh.ratelimiter;
 
+import io.github.poshjosh.ratelimiter.annotation.RateId;
 import io.github.poshjosh.ratelimiter.annotations.RateGroup;
 import io.github.poshjosh.ratelimiter.model.Rate;
 import io.github.poshjosh.ratelimiter.model.Rates;
 import io.github.poshjosh.ratelimiter.util.RateLimitProperties;
+import io.github.poshjosh.ratelimiter.util.Ticker;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
@@ -14,7 +16,9 @@ import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -35,6 +39,13 @@ class RateLimiterRegistryTest {
     static class ClassWithLimits {}
     static class ClassWithNoLimits {}
 
+    @Limited
+    static class OtherClassWithGroupLimits {
+        @io.github.poshjosh.ratelimiter.annotations.Rate(1)
+        void limited() { }
+        void unlimited() { }
+    }
+
     @ParameterizedTest
     @ValueSource(classes = { ClassWithLimits.class, ClassWithGroupLimits.class })
     void register_shouldRegisterClassWithLimits(Class<?> clazz) {
@@ -42,6 +53,16 @@ class RateLimiterRegistryTest {
         assertTrue(registry.register(clazz).isRegistered(clazz));
     }
 
+    @Test
+    void register_shouldRegisterLimitedMethodsUnderTheRateGroup() throws NoSuchMethodException {
+        RateLimiterRegistry registry = givenRegistryHavingClass(ClassWithGroupLimits.class)
+                .register(OtherClassWithGroupLimits.class);
+        Class<?> clazz = OtherClassWithGroupLimits.class;
+        assertTrue(registry.isRegistered(RateId.of(clazz.getDeclaredMethod("limited"))));
+        assertFalse(registry.isRegistered(RateId.of(clazz.getDeclaredMethod("unlimited"))));
+        assertTrue(registry.getMethodRateLimiterOptional(clazz.getDeclaredMethod("limited")).isPresent());
+    }
+
     @Test
     void register_shouldNotRegisterClassWithNoLimits() {
         Class<?> clazz = ClassWithNoLimits.class;
@@ -109,6 +130,48 @@ class RateLimiterRegistryTest {
         assertNotNull(RateLimiterRegistries.of(context).getRateLimiter(ID));
     }
 
+    @Test
+    void tryAcquireAll_givenAllKeysHavePermits_shouldAcquireFromAll() {
+        RateLimiterRegistry<String> registry = givenRegistryHavingRates("user", "tenant");
+        assertTrue(registry.tryAcquireAll(Arrays.asList("user", "tenant"), 1));
+        assertFalse(registry.getRateLimiter("user").tryAcquire());
+        assertFalse(registry.getRateLimiter("tenant").tryAcquire());
+    }
+
+    @Test
+    void tryAcquireAll_givenOneKeyHasNoPermits_shouldAcquireFromNone() {
+        RateLimiterRegistry<String> registry = givenRegistryHavingRates("user", "tenant");
+        assertTrue(registry.getRateLimiter("tenant").tryAcquire());
+        assertFalse(registry.tryAcquireAll(Arrays.asList("user", "tenant"), 1));
+        assertTrue(registry.getRateLimiter("user").tryAcquire());
+    }
+
+    @Test
+    void tryAcquireAll_givenKeysWithoutLimits_shouldSucceed() {
+        RateLimiterRegistry<String> registry = givenRegistryHavingRates("user");
+        assertTrue(registry.tryAcquireAll(Arrays.asList("unknown-1", "unknown-2"), 1));
+        assertTrue(registry.tryAcquireAll(Arrays.asList("unknown-1", "unknown-2"), 1));
+    }
+
+    @Test
+    void getTicker_shouldReturnTheTickerOfTheContext() {
+        final Ticker ticker = System::nanoTime;
+        RateLimiterRegistry<String> registry = RateLimiterRegistries.of(
+                RateLimiterContext.<String>builder()
+                        .rates(Collections.singletonMap(ID, Rates.of(Rate.ofSeconds(1)))).ticker(ticker).build());
+        assertSame(ticker, registry.getTicker());
+        assertSame(ticker, RateLimiterRegistries.ofCaching(registry).getTicker());
+    }
+
+    private RateLimiterRegistry<String> givenRegistryHavingRates(String... ids) {
+        Map<String, Rates> rates = new HashMap<>();
+        for (String id : ids) {
+            rates.put(id, Rates.of(Rate.ofSeconds(1)));
+        }
+        RateLimiterContext<String> context = RateLimiterContext.<String>builder().rates(rates).build();
+        return RateLimiterRegistries.of(context);
+    }
+
     private RateLimiterRegistry givenRegistry() {
         return givenRegistryForPackage("dummy-package");
     }
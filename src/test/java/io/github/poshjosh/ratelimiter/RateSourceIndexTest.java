@@ -0,0 +1,100 @@
+package io.github.poshjosh.ratelimiter;
+
+import io.github.poshjosh.ratelimiter.annotations.Rate;
+import io.github.poshjosh.ratelimiter.node.Node;
+import io.github.poshjosh.ratelimiter.performance.dummyclasses.RateGroupA;
+import io.github.poshjosh.ratelimiter.util.ClassesInPackageFinder;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.GenericDeclaration;
+import java.lang.reflect.Method;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Traversing only the candidate leaf nodes selected by {@link RateSourceIndex} must yield
+ * the same result as traversing all the leaf nodes.
+ */
+class RateSourceIndexTest {
+
+    @Rate(5)
+    static class SuperResource {
+        @Rate(1)
+        public void inherited() { }
+        public void notRateLimited() { }
+    }
+
+    static class SubResource extends SuperResource {
+        @Rate(2)
+        public void declared() { }
+    }
+
+    @RateGroupA
+    static class GroupedResource {
+        public void notRateLimited() { }
+    }
+
+    // Only methods of a class without class level rates may belong to a group
+    static class GroupedMethodResource {
+        @RateGroupA
+        public void grouped() { }
+    }
+
+    @Test
+    void givenAnnotations_candidateLeafNodes_shouldMatchSameAsAllLeafNodes() {
+        final List<Class<?>> classes = annotatedClasses();
+        // The super class is processed with its sub class
+        classes.add(SubResource.class);
+        classes.add(GroupedResource.class);
+        classes.add(GroupedMethodResource.class);
+        final RateLimiterContext<Object> context = RateLimiterContext.<Object>builder()
+                .classes(classes.toArray(new Class[0])).build();
+        final RootNodes<Object> rootNodes = RootNodes.of(context);
+
+        final List<GenericDeclaration> keys = new ArrayList<>();
+        classes.add(SuperResource.class);
+        classes.add(String.class);
+        for (Class<?> clazz : classes) {
+            keys.add(clazz);
+            keys.addAll(Arrays.asList(clazz.getMethods()));
+            keys.addAll(Arrays.asList(clazz.getDeclaredMethods()));
+        }
+
+        for (GenericDeclaration key : keys) {
+            assertEquals(
+                    visit(key, rootNodes.getAnnotationsLeafNodes(), context),
+                    visit(key, rootNodes.getAnnotationsLeafNodes(key), context),
+                    "Key: " + key);
+        }
+    }
+
+    @Test
+    void givenInheritedMethod_candidateLeafNodes_shouldIncludeSuperClassBranch() throws Exception {
+        final RateLimiterContext<Object> context = RateLimiterContext.<Object>builder()
+                .classes(SubResource.class).build();
+        final RootNodes<Object> rootNodes = RootNodes.of(context);
+        final Method key = SubResource.class.getMethod("inherited");
+        assertEquals(
+                visit(key, rootNodes.getAnnotationsLeafNodes(), context),
+                visit(key, rootNodes.getAnnotationsLeafNodes(key), context));
+        // The inherited method has a single node, under its declaring class
+        assertEquals(1, Arrays.stream(rootNodes.getAnnotationsLeafNodes(key))
+                .filter(node -> key.equals(node.requireValue().getSource().getSource())).count());
+    }
+
+    private List<String> visit(Object key, Node<RateContext<Object>>[] leafNodes,
+            RateLimiterContext<Object> context) {
+        final List<String> matches = new ArrayList<>();
+        new RateLimiterCompositeBottomUp<>(key, leafNodes, context.getRateLimiterProvider())
+                .visitNodes((match, rateLimiter) -> matches.add(match));
+        return matches;
+    }
+
+    private List<Class<?>> annotatedClasses() {
+        // This package contains 100 randomly rate limited classes
+        final String packageName = "io.github.poshjosh.ratelimiter.performance.dummyclasses";
+        return new ArrayList<>(ClassesInPackageFinder.ofDefaults()
+                .findClasses(Collections.singletonList(packageName), clazz -> true));
+    }
+}
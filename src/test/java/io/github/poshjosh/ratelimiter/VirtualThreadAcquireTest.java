@@ -0,0 +1,137 @@
+package io.github.poshjosh.ratelimiter;
+
+import io.github.poshjosh.ratelimiter.bandwidths.Bandwidth;
+import io.github.poshjosh.ratelimiter.bandwidths.BandwidthFactories;
+import io.github.poshjosh.ratelimiter.bandwidths.RateToBandwidthConverter;
+import io.github.poshjosh.ratelimiter.model.Rate;
+import io.github.poshjosh.ratelimiter.performance.simulation.VirtualTicker;
+import io.github.poshjosh.ratelimiter.store.BandwidthsStore;
+import io.github.poshjosh.ratelimiter.util.Ticker;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class VirtualThreadAcquireTest {
+
+    private static final String KEY = "virtual-thread-resource";
+
+    private static final long START_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void acquire_givenNoAvailablePermits_shouldWaitForPermits() {
+        final VirtualTicker ticker = new VirtualTicker(START_NANOS);
+        final RateLimiter rateLimiter = givenNodeRateLimiter(ticker, 10);
+        final AllOrNothingReservation first = new AllOrNothingReservation();
+        first.accept(KEY, rateLimiter);
+        assertEquals(0.0, first.acquire(ticker, 1), 0.001);
+        final AllOrNothingReservation second = new AllOrNothingReservation();
+        second.accept(KEY, rateLimiter);
+        assertEquals(0.1, second.acquire(ticker, 1), 0.001);
+        assertEquals(100_000, ticker.takeSleptMicros());
+    }
+
+    @Test
+    void acquire_givenManyVirtualThreads_shouldAcquireAllPermits() throws Exception {
+        assumeTrue(VirtualThreads.isSupported(), "Virtual threads not supported");
+        final Method startVirtualThread = Thread.class.getMethod("startVirtualThread", Runnable.class);
+        final int threadCount = 1_000;
+        final RateLimiter rateLimiter = givenRateLimiter(5_000);
+        final CountDownLatch latch = new CountDownLatch(threadCount);
+        final AtomicInteger virtual = new AtomicInteger();
+        for (int i = 0; i < threadCount; i++) {
+            startVirtualThread.invoke(null, (Runnable) () -> {
+                if (VirtualThreads.isCurrentThreadVirtual()) {
+                    virtual.incrementAndGet();
+                }
+                rateLimiter.acquire();
+                latch.countDown();
+            });
+        }
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertEquals(threadCount, virtual.get());
+        assertFalse(VirtualThreads.isCurrentThreadVirtual());
+    }
+
+    @Test
+    void tryAcquire_givenTimeoutOnVirtualThread_shouldWaitWithoutPassingTheTimeoutToTheRateLimiter()
+            throws Exception {
+        assumeTrue(VirtualThreads.isSupported(), "Virtual threads not supported");
+        final Method startVirtualThread = Thread.class.getMethod("startVirtualThread", Runnable.class);
+        final VirtualTicker ticker = new VirtualTicker(START_NANOS);
+        final TimeoutRecordingRateLimiter recording =
+                new TimeoutRecordingRateLimiter(givenNodeRateLimiter(ticker, 10));
+        final RateLimiter parking = new ParkingRateLimiter(recording, ticker);
+        final AtomicInteger acquired = new AtomicInteger();
+        final Thread thread = (Thread) startVirtualThread.invoke(null, (Runnable) () -> {
+            for (int i = 0; i < 2; i++) {
+                if (parking.tryAcquire(1, 1, TimeUnit.SECONDS)) {
+                    acquired.incrementAndGet();
+                }
+            }
+        });
+        thread.join(TimeUnit.SECONDS.toMillis(5));
+        assertEquals(2, acquired.get());
+        // The second permit is due 100 millis after the first.
+        assertEquals(100_000, ticker.takeSleptMicros());
+        assertEquals(0, recording.maxTimeoutPassed);
+    }
+
+    @Test
+    void tryAcquire_givenTimeoutOnPlatformThread_shouldPassTheTimeoutToTheRateLimiter() {
+        final VirtualTicker ticker = new VirtualTicker(START_NANOS);
+        final TimeoutRecordingRateLimiter recording =
+                new TimeoutRecordingRateLimiter(givenNodeRateLimiter(ticker, 10));
+        final RateLimiter parking = new ParkingRateLimiter(recording, ticker);
+        assertTrue(parking.tryAcquire(1, 1, TimeUnit.SECONDS));
+        assertTrue(parking.tryAcquire(1, 1, TimeUnit.SECONDS));
+        assertEquals(100_000, ticker.takeSleptMicros());
+        assertEquals(1, recording.maxTimeoutPassed);
+    }
+
+    /** Wraps a rate limiter, as the registry does, e.g for metrics. */
+    private static final class TimeoutRecordingRateLimiter implements ReservingRateLimiter {
+        private final RateLimiter delegate;
+        private volatile long maxTimeoutPassed;
+        private TimeoutRecordingRateLimiter(RateLimiter delegate) {
+            this.delegate = delegate;
+        }
+        @Override public double acquire(int permits) {
+            return delegate.acquire(permits);
+        }
+        @Override public boolean tryAcquire(int permits, long timeout, TimeUnit unit) {
+            maxTimeoutPassed = Math.max(maxTimeoutPassed, timeout);
+            return delegate.tryAcquire(permits, timeout, unit);
+        }
+        @Override public RateLimiter getDelegate() {
+            return delegate;
+        }
+        @Override public long reserve(int permits) {
+            return ReservingRateLimiter.reserve(delegate, permits);
+        }
+        @Override public Bandwidth getBandwidth() {
+            return delegate.getBandwidth();
+        }
+    }
+
+    private RateLimiter givenRateLimiter(long permitsPerSecond) {
+        return RateLimiterRegistries.<String>of(KEY, givenRate(permitsPerSecond)).getRateLimiter(KEY);
+    }
+
+    /** A rate limiter as matched at a node of the registry. */
+    private RateLimiter givenNodeRateLimiter(Ticker ticker, long permitsPerSecond) {
+        return RateLimiterProviders.of(RateToBandwidthConverter.of(ticker), BandwidthsStore.ofDefaults(), ticker)
+                .getRateLimiter(KEY, givenRate(permitsPerSecond));
+    }
+
+    private Rate givenRate(long permitsPerSecond) {
+        // Smooth, as the default bandwidth grants all the permits of its window at once.
+        return Rate.of(permitsPerSecond, Duration.ofSeconds(1), "", BandwidthFactories.SmoothBursty.class);
+    }
+}
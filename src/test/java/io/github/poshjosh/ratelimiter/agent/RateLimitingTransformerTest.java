@@ -0,0 +1,138 @@
+package io.github.poshjosh.ratelimiter.agent;
+
+import io.github.poshjosh.ratelimiter.PermitsDeniedException;
+import io.github.poshjosh.ratelimiter.RateLimitedProxies;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Weaves {@link WovenResource} in-process, by loading it via a class loader which applies
+ * the transformer; as the agent would, were it attached at startup.
+ */
+class RateLimitingTransformerTest {
+
+    @AfterEach
+    void tearDown() {
+        WovenRateLimiters.setDenialPolicy(RateLimitedProxies.DenialPolicy.fail());
+        WovenRateLimiters.resetSharedRegistry();
+    }
+
+    @Test
+    void wovenMethod_whenLimitExceeded_shouldBeDenied() throws Exception {
+        final Class<?> woven = weave(WovenResource.class);
+        final Object resource = woven.getDeclaredConstructor().newInstance();
+        assertEquals("hi", invoke(resource, "limited"));
+        final Throwable denied = assertThrows(InvocationTargetException.class,
+                () -> invoke(resource, "limited")).getCause();
+        assertTrue(denied instanceof PermitsDeniedException, "Found: " + denied);
+        assertEquals("limited", ((PermitsDeniedException)denied).getMethod().getName());
+    }
+
+    @Test
+    void givenNoRegistrySet_classesWovenSeparately_shouldShareLimits() throws Exception {
+        final Object first = weave(WovenResource.class).getDeclaredConstructor().newInstance();
+        final Object second = weave(WovenResource.class).getDeclaredConstructor().newInstance();
+        assertEquals("hi", invoke(first, "limited"));
+        assertThrows(InvocationTargetException.class, () -> invoke(second, "limited"));
+    }
+
+    @Test
+    void unannotatedMethod_shouldNotBeWoven() throws Exception {
+        final Class<?> woven = weave(WovenResource.class);
+        final Object resource = woven.getDeclaredConstructor().newInstance();
+        for (int i = 0; i < 5; i++) {
+            assertEquals("hi", invoke(resource, "unlimited"));
+        }
+    }
+
+    @Test
+    void wovenMethods_shouldHaveStaticFinalRateLimiterFields() throws Exception {
+        final Class<?> woven = weave(WovenResource.class);
+        int count = 0;
+        for (Field field : woven.getDeclaredFields()) {
+            if (field.getName().startsWith("$rateLimiter$")) {
+                ++count;
+                assertTrue(Modifier.isStatic(field.getModifiers()));
+                assertTrue(Modifier.isFinal(field.getModifiers()));
+                assertTrue(field.isSynthetic());
+            }
+        }
+        assertEquals(3, count);
+    }
+
+    @Test
+    void givenLoopAtEntry_shouldPassVerificationAndBeDenied() throws Exception {
+        final Class<?> woven = weave(WovenResource.class);
+        final Object resource = woven.getDeclaredConstructor().newInstance();
+        final Method method = woven.getMethod("loopAtEntry", int.class);
+        assertEquals(3, method.invoke(resource, 3));
+        assertThrows(InvocationTargetException.class, () -> method.invoke(resource, 3));
+    }
+
+    @Test
+    void givenCustomDenialPolicy_staticMethod_shouldApplyIt() throws Exception {
+        final int [] denials = new int[1];
+        WovenRateLimiters.setDenialPolicy((method, rateLimiter) -> ++denials[0]);
+        final Class<?> woven = weave(WovenResource.class);
+        final Method method = woven.getMethod("staticLimited", long.class, double[].class);
+        assertEquals(3L, method.invoke(null, 1L, new double[2]));
+        assertEquals(3L, method.invoke(null, 1L, new double[2]));
+        assertEquals(1, denials[0]);
+    }
+
+    @Test
+    void givenClassOutsidePackages_shouldNotTransform() throws IOException {
+        final RateLimitingTransformer transformer =
+                new RateLimitingTransformer(Collections.singletonList("com.example"));
+        final String name = WovenResource.class.getName().replace('.', '/');
+        assertNull(transformer.transform(getClass().getClassLoader(), name, null, null,
+                readBytes(WovenResource.class)));
+    }
+
+    private Object invoke(Object target, String methodName) throws Exception {
+        return target.getClass().getMethod(methodName).invoke(target);
+    }
+
+    private Class<?> weave(Class<?> clazz) throws Exception {
+        final RateLimitingTransformer transformer = new RateLimitingTransformer(
+                Collections.singletonList(clazz.getPackage().getName()));
+        final byte [] original = readBytes(clazz);
+        final byte [] woven = transformer.transform(getClass().getClassLoader(),
+                clazz.getName().replace('.', '/'), null, null, original);
+        assertNotNull(woven);
+        return new ClassLoader(getClass().getClassLoader()) {
+            @Override protected Class<?> loadClass(String name, boolean resolve)
+                    throws ClassNotFoundException {
+                if (name.equals(clazz.getName())) {
+                    final Class<?> loaded = findLoadedClass(name);
+                    return loaded != null ? loaded : defineClass(name, woven, 0, woven.length);
+                }
+                return super.loadClass(name, resolve);
+            }
+        }.loadClass(clazz.getName());
+    }
+
+    private static byte [] readBytes(Class<?> clazz) throws IOException {
+        final String resource = '/' + clazz.getName().replace('.', '/') + ".class";
+        try (InputStream in = clazz.getResourceAsStream(resource)) {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final byte [] buffer = new byte[4096];
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        }
+    }
+}
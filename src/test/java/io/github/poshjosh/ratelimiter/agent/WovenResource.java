@@ -0,0 +1,36 @@
+package io.github.poshjosh.ratelimiter.agent;
+
+import io.github.poshjosh.ratelimiter.annotations.Rate;
+
+/**
+ * Woven by {@link RateLimitingTransformerTest}.
+ */
+public class WovenResource {
+
+    // Not a compile-time constant, so that the class has a static initializer to prepend to.
+    private static final String GREETING = String.valueOf("hi");
+
+    @Rate(1)
+    public String limited() {
+        return GREETING;
+    }
+
+    public String unlimited() {
+        return GREETING;
+    }
+
+    @Rate(1)
+    public int loopAtEntry(int count) {
+        // A loop at the entry of a method, requires a stack map frame at the first instruction.
+        int sum = 0;
+        while (count-- > 0) {
+            sum += count;
+        }
+        return sum;
+    }
+
+    @Rate(1)
+    public static long staticLimited(long value, double [] values) {
+        return value + values.length;
+    }
+}
@@ -0,0 +1,110 @@
+package io.github.poshjosh.ratelimiter.performance;
+
+import io.github.poshjosh.ratelimiter.RateLimiterRegistries;
+import io.github.poshjosh.ratelimiter.RateLimiterRegistry;
+import io.github.poshjosh.ratelimiter.model.Rate;
+import io.github.poshjosh.ratelimiter.performance.dummyclasses.dummyclasses0.RateLimitedClass0;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+import java.util.function.BooleanSupplier;
+
+import static io.github.poshjosh.ratelimiter.performance.Helpers.givenRateLimiterRegistry;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Guards against regressions in the bytes allocated per call, on the request path.
+ *
+ * <p>Each scenario is warmed up (so that one-off allocations e.g. of rate limiters
+ * are excluded) before the bytes allocated by the current thread are measured.
+ * Each budget is about twice the allocation measured for its scenario, so that it
+ * tolerates differences between JVMs, while still catching e.g. a new allocation per
+ * matched node. Lower it whenever allocations are removed.</p>
+ *
+ * <p>Run with the integration tests, e.g. {@code mvn verify -Dit.skip=false}.</p>
+ */
+class AllocationBudgetIT {
+
+    private static final int WARMUP_CALLS = 20_000;
+    private static final int MEASURED_CALLS = 10_000;
+
+    // Measured: 416 - 464 bytes per call
+    private static final int STRING_KEY_PROPERTIES_BUDGET = 960;
+    // Measured: 424 - 427 bytes per call
+    private static final int STRING_KEY_ANNOTATIONS_BUDGET = 896;
+    // Measured: 472 bytes per call
+    private static final int METHOD_KEY_ANNOTATIONS_BUDGET = 960;
+    // Measured: 2000 - 2024 bytes per call, mostly from looking up the rate limiter of the class
+    private static final int CLASS_KEY_ANNOTATIONS_BUDGET = 4096;
+
+    private static final String RESOURCE_ID = "allocation-budget-resource";
+
+    @Test
+    void tryAcquire_givenStringKeyAndProperties_shouldAllocateWithinBudget() {
+        final RateLimiterRegistry<String> registry =
+                RateLimiterRegistries.of(RESOURCE_ID, Rate.ofSeconds(1_000_000_000));
+        assertAllocationPerCallWithinBudget("String key, properties",
+                STRING_KEY_PROPERTIES_BUDGET,
+                () -> registry.getRateLimiter(RESOURCE_ID).tryAcquire());
+    }
+
+    @Test
+    void tryAcquire_givenStringKeyAndAnnotations_shouldAllocateWithinBudget() {
+        final RateLimiterRegistry<String> registry = givenRateLimiterRegistry();
+        assertAllocationPerCallWithinBudget("String key, annotations",
+                STRING_KEY_ANNOTATIONS_BUDGET,
+                () -> registry.getRateLimiter(RateLimitedClass0.METHOD_5_KEY).tryAcquire());
+    }
+
+    @Test
+    void tryAcquire_givenMethodKeyAndAnnotations_shouldAllocateWithinBudget() throws Exception {
+        final RateLimiterRegistry<String> registry = givenRateLimiterRegistry();
+        final Method method = RateLimitedClass0.class.getMethod("methodNumber5", String.class);
+        assertAllocationPerCallWithinBudget("Method key, annotations",
+                METHOD_KEY_ANNOTATIONS_BUDGET,
+                () -> registry.getMethodRateLimiter(method).tryAcquire());
+    }
+
+    @Test
+    void tryAcquire_givenClassKeyAndAnnotations_shouldAllocateWithinBudget() {
+        final RateLimiterRegistry<String> registry = givenRateLimiterRegistry();
+        assertAllocationPerCallWithinBudget("Class key, annotations",
+                CLASS_KEY_ANNOTATIONS_BUDGET,
+                () -> registry.getClassRateLimiter(RateLimitedClass0.class).tryAcquire());
+    }
+
+    private void assertAllocationPerCallWithinBudget(
+            String scenario, long budgetBytesPerCall, BooleanSupplier call) {
+        final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        assumeTrue(threadMXBean instanceof com.sun.management.ThreadMXBean,
+                "Measuring allocated bytes is not supported by this JVM");
+        final com.sun.management.ThreadMXBean allocationMXBean =
+                (com.sun.management.ThreadMXBean)threadMXBean;
+        assumeTrue(allocationMXBean.isThreadAllocatedMemorySupported()
+                        && allocationMXBean.isThreadAllocatedMemoryEnabled(),
+                "Measuring allocated bytes is not enabled for this JVM");
+
+        int granted = 0;
+        for (int i = 0; i < WARMUP_CALLS; i++) {
+            granted += call.getAsBoolean() ? 1 : 0;
+        }
+
+        final long threadId = Thread.currentThread().getId();
+        final long allocatedBefore = allocationMXBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < MEASURED_CALLS; i++) {
+            granted += call.getAsBoolean() ? 1 : 0;
+        }
+        final long allocated = allocationMXBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        final long allocatedPerCall = allocated / MEASURED_CALLS;
+        System.out.println("\n" + scenario + ", granted: " + granted
+                + ", bytes allocated per call: " + allocatedPerCall
+                + ", budget: " + budgetBytesPerCall);
+        assertTrue(allocatedPerCall <= budgetBytesPerCall, scenario
+                + " should allocate at most " + budgetBytesPerCall
+                + " bytes per call, but allocated: " + allocatedPerCall);
+    }
+}
@@ -0,0 +1,109 @@
+package io.github.poshjosh.ratelimiter.performance;
+
+import io.github.poshjosh.ratelimiter.RateLimiter;
+import io.github.poshjosh.ratelimiter.RateLimiterContext;
+import io.github.poshjosh.ratelimiter.RateLimiterRegistries;
+import io.github.poshjosh.ratelimiter.RateLimiterRegistry;
+import io.github.poshjosh.ratelimiter.annotations.Rate;
+import io.github.poshjosh.ratelimiter.bandwidths.BandwidthFactories;
+import io.github.poshjosh.ratelimiter.performance.simulation.VirtualTicker;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * At saturation, requests denied at one node of the rate limiter tree should not consume
+ * the permits of other nodes.
+ *
+ * <p>Here, the class limit is shared by a hot method (saturated by its own limit) and cold
+ * requests to the class itself. If each matched rate limiter were tried in turn, the denied
+ * requests to the hot method would consume the class permits, starving the cold requests.</p>
+ */
+class SaturationThroughputTest {
+
+    private static final long START_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    // Smooth bandwidths, as the default bandwidth grants all the permits of its
+    // window at once, and its windows are not aligned to the virtual ticker.
+    // A single method, as bottom-up traversal stops at the first branch with a match; so
+    // the branch of a sibling method could shadow that of the hot method.
+    @Rate(permits = 10, factoryClass = BandwidthFactories.SmoothBursty.class)
+    static class Resource {
+        @Rate(permits = 1, factoryClass = BandwidthFactories.SmoothBursty.class) void hot() { }
+    }
+
+    @Test
+    void atSaturation_deniedRequestsShouldNotConsumeClassPermits() throws Exception {
+        final VirtualTicker ticker = new VirtualTicker(START_NANOS);
+        final Limiters limiters = new Limiters(ticker);
+        int hotGranted = 0;
+        int coldGranted = 0;
+        // A hot and a cold request every 5 millis, for 1 second.
+        for (int i = 0; i < 200; i++) {
+            ticker.advanceTo(START_NANOS + TimeUnit.MILLISECONDS.toNanos(i * 5L));
+            if (limiters.hot.tryAcquire()) {
+                ++hotGranted;
+            }
+            if (limiters.cold.tryAcquire()) {
+                ++coldGranted;
+            }
+        }
+        assertTrue(hotGranted <= 2, "Hot granted: " + hotGranted);
+        // The class allows 10 per second; whatever hot does not use, cold should get.
+        assertTrue(hotGranted + coldGranted >= 10,
+                "Effective throughput: " + (hotGranted + coldGranted) + "/s");
+    }
+
+    @Test
+    void givenConcurrentRequests_shouldGrantAsManyAsSequentialRequests() throws Exception {
+        final int threads = 8;
+        final int requestsPerThread = 10_000;
+        final int sequential = countGranted(1, threads * requestsPerThread);
+        final int concurrent = countGranted(threads, requestsPerThread);
+        assertTrue(sequential > 0);
+        assertEquals(sequential, concurrent);
+    }
+
+    /** With time frozen, so that the number of permits available is fixed. */
+    private int countGranted(int threads, int requestsPerThread) throws Exception {
+        final Limiters limiters = new Limiters(new VirtualTicker(START_NANOS));
+        final AtomicInteger granted = new AtomicInteger();
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < requestsPerThread; i++) {
+                        if ((i % 2 == 0 ? limiters.hot : limiters.cold).tryAcquire()) {
+                            granted.incrementAndGet();
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return granted.get();
+    }
+
+    private static final class Limiters {
+        private final RateLimiter hot;
+        private final RateLimiter cold;
+        private Limiters(VirtualTicker ticker) throws NoSuchMethodException {
+            final RateLimiterContext<Object> context = RateLimiterContext.builder()
+                    .classes(Resource.class).ticker(ticker).build();
+            final RateLimiterRegistry<Object> registry = RateLimiterRegistries.of(context);
+            this.hot = registry.getRateLimiter(Resource.class.getDeclaredMethod("hot"));
+            // Matched by the class only
+            this.cold = registry.getRateLimiter(Resource.class);
+        }
+    }
+}
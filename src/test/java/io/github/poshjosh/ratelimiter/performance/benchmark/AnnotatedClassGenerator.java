@@ -0,0 +1,217 @@
+package io.github.poshjosh.ratelimiter.performance.benchmark;
+
+import io.github.poshjosh.ratelimiter.bandwidths.BandwidthFactory;
+
+import javax.tools.*;
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Generates rate limited classes shaped like those in the {@code performance.dummyclasses}
+ * package, compiles them in-process, and loads them.
+ *
+ * <p>Every 10 classes share a package. Classes are annotated with one of 3 rate groups,
+ * or a class level rate, and each class has 2 rate limited methods (one of which has a
+ * condition) along with a few methods which are not rate limited.</p>
+ *
+ * <p>With hierarchies, the last 5 classes of each package extend the first 5, and some
+ * methods are rate limited via a meta-annotation (an annotation annotated with a rate).</p>
+ *
+ * <p>Classes are compiled into temporary directories, which are deleted on {@link #close()}.
+ * Close only when done with the generated classes, as some (e.g annotation types) are
+ * loaded lazily.</p>
+ */
+public final class AnnotatedClassGenerator implements AutoCloseable {
+
+    private static final String CONDITION = "sys.time.elapsed > PT0S";
+
+    // Keeps the memory used by the compiler bounded. Must be a multiple of the classes per package.
+    private static final int CLASSES_PER_COMPILATION = 2_000;
+
+    private final String basePackage;
+    private final long permitsPerSecond;
+    private final Class<? extends BandwidthFactory> factoryClass;
+    private final boolean hierarchies;
+    private final List<Path> outputDirs = new ArrayList<>();
+
+    public AnnotatedClassGenerator(
+            String basePackage, long permitsPerSecond,
+            Class<? extends BandwidthFactory> factoryClass) {
+        this(basePackage, permitsPerSecond, factoryClass, false);
+    }
+
+    private AnnotatedClassGenerator(
+            String basePackage, long permitsPerSecond,
+            Class<? extends BandwidthFactory> factoryClass, boolean hierarchies) {
+        this.basePackage = basePackage;
+        this.permitsPerSecond = permitsPerSecond;
+        this.factoryClass = factoryClass;
+        this.hierarchies = hierarchies;
+    }
+
+    public AnnotatedClassGenerator withHierarchies() {
+        return new AnnotatedClassGenerator(basePackage, permitsPerSecond, factoryClass, true);
+    }
+
+    public List<Class<?>> generate(int classCount) {
+        final Path outputDir = createOutputDir();
+        outputDirs.add(outputDir);
+        final List<JavaFileObject> annotations = new ArrayList<>(4);
+        for (char group = 'A'; group <= 'C'; group++) {
+            annotations.add(source(basePackage, "RateGroup" + group, rateGroup(group)));
+        }
+        annotations.add(source(basePackage, "MetaRate", metaRate()));
+        compile(annotations, outputDir);
+
+        final List<String> classNames = new ArrayList<>(classCount);
+        List<JavaFileObject> sources = new ArrayList<>(CLASSES_PER_COMPILATION);
+        for (int i = 0; i < classCount; i++) {
+            final String packageName = basePackage + ".generated" + (i / 10);
+            final String simpleName = "RateLimitedClass" + i;
+            sources.add(source(packageName, simpleName, rateLimitedClass(packageName, simpleName, i)));
+            classNames.add(packageName + '.' + simpleName);
+            if (sources.size() == CLASSES_PER_COMPILATION) {
+                compile(sources, outputDir);
+                sources = new ArrayList<>(CLASSES_PER_COMPILATION);
+            }
+        }
+        if (!sources.isEmpty()) {
+            compile(sources, outputDir);
+        }
+        return load(classNames, outputDir);
+    }
+
+    private String rateGroup(char group) {
+        return "package " + basePackage + ";\n"
+                + "import io.github.poshjosh.ratelimiter.annotations.*;\n"
+                + "import java.lang.annotation.*;\n"
+                + rate("permits = " + permitsPerSecond) + "\n"
+                + "@RateGroup(\"rate-group-" + group + "\")\n"
+                + "@Retention(RetentionPolicy.RUNTIME)\n"
+                + "@Target({ElementType.TYPE, ElementType.ANNOTATION_TYPE, ElementType.METHOD})\n"
+                + "public @interface RateGroup" + group + " { }\n";
+    }
+
+    private String metaRate() {
+        return "package " + basePackage + ";\n"
+                + "import io.github.poshjosh.ratelimiter.annotations.*;\n"
+                + "import java.lang.annotation.*;\n"
+                + rate("permits = " + permitsPerSecond + ", condition = \"" + CONDITION + "\"") + "\n"
+                + "@Retention(RetentionPolicy.RUNTIME)\n"
+                + "@Target({ElementType.TYPE, ElementType.ANNOTATION_TYPE, ElementType.METHOD})\n"
+                + "public @interface MetaRate { }\n";
+    }
+
+    private String rateLimitedClass(String packageName, String simpleName, int index) {
+        final StringBuilder builder = new StringBuilder(1024)
+                .append("package ").append(packageName).append(";\n")
+                .append("import io.github.poshjosh.ratelimiter.annotations.*;\n");
+        switch (index % 4) {
+            case 0: builder.append('@').append(basePackage).append(".RateGroupA\n"); break;
+            case 1: builder.append('@').append(basePackage).append(".RateGroupB\n"); break;
+            case 2: builder.append('@').append(basePackage).append(".RateGroupC\n"); break;
+            default: builder.append(rate("permits = " + permitsPerSecond)).append('\n');
+        }
+        builder.append("public class ").append(simpleName);
+        final boolean subClass = hierarchies && index % 10 >= 5;
+        if (subClass) {
+            builder.append(" extends RateLimitedClass").append(index - 5);
+        }
+        builder.append(" {\n")
+                .append("    void method_0() {}\n")
+                .append("    private void method_1(boolean bval) {}\n");
+        if (subClass) {
+            // Sub classes inherit methodNumber4 and methodNumber5
+            return builder
+                    .append("    @").append(basePackage).append(".MetaRate\n")
+                    .append("    public String methodNumber6(String a) { return \"6\"; }\n")
+                    .append("}\n").toString();
+        }
+        builder.append("    ").append(rate("permits = " + permitsPerSecond)).append('\n')
+                .append("    @RateCondition(\"").append(CONDITION).append("\")\n")
+                .append("    public String methodNumber4(Object a, Object b) { return \"4\"; }\n");
+        if (hierarchies) {
+            builder.append("    @").append(basePackage).append(".MetaRate\n");
+        } else {
+            builder.append("    ").append(rate("permits = " + permitsPerSecond)).append('\n');
+        }
+        return builder.append("    public String methodNumber5(String a) { return \"5\"; }\n")
+                .append("}\n").toString();
+    }
+
+    private String rate(String attributes) {
+        return "@Rate(" + attributes + ", factoryClass = " + factoryClass.getCanonicalName() + ".class)";
+    }
+
+    @Override
+    public void close() {
+        for (Path outputDir : outputDirs) {
+            try (Stream<Path> paths = Files.walk(outputDir)) {
+                // Delete the contents of directories before the directories
+                paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        outputDirs.clear();
+    }
+
+    private static Path createOutputDir() {
+        try {
+            return Files.createTempDirectory("rate-limited-classes");
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void compile(List<JavaFileObject> sources, Path outputDir) {
+        final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            throw new IllegalStateException("A JDK is required to compile generated classes");
+        }
+        final List<String> options = Arrays.asList(
+                "-proc:none", "-d", outputDir.toString(), "-classpath",
+                System.getProperty("java.class.path") + File.pathSeparator + outputDir);
+        final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        final boolean compiled = compiler
+                .getTask(null, null, diagnostics, options, null, sources).call();
+        if (!compiled) {
+            throw new IllegalStateException("Failed to compile generated classes: "
+                    + diagnostics.getDiagnostics());
+        }
+    }
+
+    private static List<Class<?>> load(List<String> classNames, Path outputDir) {
+        try {
+            final ClassLoader classLoader = new URLClassLoader(
+                    new URL[]{outputDir.toUri().toURL()},
+                    AnnotatedClassGenerator.class.getClassLoader());
+            final List<Class<?>> classes = new ArrayList<>(classNames.size());
+            for (String className : classNames) {
+                classes.add(Class.forName(className, true, classLoader));
+            }
+            return classes;
+        } catch (IOException | ClassNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static JavaFileObject source(String packageName, String simpleName, String code) {
+        final String path = packageName.replace('.', File.separatorChar)
+                + File.separatorChar + simpleName + JavaFileObject.Kind.SOURCE.extension;
+        return new SimpleJavaFileObject(new File(path).toURI(), JavaFileObject.Kind.SOURCE) {
+            @Override public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return code;
+            }
+        };
+    }
+}
@@ -0,0 +1,174 @@
+package io.github.poshjosh.ratelimiter.performance.benchmark;
+
+import io.github.poshjosh.ratelimiter.performance.benchmark.RegistryFixture.Factory;
+import io.github.poshjosh.ratelimiter.performance.benchmark.RegistryFixture.KeyType;
+import io.github.poshjosh.ratelimiter.performance.benchmark.RegistryFixture.TreeShape;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how acquiring permits scales with the number of threads, for different
+ * distributions of keys across threads.
+ *
+ * <p>Reports throughput, as well as the latency distribution (including tail percentiles)
+ * of each call. Run via: {@code mvn verify -P benchmark -Dbenchmark.include=ContentionBenchmark}</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ContentionBenchmark {
+
+    public enum KeyPattern {
+        /** All threads acquire from the same key */
+        SAME,
+        /**
+         * Each thread acquires from keys not used by any other thread. The keys are the ids of
+         * a properties only (i.e flat) tree, so they share no group or class limiters.
+         * Thus, the key type parameter does not apply.
+         */
+        DISJOINT,
+        /** Threads acquire from keys chosen by a Zipf distribution, i.e. a few keys are hot */
+        ZIPF
+    }
+
+    private static final int CLASS_COUNT = 100;
+
+    @Param
+    private KeyPattern keyPattern;
+
+    @Param({"STRING", "METHOD"})
+    private KeyType keyType;
+
+    private RegistryFixture fixture;
+
+    private Object[] keys;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        if (keyPattern == KeyPattern.DISJOINT) {
+            fixture = RegistryFixture.of(TreeShape.PROPERTIES, Factory.DEFAULT, CLASS_COUNT);
+            keys = fixture.getKeys(KeyType.STRING, CLASS_COUNT);
+        } else {
+            fixture = RegistryFixture.of(TreeShape.MIXED, Factory.DEFAULT, CLASS_COUNT);
+            keys = fixture.getKeys(keyType, CLASS_COUNT);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadKeys {
+        private static final int SEQUENCE_LENGTH = 4096;
+        private static final double ZIPF_EXPONENT = 1.0;
+        private Object[] sequence;
+        private int index;
+
+        @Setup(Level.Trial)
+        public void setUp(ContentionBenchmark benchmark, ThreadParams threadParams) {
+            final Object[] keys = benchmark.keys;
+            final int threadIndex = threadParams.getThreadIndex();
+            final int threadCount = threadParams.getThreadCount();
+            switch (benchmark.keyPattern) {
+                case SAME:
+                    sequence = new Object[]{keys[0]};
+                    break;
+                case DISJOINT:
+                    if (keys.length < threadCount) {
+                        throw new IllegalStateException(
+                                "Keys: " + keys.length + " < threads: " + threadCount);
+                    }
+                    final int slice = keys.length / threadCount;
+                    sequence = Arrays.copyOfRange(keys, threadIndex * slice, (threadIndex + 1) * slice);
+                    break;
+                case ZIPF:
+                    sequence = zipfSequence(keys, new Random(threadIndex));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unexpected: " + benchmark.keyPattern);
+            }
+        }
+
+        Object next() {
+            final Object key = sequence[index];
+            index = index + 1 == sequence.length ? 0 : index + 1;
+            return key;
+        }
+
+        private static Object[] zipfSequence(Object[] keys, Random random) {
+            final double[] cumulative = new double[keys.length];
+            double sum = 0;
+            for (int rank = 0; rank < keys.length; rank++) {
+                sum += 1 / Math.pow(rank + 1, ZIPF_EXPONENT);
+                cumulative[rank] = sum;
+            }
+            final Object[] sequence = new Object[SEQUENCE_LENGTH];
+            for (int i = 0; i < SEQUENCE_LENGTH; i++) {
+                final int found = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+                sequence[i] = keys[Math.min(found < 0 ? -found - 1 : found, keys.length - 1)];
+            }
+            return sequence;
+        }
+    }
+
+    @Benchmark @Threads(1)
+    public boolean tryAcquire_threads01(ThreadKeys threadKeys) {
+        return tryAcquire(threadKeys);
+    }
+
+    @Benchmark @Threads(2)
+    public boolean tryAcquire_threads02(ThreadKeys threadKeys) {
+        return tryAcquire(threadKeys);
+    }
+
+    @Benchmark @Threads(4)
+    public boolean tryAcquire_threads04(ThreadKeys threadKeys) {
+        return tryAcquire(threadKeys);
+    }
+
+    @Benchmark @Threads(8)
+    public boolean tryAcquire_threads08(ThreadKeys threadKeys) {
+        return tryAcquire(threadKeys);
+    }
+
+    @Benchmark @Threads(16)
+    public boolean tryAcquire_threads16(ThreadKeys threadKeys) {
+        return tryAcquire(threadKeys);
+    }
+
+    @Benchmark @Threads(32)
+    public boolean tryAcquire_threads32(ThreadKeys threadKeys) {
+        return tryAcquire(threadKeys);
+    }
+
+    @Benchmark @Threads(64)
+    public boolean tryAcquire_threads64(ThreadKeys threadKeys) {
+        return tryAcquire(threadKeys);
+    }
+
+    /**
+     * Threads which only try to acquire, competing with threads which wait to acquire.
+     */
+    @Benchmark @Group("mixed") @GroupThreads(12)
+    public boolean mixed_tryAcquire(ThreadKeys threadKeys) {
+        return tryAcquire(threadKeys);
+    }
+
+    @Benchmark @Group("mixed") @GroupThreads(4)
+    public double mixed_acquire(ThreadKeys threadKeys) {
+        return fixture.getRateLimiter(threadKeys.next()).acquire();
+    }
+
+    private boolean tryAcquire(ThreadKeys threadKeys) {
+        return fixture.getRateLimiter(threadKeys.next()).tryAcquire();
+    }
+}
@@ -0,0 +1,70 @@
+package io.github.poshjosh.ratelimiter.performance.benchmark;
+
+import io.github.poshjosh.ratelimiter.performance.benchmark.RegistryFixture.Factory;
+import io.github.poshjosh.ratelimiter.performance.benchmark.RegistryFixture.KeyType;
+import io.github.poshjosh.ratelimiter.performance.benchmark.RegistryFixture.TreeShape;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of resolving a rate limiter for a key, and acquiring a permit from it.
+ *
+ * <p>Run via: {@code mvn verify -P benchmark}. Results are written in JSON format to
+ * {@code target/jmh-result.json}.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RateLimiterRegistryBenchmark {
+
+    @Param({"100", "1000"})
+    private int classCount;
+
+    @Param
+    private TreeShape treeShape;
+
+    @Param
+    private KeyType keyType;
+
+    @Param
+    private Factory factory;
+
+    private RegistryFixture fixture;
+
+    private Object[] keys;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int index;
+        Object next(Object[] keys) {
+            final Object key = keys[index];
+            index = index + 1 == keys.length ? 0 : index + 1;
+            return key;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixture = RegistryFixture.of(treeShape, factory, classCount);
+        keys = fixture.getKeys(keyType, classCount);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public boolean tryAcquire(Cursor cursor) {
+        return fixture.getRateLimiter(cursor.next(keys)).tryAcquire();
+    }
+
+    @Benchmark
+    public double acquire(Cursor cursor) {
+        return fixture.getRateLimiter(cursor.next(keys)).acquire();
+    }
+}
@@ -0,0 +1,96 @@
+package io.github.poshjosh.ratelimiter.performance.benchmark;
+
+import io.github.poshjosh.ratelimiter.RateLimiterContext;
+import io.github.poshjosh.ratelimiter.RateLimiterRegistries;
+import io.github.poshjosh.ratelimiter.RateLimiterRegistry;
+import io.github.poshjosh.ratelimiter.bandwidths.BandwidthFactories;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time taken, the memory allocated and the memory retained, by
+ * {@link RateLimiterRegistries#of(RateLimiterContext)}, for increasing numbers of
+ * annotated classes.
+ *
+ * <p>The classes are generated and compiled in-process. They include rate groups,
+ * meta-annotations, super class inheritance and rate conditions. Allocated and retained
+ * bytes are reported as secondary results. Run via:
+ * {@code mvn verify -P benchmark -Dbenchmark.include=RegistrationBenchmark}</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class RegistrationBenchmark {
+
+    @Param({"1000", "10000", "50000"})
+    private int classCount;
+
+    private AnnotatedClassGenerator classGenerator;
+
+    private RateLimiterContext<Object> context;
+
+    private RateLimiterRegistry<Object> registry;
+
+    private long heapUsedBefore;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Memory {
+        public long allocatedBytes;
+        public long retainedBytes;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        classGenerator = new AnnotatedClassGenerator(
+                "io.github.poshjosh.ratelimiter.performance.benchmark.generated",
+                RegistryFixture.PERMITS_PER_SECOND, BandwidthFactories.Default.class)
+                .withHierarchies();
+        final List<Class<?>> classes = classGenerator.generate(classCount);
+        context = RateLimiterContext.builder().classes(classes.toArray(new Class[0])).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        classGenerator.close();
+    }
+
+    @Setup(Level.Invocation)
+    public void collectGarbage() {
+        registry = null;
+        heapUsedBefore = heapUsedAfterGc();
+    }
+
+    @Benchmark
+    public RateLimiterRegistry<Object> register(Memory memory) {
+        final long allocatedBefore = allocatedBytes();
+        registry = RateLimiterRegistries.of(context);
+        memory.allocatedBytes = allocatedBytes() - allocatedBefore;
+        return registry;
+    }
+
+    @TearDown(Level.Invocation)
+    public void measureRetained(Memory memory) {
+        memory.retainedBytes = heapUsedAfterGc() - heapUsedBefore;
+        registry = null;
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean())
+                .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static long heapUsedAfterGc() {
+        final MemoryMXBean memoryMXBean = ManagementFactory.getMemoryMXBean();
+        memoryMXBean.gc();
+        memoryMXBean.gc();
+        return memoryMXBean.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,138 @@
+package io.github.poshjosh.ratelimiter.performance.benchmark;
+
+import io.github.poshjosh.ratelimiter.RateLimiter;
+import io.github.poshjosh.ratelimiter.RateLimiterContext;
+import io.github.poshjosh.ratelimiter.RateLimiterRegistries;
+import io.github.poshjosh.ratelimiter.RateLimiterRegistry;
+import io.github.poshjosh.ratelimiter.RateLimiters;
+import io.github.poshjosh.ratelimiter.annotation.RateId;
+import io.github.poshjosh.ratelimiter.annotations.Rate;
+import io.github.poshjosh.ratelimiter.bandwidths.BandwidthFactories;
+import io.github.poshjosh.ratelimiter.bandwidths.BandwidthFactory;
+import io.github.poshjosh.ratelimiter.model.Rates;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * A {@link RateLimiterRegistry} over a generated tree, together with keys which the
+ * registry could be queried with.
+ *
+ * <p>Rates are high enough (1 billion permits per second), that {@code acquire} hardly
+ * ever waits. Thus benchmarks measure the overhead of rate limiting, not the wait.</p>
+ *
+ * <p>Close the fixture when done, to delete the generated classes.</p>
+ */
+public final class RegistryFixture implements AutoCloseable {
+
+    public static final long PERMITS_PER_SECOND = 1_000_000_000L;
+
+    public enum TreeShape { PROPERTIES, ANNOTATIONS, MIXED }
+
+    /**
+     * For properties only trees, Class and Method keys are not registered,
+     * so they measure the cost of not finding a match.
+     */
+    public enum KeyType { STRING, CLASS, METHOD }
+
+    public enum Factory {
+        DEFAULT(BandwidthFactories.Default.class),
+        ALL_OR_NOTHING(BandwidthFactories.AllOrNothing.class),
+        SMOOTH_BURSTY(BandwidthFactories.SmoothBursty.class),
+        SMOOTH_WARMING_UP(BandwidthFactories.SmoothWarmingUp.class);
+        private final Class<? extends BandwidthFactory> factoryClass;
+        Factory(Class<? extends BandwidthFactory> factoryClass) {
+            this.factoryClass = factoryClass;
+        }
+        public Class<? extends BandwidthFactory> getFactoryClass() {
+            return factoryClass;
+        }
+    }
+
+    public static RegistryFixture of(TreeShape treeShape, Factory factory, int classCount) {
+        return new RegistryFixture(treeShape, factory, classCount);
+    }
+
+    private final AnnotatedClassGenerator classGenerator;
+    private final List<Class<?>> classes;
+    private final List<Method> methods;
+    private final List<String> ids;
+    private final RateLimiterContext<Object> context;
+    private final RateLimiterRegistry<Object> registry;
+
+    private RegistryFixture(TreeShape treeShape, Factory factory, int classCount) {
+        this.classGenerator = new AnnotatedClassGenerator(
+                "io.github.poshjosh.ratelimiter.performance.benchmark.generated",
+                PERMITS_PER_SECOND, factory.getFactoryClass());
+        this.classes = classGenerator.generate(classCount);
+        this.methods = new ArrayList<>();
+        for (Class<?> clazz : classes) {
+            for (Method method : clazz.getDeclaredMethods()) {
+                if (method.getAnnotation(Rate.class) != null) {
+                    methods.add(method);
+                }
+            }
+        }
+        this.ids = new ArrayList<>();
+        final RateLimiterContext.Builder<Object> builder = RateLimiterContext.builder();
+        if (treeShape != TreeShape.PROPERTIES) {
+            builder.classes(classes.toArray(new Class[0]));
+            methods.forEach(method -> ids.add(RateId.of(method)));
+        }
+        if (treeShape != TreeShape.ANNOTATIONS) {
+            final Map<String, Rates> rates = new LinkedHashMap<>();
+            for (int i = 0; i < classCount; i++) {
+                final String id = "/api/v1/resource" + i;
+                rates.put(id, Rates.of(io.github.poshjosh.ratelimiter.model.Rate.of(
+                        PERMITS_PER_SECOND, Duration.ofSeconds(1), "", factory.getFactoryClass())));
+                ids.add(id);
+            }
+            builder.rates(rates);
+        }
+        this.context = builder.build();
+        this.registry = RateLimiterRegistries.of(context);
+    }
+
+    public RateLimiterContext<Object> getContext() {
+        return context;
+    }
+
+    public RateLimiterRegistry<Object> getRegistry() {
+        return registry;
+    }
+
+    /**
+     * @param keyType The type of keys to return
+     * @param seed The seed for shuffling the keys, so that consecutive keys are not adjacent in the tree
+     * @return The keys of the specified type
+     */
+    public Object[] getKeys(KeyType keyType, long seed) {
+        final List<Object> keys;
+        switch (keyType) {
+            case STRING: keys = new ArrayList<>(ids); break;
+            case CLASS: keys = new ArrayList<>(classes); break;
+            case METHOD: keys = new ArrayList<>(methods); break;
+            default: throw new IllegalArgumentException("Unexpected key type: " + keyType);
+        }
+        Collections.shuffle(keys, new Random(seed));
+        return keys.toArray();
+    }
+
+    public RateLimiter getRateLimiter(Object key) {
+        final Optional<RateLimiter> rateLimiterOptional;
+        if (key instanceof Class) {
+            rateLimiterOptional = registry.getClassRateLimiterOptional((Class<?>)key);
+        } else if (key instanceof Method) {
+            rateLimiterOptional = registry.getMethodRateLimiterOptional((Method)key);
+        } else {
+            rateLimiterOptional = registry.getRateLimiterOptional(key);
+        }
+        return rateLimiterOptional.orElse(RateLimiters.NO_LIMIT);
+    }
+
+    @Override
+    public void close() {
+        classGenerator.close();
+    }
+}
@@ -0,0 +1,76 @@
+package io.github.poshjosh.ratelimiter.performance.benchmark;
+
+import io.github.poshjosh.ratelimiter.RateLimiter;
+import io.github.poshjosh.ratelimiter.RateLimiterContext;
+import io.github.poshjosh.ratelimiter.RateLimiterRegistries;
+import io.github.poshjosh.ratelimiter.model.Rate;
+import io.github.poshjosh.ratelimiter.model.RateConfig;
+import io.github.poshjosh.ratelimiter.model.Rates;
+import io.github.poshjosh.ratelimiter.util.Matcher;
+import io.github.poshjosh.ratelimiter.util.MatcherProvider;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares a tree whose nodes share a single (expensive) condition, with an equivalent
+ * tree whose nodes each have a distinct condition. Identical conditions are interned
+ * into one matcher, which is evaluated only once per traversal.
+ *
+ * <p>Run via: {@code mvn verify -P benchmark -Dbenchmark.include=SharedConditionBenchmark}</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SharedConditionBenchmark {
+
+    private static final int NODE_COUNT = 200;
+
+    @Param({"true", "false"})
+    private boolean shared;
+
+    private RateLimiter rateLimiter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        final Map<String, Rates> rates = new LinkedHashMap<>();
+        for (int i = 0; i < NODE_COUNT; i++) {
+            // Always true; finding deadlocked threads is relatively expensive.
+            final String condition = shared ?
+                    "jvm.thread.count.deadlocked < 1" : "jvm.thread.count.deadlocked < " + (i + 1);
+            rates.put("resource-" + i, Rates.of(condition, Rate.ofSeconds(Long.MAX_VALUE)));
+        }
+        final RateLimiterContext<String> context = RateLimiterContext.<String>builder()
+                .rates(rates).matcherProvider(new UnboundMatcherProvider()).build();
+        // The last node, so that every node is visited.
+        rateLimiter = RateLimiterRegistries.of(context).getRateLimiter("resource-" + (NODE_COUNT - 1));
+    }
+
+    @Benchmark
+    public boolean tryAcquire() {
+        return rateLimiter.tryAcquire();
+    }
+
+    /**
+     * Main matchers are not declared bound to the rate source, so that the nodes are not
+     * pre-selected by rate id, and each node's condition is matched.
+     */
+    private static final class UnboundMatcherProvider implements MatcherProvider<String> {
+        private final MatcherProvider<String> delegate = MatcherProvider.ofDefaults();
+        @Override public Matcher<String> createMainMatcher(RateConfig rateConfig) {
+            return delegate.createMainMatcher(rateConfig);
+        }
+        @Override public List<Matcher<String>> createLimitMatchers(RateConfig rateConfig) {
+            return delegate.createLimitMatchers(rateConfig);
+        }
+        @Override public void traverse(String input, Runnable traversal) {
+            delegate.traverse(input, traversal);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package io.github.poshjosh.ratelimiter.performance.benchmark;
+
+import io.github.poshjosh.ratelimiter.util.TimerWheel;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.*;
+
+/**
+ * Compares a {@link TimerWheel} with a {@link ScheduledExecutorService}, for completing many
+ * concurrent waiters (as would wait for delayed permits) from a single timer thread.
+ *
+ * <p>Each invocation schedules the configured number of waiters, with delays spread over
+ * 100 milliseconds, then waits for all of them to run.
+ * Run via: {@code mvn verify -P benchmark -Dbenchmark.include=TimerWheelBenchmark}</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TimerWheelBenchmark {
+
+    private static final int MAX_DELAY_MILLIS = 100;
+
+    @Param({"1000", "100000"})
+    private int waiters;
+
+    private TimerWheel timerWheel;
+
+    private ScheduledExecutorService scheduledExecutor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        timerWheel = TimerWheel.ofDefaults();
+        scheduledExecutor = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        timerWheel.close();
+        scheduledExecutor.shutdownNow();
+    }
+
+    @Benchmark
+    public void timerWheel() throws InterruptedException {
+        final CountDownLatch latch = new CountDownLatch(waiters);
+        for (int i = 0; i < waiters; i++) {
+            timerWheel.schedule(latch::countDown, i % MAX_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+        }
+        latch.await();
+    }
+
+    @Benchmark
+    public void scheduledExecutorService() throws InterruptedException {
+        final CountDownLatch latch = new CountDownLatch(waiters);
+        for (int i = 0; i < waiters; i++) {
+            scheduledExecutor.schedule(latch::countDown, i % MAX_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+        }
+        latch.await();
+    }
+}
@@ -0,0 +1,66 @@
+package io.github.poshjosh.ratelimiter.performance.simulation;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+public final class SimulationReport {
+
+    private final int decisions;
+    private final int accepted;
+    private final long[] sortedWaitMicros;
+    private final long simulatedNanos;
+    private final long wallNanos;
+    private final long cpuNanos;
+
+    SimulationReport(int decisions, int accepted, long[] waitMicros,
+            long simulatedNanos, long wallNanos, long cpuNanos) {
+        this.decisions = decisions;
+        this.accepted = accepted;
+        this.sortedWaitMicros = waitMicros.clone();
+        Arrays.sort(this.sortedWaitMicros);
+        this.simulatedNanos = simulatedNanos;
+        this.wallNanos = wallNanos;
+        this.cpuNanos = cpuNanos;
+    }
+
+    public int getDecisions() { return decisions; }
+
+    public int getAccepted() { return accepted; }
+
+    public double getAcceptanceRate() {
+        return decisions == 0 ? 0 : (double)accepted / decisions;
+    }
+
+    /**
+     * @param percentile Between 0 and 100
+     * @return The wait time, at the percentile given, of the accepted requests
+     */
+    public long getWaitMicrosAtPercentile(double percentile) {
+        if (sortedWaitMicros.length == 0) {
+            return 0;
+        }
+        final int index = (int)Math.ceil(percentile / 100 * sortedWaitMicros.length) - 1;
+        return sortedWaitMicros[Math.max(0, Math.min(sortedWaitMicros.length - 1, index))];
+    }
+
+    /** @return The CPU time spent per decision; or -1, if CPU time is not supported. */
+    public long getCpuNanosPerDecision() {
+        return cpuNanos < 0 || decisions == 0 ? -1 : cpuNanos / decisions;
+    }
+
+    /** @return How many times faster than real time the trace was replayed */
+    public double getSpeedup() {
+        return wallNanos == 0 ? Double.POSITIVE_INFINITY : (double)simulatedNanos / wallNanos;
+    }
+
+    @Override public String toString() {
+        return "SimulationReport{decisions=" + decisions
+                + ", acceptanceRate=" + String.format("%.4f", getAcceptanceRate())
+                + ", waitMicros{p50=" + getWaitMicrosAtPercentile(50)
+                + ", p99=" + getWaitMicrosAtPercentile(99)
+                + ", max=" + getWaitMicrosAtPercentile(100)
+                + "}, cpuNanosPerDecision=" + getCpuNanosPerDecision()
+                + ", simulated=" + TimeUnit.NANOSECONDS.toMillis(simulatedNanos) + "ms"
+                + ", speedup=" + String.format("%.1f", getSpeedup()) + "x}";
+    }
+}
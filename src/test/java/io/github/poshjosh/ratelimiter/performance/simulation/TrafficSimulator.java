@@ -0,0 +1,83 @@
+package io.github.poshjosh.ratelimiter.performance.simulation;
+
+import io.github.poshjosh.ratelimiter.RateLimiter;
+import io.github.poshjosh.ratelimiter.RateLimiterRegistry;
+import io.github.poshjosh.ratelimiter.util.Ticker;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Replays a {@link TrafficTrace} against a {@link RateLimiterRegistry}, whose time is kept
+ * by a {@link VirtualTicker}. Each request is decided via {@code tryAcquire(permits, timeout)};
+ * the wait of a request is the time the rate limiter would have slept for it.
+ *
+ * <p>Usage:</p>
+ * <pre>
+ * SimulationReport report = TrafficSimulator.of(ticker -&gt; RateLimiterRegistries.of(
+ *         RateLimiterContext.&lt;String&gt;builder().rates(rates).ticker(ticker).build()))
+ *         .run(TrafficTrace.poisson(keys, 100, 3600, 1));
+ * </pre>
+ */
+public final class TrafficSimulator {
+
+    // Traces start at 0, the ticker starts a little later so that 0 never means "now".
+    private static final long ORIGIN_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    public static TrafficSimulator of(Function<Ticker, RateLimiterRegistry<String>> registryFactory) {
+        return new TrafficSimulator(registryFactory, 0, TimeUnit.MILLISECONDS);
+    }
+
+    private final Function<Ticker, RateLimiterRegistry<String>> registryFactory;
+    private final long timeout;
+    private final TimeUnit timeUnit;
+
+    private TrafficSimulator(Function<Ticker, RateLimiterRegistry<String>> registryFactory,
+            long timeout, TimeUnit timeUnit) {
+        this.registryFactory = Objects.requireNonNull(registryFactory);
+        this.timeout = timeout;
+        this.timeUnit = Objects.requireNonNull(timeUnit);
+    }
+
+    /**
+     * @param timeout How long each request may wait for permits
+     * @param timeUnit The unit of the timeout
+     * @return A simulator whose requests may wait up to the timeout given
+     */
+    public TrafficSimulator withTimeout(long timeout, TimeUnit timeUnit) {
+        return new TrafficSimulator(registryFactory, timeout, timeUnit);
+    }
+
+    public SimulationReport run(TrafficTrace trace) {
+        final VirtualTicker ticker = new VirtualTicker(ORIGIN_NANOS);
+        final RateLimiterRegistry<String> registry = registryFactory.apply(ticker);
+        final int size = trace.size();
+        final long [] waitMicros = new long[size];
+        int accepted = 0;
+        final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        final boolean cpuTimeSupported = threadMXBean.isCurrentThreadCpuTimeSupported();
+        final long cpuStart = cpuTimeSupported ? threadMXBean.getCurrentThreadCpuTime() : 0;
+        final long wallStart = System.nanoTime();
+        for (TrafficTrace.Request request : trace.getRequests()) {
+            ticker.advanceTo(ORIGIN_NANOS + request.getTimestampNanos());
+            final RateLimiter rateLimiter = registry.getRateLimiterOrUnlimited(request.getKey());
+            if (rateLimiter.tryAcquire(request.getPermits(), timeout, timeUnit)) {
+                waitMicros[accepted++] = ticker.takeSleptMicros();
+            } else {
+                ticker.takeSleptMicros();
+            }
+        }
+        final long wallNanos = System.nanoTime() - wallStart;
+        final long cpuNanos = cpuTimeSupported ?
+                threadMXBean.getCurrentThreadCpuTime() - cpuStart : -1;
+        final long simulatedNanos = size == 0 ? 0 :
+                trace.getRequests().get(size - 1).getTimestampNanos();
+        final long [] acceptedWaitMicros = new long[accepted];
+        System.arraycopy(waitMicros, 0, acceptedWaitMicros, 0, accepted);
+        return new SimulationReport(size, accepted, acceptedWaitMicros,
+                simulatedNanos, wallNanos, cpuNanos);
+    }
+}
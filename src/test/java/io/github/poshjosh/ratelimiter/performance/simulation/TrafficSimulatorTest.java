@@ -0,0 +1,76 @@
+package io.github.poshjosh.ratelimiter.performance.simulation;
+
+import io.github.poshjosh.ratelimiter.RateLimiterContext;
+import io.github.poshjosh.ratelimiter.RateLimiterRegistries;
+import io.github.poshjosh.ratelimiter.RateLimiterRegistry;
+import io.github.poshjosh.ratelimiter.model.Rate;
+import io.github.poshjosh.ratelimiter.model.Rates;
+import io.github.poshjosh.ratelimiter.performance.benchmark.RegistryFixture;
+import io.github.poshjosh.ratelimiter.util.Ticker;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrafficSimulatorTest {
+
+    private static final String KEY = "simulated-resource";
+
+    @ParameterizedTest
+    @EnumSource(RegistryFixture.Factory.class)
+    void givenTwiceTheAllowedRate_shouldAcceptAboutHalf(RegistryFixture.Factory factory) {
+        // An hour of traffic; replayed without sleeping, and thus much faster than real time.
+        final SimulationReport report = TrafficSimulator.of(ticker -> givenRegistry(ticker, factory))
+                .run(TrafficTrace.constant(KEY, 10, 3600));
+        System.out.println(factory + " " + report);
+        assertEquals(36_000, report.getDecisions());
+        assertEquals(0.5, report.getAcceptanceRate(), 0.05, report.toString());
+        assertTrue(report.getSpeedup() > 1, report.toString());
+    }
+
+    @Test
+    void givenTimeout_shouldReportWaitTimes() {
+        final SimulationReport report = TrafficSimulator
+                .of(ticker -> givenRegistry(ticker, RegistryFixture.Factory.DEFAULT))
+                .withTimeout(1, TimeUnit.SECONDS)
+                .run(TrafficTrace.constant(KEY, 10, 60));
+        assertTrue(report.getWaitMicrosAtPercentile(99) > 0, report.toString());
+        assertTrue(report.getWaitMicrosAtPercentile(100) <= TimeUnit.SECONDS.toMicros(1),
+                report.toString());
+    }
+
+    @Test
+    void givenRecordedTrace_shouldReplayInOrderOfTime() throws IOException {
+        final TrafficTrace trace = TrafficTrace.read(new StringReader(
+                "# timestampMillis,key,permits\n" +
+                "1000," + KEY + "\n" +
+                "0," + KEY + ",1\n" +
+                "\n" +
+                "100," + KEY + ",1\n"));
+        assertEquals(Arrays.asList(0L, 100L, 1000L), trace.getRequests().stream()
+                .map(request -> TimeUnit.NANOSECONDS.toMillis(request.getTimestampNanos()))
+                .collect(Collectors.toList()));
+        final SimulationReport report = TrafficSimulator
+                .of(ticker -> givenRegistry(ticker, RegistryFixture.Factory.SMOOTH_BURSTY)).run(trace);
+        assertEquals(3, report.getDecisions());
+        // At 5 permits/second, the request 100 millis after the first is denied
+        assertEquals(2, report.getAccepted(), report.toString());
+    }
+
+    private RateLimiterRegistry<String> givenRegistry(Ticker ticker, RegistryFixture.Factory factory) {
+        final Rate rate = Rate.of(5, Duration.ofSeconds(1), "", factory.getFactoryClass());
+        return RateLimiterRegistries.of(RateLimiterContext.<String>builder()
+                .rates(Collections.singletonMap(KEY, Rates.of(rate)))
+                .ticker(ticker)
+                .build());
+    }
+}
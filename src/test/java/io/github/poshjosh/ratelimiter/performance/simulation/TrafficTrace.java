@@ -0,0 +1,122 @@
+package io.github.poshjosh.ratelimiter.performance.simulation;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Requests, ordered by time of arrival. Either recorded, or synthetic.
+ *
+ * <p>Recorded traces are read from lines of format: {@code timestampMillis,key[,permits]}.
+ * Blank lines, and lines starting with {@code #} are ignored.</p>
+ */
+public final class TrafficTrace {
+
+    public static final class Request {
+        private final long timestampNanos;
+        private final String key;
+        private final int permits;
+        public Request(long timestampNanos, String key, int permits) {
+            this.timestampNanos = timestampNanos;
+            this.key = Objects.requireNonNull(key);
+            this.permits = permits;
+        }
+        public long getTimestampNanos() { return timestampNanos; }
+        public String getKey() { return key; }
+        public int getPermits() { return permits; }
+        @Override public String toString() {
+            return "Request{timestampNanos=" + timestampNanos + ", key=" + key
+                    + ", permits=" + permits + '}';
+        }
+    }
+
+    public static TrafficTrace read(Reader reader) throws IOException {
+        final List<Request> requests = new ArrayList<>();
+        final BufferedReader bufferedReader = new BufferedReader(reader);
+        String line;
+        int lineNumber = 0;
+        while ((line = bufferedReader.readLine()) != null) {
+            ++lineNumber;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            final String [] parts = line.split(",");
+            if (parts.length < 2 || parts.length > 3) {
+                throw new IllegalArgumentException("Invalid line " + lineNumber + ": " + line);
+            }
+            requests.add(new Request(
+                    TimeUnit.MILLISECONDS.toNanos(Long.parseLong(parts[0].trim())),
+                    parts[1].trim(),
+                    parts.length == 3 ? Integer.parseInt(parts[2].trim()) : 1));
+        }
+        return of(requests);
+    }
+
+    public static TrafficTrace of(List<Request> requests) {
+        final List<Request> sorted = new ArrayList<>(requests);
+        sorted.sort(Comparator.comparingLong(Request::getTimestampNanos));
+        return new TrafficTrace(sorted);
+    }
+
+    /**
+     * @return Requests for the key, evenly spaced at the rate given, for the duration given.
+     */
+    public static TrafficTrace constant(String key, double requestsPerSecond, long durationSeconds) {
+        final long intervalNanos = (long)(TimeUnit.SECONDS.toNanos(1) / requestsPerSecond);
+        final long endNanos = TimeUnit.SECONDS.toNanos(durationSeconds);
+        final List<Request> requests = new ArrayList<>();
+        for (long t = 0; t < endNanos; t += intervalNanos) {
+            requests.add(new Request(t, key, 1));
+        }
+        return new TrafficTrace(requests);
+    }
+
+    /**
+     * @return Requests arriving as a Poisson process at the mean rate given, for the duration
+     * given; each for a key chosen at random.
+     */
+    public static TrafficTrace poisson(List<String> keys, double requestsPerSecond,
+            long durationSeconds, long seed) {
+        final Random random = new Random(seed);
+        final double meanIntervalNanos = TimeUnit.SECONDS.toNanos(1) / requestsPerSecond;
+        final long endNanos = TimeUnit.SECONDS.toNanos(durationSeconds);
+        final List<Request> requests = new ArrayList<>();
+        long t = 0;
+        while (true) {
+            t += (long)(-Math.log(1 - random.nextDouble()) * meanIntervalNanos);
+            if (t >= endNanos) {
+                break;
+            }
+            requests.add(new Request(t, keys.get(random.nextInt(keys.size())), 1));
+        }
+        return new TrafficTrace(requests);
+    }
+
+    private final List<Request> requests;
+
+    private TrafficTrace(List<Request> requests) {
+        this.requests = Collections.unmodifiableList(requests);
+    }
+
+    /** @return A trace of the requests of this and the other trace, ordered by time */
+    public TrafficTrace merge(TrafficTrace other) {
+        final List<Request> merged = new ArrayList<>(requests);
+        merged.addAll(other.requests);
+        return of(merged);
+    }
+
+    public List<Request> getRequests() {
+        return requests;
+    }
+
+    public int size() {
+        return requests.size();
+    }
+
+    @Override public String toString() {
+        return "TrafficTrace{size=" + requests.size() + '}';
+    }
+}
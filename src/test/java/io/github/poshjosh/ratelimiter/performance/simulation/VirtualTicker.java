@@ -0,0 +1,52 @@
+package io.github.poshjosh.ratelimiter.performance.simulation;
+
+import io.github.poshjosh.ratelimiter.util.Ticker;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A ticker whose time is set, rather than read from a clock. Sleeping does not advance
+ * the time, since other requests of a replayed trace arrive during the sleep; rather, the
+ * time slept is recorded for reporting. Not thread-safe.
+ */
+public final class VirtualTicker implements Ticker {
+
+    private long nanos;
+    private long sleptMicros;
+
+    public VirtualTicker(long startNanos) {
+        this.nanos = startNanos;
+    }
+
+    public void advanceTo(long nanos) {
+        if (nanos < this.nanos) {
+            throw new IllegalArgumentException(
+                    "Time may not go backwards, from: " + this.nanos + ", to: " + nanos);
+        }
+        this.nanos = nanos;
+    }
+
+    /** @return The micros slept since the last call to this method */
+    public long takeSleptMicros() {
+        final long result = sleptMicros;
+        sleptMicros = 0;
+        return result;
+    }
+
+    @Override
+    public long elapsedNanos() {
+        return nanos;
+    }
+
+    @Override
+    public void sleepMicrosWithoutInterruption(long micros) {
+        if (micros > 0) {
+            sleptMicros += micros;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "VirtualTicker{elapsed=" + TimeUnit.NANOSECONDS.toMillis(nanos) + "ms}";
+    }
+}
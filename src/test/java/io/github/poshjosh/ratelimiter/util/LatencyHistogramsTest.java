@@ -0,0 +1,88 @@
+package io.github.poshjosh.ratelimiter.util;
+
+import io.github.poshjosh.ratelimiter.RateLimiter;
+import io.github.poshjosh.ratelimiter.RateLimiterContext;
+import io.github.poshjosh.ratelimiter.RateLimiterMetrics;
+import io.github.poshjosh.ratelimiter.RateLimiterRegistries;
+import io.github.poshjosh.ratelimiter.model.Rate;
+import io.github.poshjosh.ratelimiter.model.Rates;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramsTest {
+
+    @Test
+    void bucketOf_shouldReturnBucketWhoseBoundsContainValue() {
+        final Random random = new Random(7);
+        for (int i = 0; i < 100_000; i++) {
+            final long value = (random.nextLong() >>> 1) >>> random.nextInt(63);
+            final int bucket = LatencyHistograms.bucketOf(value);
+            assertTrue(bucket >= 0 && bucket < LatencyHistograms.BUCKETS, "Bucket: " + bucket);
+            assertTrue(LatencyHistograms.lowerBoundOf(bucket) <= value, "Value: " + value);
+            assertTrue(LatencyHistograms.upperBoundOf(bucket) >= value, "Value: " + value);
+        }
+    }
+
+    @Test
+    void bucketBounds_shouldBeWithin25PercentOfEachOther() {
+        for (int bucket = 4; bucket < LatencyHistograms.BUCKETS - 1; bucket++) {
+            final long lower = LatencyHistograms.lowerBoundOf(bucket);
+            final long upper = LatencyHistograms.upperBoundOf(bucket);
+            assertTrue((upper - lower + 1) * 4 <= lower, "Bucket: " + bucket);
+        }
+    }
+
+    @Test
+    void givenNone_shouldRecordNothing() {
+        final LatencyHistograms histograms = LatencyHistograms.NONE;
+        histograms.record(LatencyHistograms.Phase.MATCH, histograms.startNanos());
+        assertEquals(0, histograms.snapshot(LatencyHistograms.Phase.MATCH).getTotalCount());
+    }
+
+    @Test
+    void givenRecordsFromThreadsWhichEnd_shouldRetainAllRecords() throws InterruptedException {
+        final LatencyHistograms histograms = LatencyHistograms.ofDefaults();
+        final Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < 10; j++) {
+                    histograms.record(LatencyHistograms.Phase.STORE, histograms.startNanos());
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(80, histograms.snapshot(LatencyHistograms.Phase.STORE).getTotalCount());
+    }
+
+    @Test
+    void givenHistogramsPerRegistry_tryAcquire_shouldRecordMatchStoreAndReservePhasesOfTheRegistryOnly() {
+        final LatencyHistograms histograms = LatencyHistograms.ofDefaults();
+        final LatencyHistograms other = LatencyHistograms.ofDefaults();
+        final RateLimiter rateLimiter = givenRateLimiter("latency", histograms);
+        givenRateLimiter("other", other);
+        for (int i = 0; i < 10; i++) {
+            rateLimiter.tryAcquire();
+        }
+        for (LatencyHistograms.Phase phase : LatencyHistograms.Phase.values()) {
+            assertEquals(0, other.snapshot(phase).getTotalCount());
+            final LatencyHistograms.Snapshot snapshot = histograms.snapshot(phase);
+            assertTrue(snapshot.getTotalCount() > 0, "Snapshot: " + snapshot);
+            assertTrue(snapshot.getValueAtPercentile(50) <= snapshot.getValueAtPercentile(100));
+        }
+    }
+
+    private RateLimiter givenRateLimiter(String id, LatencyHistograms histograms) {
+        final RateLimiterContext<String> context = RateLimiterContext.<String>builder()
+                .rates(Collections.singletonMap(id, Rates.of(Rate.ofSeconds(100))))
+                .metrics(RateLimiterMetrics.ofDefaults(1_000, histograms))
+                .build();
+        return RateLimiterRegistries.of(context).getRateLimiter(id);
+    }
+}
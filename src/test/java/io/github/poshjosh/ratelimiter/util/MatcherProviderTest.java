@@ -11,6 +11,7 @@ import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -99,6 +100,45 @@ class MatcherProviderTest {
         assertEquals(1, matchers.size());
     }
 
+    @Test
+    void traverse_givenNodesSharingACondition_shouldEvaluateTheConditionOnce() {
+        AtomicInteger evaluations = new AtomicInteger();
+        MatcherProvider<String> provider = givenCountingMatcherProvider(evaluations);
+        List<Matcher<String>> matchers = givenMatchersSharingACondition(provider);
+        String key = "test-key";
+        provider.traverse(key, () -> matchers.forEach(matcher -> matcher.match(key)));
+        assertEquals(1, evaluations.get());
+    }
+
+    @Test
+    void givenNodesSharingACondition_outsideTraversal_shouldEvaluateTheConditionPerMatch() {
+        AtomicInteger evaluations = new AtomicInteger();
+        MatcherProvider<String> provider = givenCountingMatcherProvider(evaluations);
+        List<Matcher<String>> matchers = givenMatchersSharingACondition(provider);
+        matchers.forEach(matcher -> matcher.match("test-key"));
+        assertEquals(matchers.size(), evaluations.get());
+    }
+
+    private List<Matcher<String>> givenMatchersSharingACondition(MatcherProvider<String> provider) {
+        String condition = "sys.time.elapsed >= PT0S";
+        return Arrays.asList(
+                provider.createLimitMatchers(givenRateConfigWithConditions("node-a", "", condition)).get(0),
+                provider.createLimitMatchers(givenRateConfigWithConditions("node-b", "", condition)).get(0));
+    }
+
+    private MatcherProvider<String> givenCountingMatcherProvider(AtomicInteger evaluations) {
+        // Counts the evaluations of each condition matcher
+        return MatcherProvider.ofDefaults(new MatcherSampler() {
+            @Override
+            public <INPUT> Matcher<INPUT> sample(String expression, Matcher<INPUT> matcher) {
+                return input -> {
+                    evaluations.incrementAndGet();
+                    return matcher.match(input);
+                };
+            }
+        });
+    }
+
     private RateConfig givenRateConfigWithNoConditions(String nodeName) {
         return givenRateConfigWithConditions(nodeName, "", "");
     }
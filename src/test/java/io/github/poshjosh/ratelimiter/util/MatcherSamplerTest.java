@@ -0,0 +1,96 @@
+package io.github.poshjosh.ratelimiter.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MatcherSamplerTest {
+
+    @Test
+    void getVariables_shouldReturnTheLhsOfEachSubExpression() {
+        assertEquals(Arrays.asList("jvm.memory.available", "sys.property"),
+                DefaultMatcherSampler.getVariables(
+                        "jvm.memory.available < 1GB & sys.property[name] = [a | b]"));
+    }
+
+    @Test
+    void sample_givenInputDependentCondition_shouldReturnSameMatcher() {
+        Matcher<String> matcher = input -> input;
+        Matcher<String> result = givenSampler().sample(
+                "jvm.memory.available < 1GB & web.request.user.role = GUEST", matcher);
+        assertSame(matcher, result);
+    }
+
+    @Test
+    void sample_givenThreadLocalCondition_shouldReturnSameMatcher() {
+        Matcher<String> matcher = input -> input;
+        Matcher<String> result = givenSampler().sample(
+                "jvm.thread.current.state = BLOCKED", matcher);
+        assertSame(matcher, result);
+    }
+
+    @Test
+    void sampledMatcher_shouldNotEvaluateDelegateOnEachMatch() {
+        AtomicInteger invocations = new AtomicInteger();
+        Matcher<String> matcher = input -> {
+            invocations.incrementAndGet();
+            return "matched";
+        };
+        Matcher<String> result = givenSampler().sample("jvm.thread.count > 500", matcher);
+        for (int i = 0; i < 10; i++) {
+            assertEquals("matched", result.match("key"));
+        }
+        assertEquals(1, invocations.get());
+    }
+
+    @Test
+    void sampledMatcher_shouldNotRetainTheMatchInput() {
+        final List<String> inputs = new CopyOnWriteArrayList<>();
+        Matcher<String> matcher = input -> {
+            inputs.add(String.valueOf(input));
+            return "matched";
+        };
+        Matcher<String> result = givenSampler().sample("jvm.thread.count > 500", matcher);
+        assertEquals("matched", result.match("request-1"));
+        assertEquals(Collections.singletonList("null"), inputs);
+    }
+
+    @Test
+    void sample_givenMatcherRejectingNullInput_shouldReturnSameMatcher() {
+        Matcher<String> matcher = input -> Objects.requireNonNull(input);
+        Matcher<String> result = givenSampler().sample("jvm.thread.count > 500", matcher);
+        assertSame(matcher, result);
+    }
+
+    @Test
+    void close_shouldEvaluateSampledMatchersInline() {
+        AtomicInteger invocations = new AtomicInteger();
+        Matcher<String> matcher = input -> {
+            invocations.incrementAndGet();
+            return "matched";
+        };
+        final MatcherSampler sampler = givenSampler();
+        Matcher<String> result = sampler.sample("jvm.thread.count > 500", matcher);
+        sampler.close();
+        result.match("key");
+        result.match("key");
+        assertEquals(3, invocations.get());
+        assertSame(matcher, sampler.sample("jvm.thread.count > 500", matcher));
+    }
+
+    private MatcherSampler givenSampler() {
+        Map<String, Duration> maxStaleness = new HashMap<>();
+        maxStaleness.put("jvm", Duration.ofMinutes(1));
+        return MatcherSampler.of(maxStaleness);
+    }
+}
@@ -0,0 +1,76 @@
+package io.github.poshjosh.ratelimiter.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimerWheelTest {
+
+    @Test
+    void shouldRunTaskNoEarlierThanDelay() throws Exception {
+        try (TimerWheel timerWheel = TimerWheel.ofDefaults()) {
+            final CountDownLatch latch = new CountDownLatch(1);
+            final long start = System.nanoTime();
+            final long[] elapsedMillis = new long[1];
+            timerWheel.schedule(() -> {
+                elapsedMillis[0] = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                latch.countDown();
+            }, 50, TimeUnit.MILLISECONDS);
+            assertTrue(latch.await(1, TimeUnit.SECONDS));
+            assertTrue(elapsedMillis[0] >= 50, "Elapsed millis: " + elapsedMillis[0]);
+        }
+    }
+
+    @Test
+    void givenDelayLongerThanOneRevolution_shouldRunTaskAfterDelay() throws Exception {
+        // 8 buckets of 5 millis, i.e one revolution takes 40 millis
+        try (TimerWheel timerWheel = TimerWheel.of(5, TimeUnit.MILLISECONDS, 8)) {
+            final List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+            final CountDownLatch latch = new CountDownLatch(2);
+            timerWheel.schedule(() -> { order.add(2); latch.countDown(); }, 100, TimeUnit.MILLISECONDS);
+            timerWheel.schedule(() -> { order.add(1); latch.countDown(); }, 20, TimeUnit.MILLISECONDS);
+            assertTrue(latch.await(1, TimeUnit.SECONDS));
+            assertEquals(2, order.size());
+            assertEquals(Integer.valueOf(1), order.get(0));
+        }
+    }
+
+    @Test
+    void givenManyWaiters_shouldRunAll() throws Exception {
+        final int count = 100_000;
+        try (TimerWheel timerWheel = TimerWheel.ofDefaults()) {
+            final CountDownLatch latch = new CountDownLatch(count);
+            for (int i = 0; i < count; i++) {
+                timerWheel.schedule(latch::countDown, i % 100, TimeUnit.MILLISECONDS);
+            }
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+            assertEquals(0, timerWheel.getPendingCount());
+        }
+    }
+
+    @Test
+    void whenClosed_shouldCancelPendingFutures() throws Exception {
+        final TimerWheel timerWheel = TimerWheel.ofDefaults();
+        final FutureTask<Void> task = new FutureTask<>(() -> { }, null);
+        timerWheel.schedule(task, 1, TimeUnit.HOURS);
+        timerWheel.close();
+        assertThrows(CancellationException.class, () -> task.get(1, TimeUnit.SECONDS));
+        assertEquals(0, timerWheel.getPendingCount());
+    }
+
+    @Test
+    void whenClosed_shouldRejectTasks() {
+        final TimerWheel timerWheel = TimerWheel.ofDefaults();
+        timerWheel.close();
+        assertThrows(IllegalStateException.class,
+                () -> timerWheel.schedule(() -> { }, 1, TimeUnit.MILLISECONDS));
+    }
+}
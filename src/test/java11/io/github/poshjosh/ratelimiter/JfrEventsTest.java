@@ -0,0 +1,120 @@
+package io.github.poshjosh.ratelimiter;
+
+import io.github.poshjosh.ratelimiter.model.Rate;
+import io.github.poshjosh.ratelimiter.model.Rates;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JfrEventsTest {
+
+    private static final String ID = "jfr-resource";
+
+    private static final String PREFIX = "io.github.poshjosh.ratelimiter.";
+
+    @Test
+    void givenEventsEnabled_tryAcquire_shouldEmitPermitEvents() throws IOException {
+        final List<RecordedEvent> events = record(() -> {
+            final RateLimiter rateLimiter = givenRegistry(RateLimiterMetrics.NONE.withJfrEvents())
+                    .getRateLimiter(ID);
+            assertTrue(rateLimiter.tryAcquire(1));
+            assertFalse(rateLimiter.tryAcquire(2));
+        });
+
+        final RecordedEvent acquired = single(events, "PermitsAcquired");
+        assertEquals(ID, acquired.getString("nodeId"));
+        assertEquals(ID, acquired.getString("key"));
+        assertEquals(1, acquired.getInt("permits"));
+
+        final RecordedEvent denied = single(events, "PermitsDenied");
+        assertEquals(ID, denied.getString("nodeId"));
+        assertEquals(2, denied.getInt("permits"));
+    }
+
+    @Test
+    void givenMetricsWithoutJfrEvents_tryAcquire_shouldEmitNoPermitEvents() throws IOException {
+        final List<RecordedEvent> events = record(() -> {
+            final RateLimiter rateLimiter = givenRegistry(RateLimiterMetrics.ofDefaults())
+                    .getRateLimiter(ID);
+            assertTrue(rateLimiter.tryAcquire(1));
+            assertFalse(rateLimiter.tryAcquire(2));
+        });
+        assertTrue(events.stream().noneMatch(event -> isNamed(event, "PermitsAcquired")
+                || isNamed(event, "PermitsDenied")));
+    }
+
+    @Test
+    void givenEventsEnabled_createRegistry_shouldEmitBuildPhaseEvents() throws IOException {
+        final List<RecordedEvent> events = record(() -> givenRegistry(RateLimiterMetrics.NONE));
+        final List<String> phases = events.stream()
+                .filter(event -> isNamed(event, "RegistryBuildPhase"))
+                .map(event -> event.getString("phase"))
+                .collect(Collectors.toList());
+        assertTrue(phases.contains("process-properties"), "Phases: " + phases);
+        assertTrue(phases.contains("index-leaf-nodes"), "Phases: " + phases);
+    }
+
+    @Test
+    void givenEventsNotEnabled_tryAcquire_shouldEmitNothing() throws IOException {
+        final List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            recording.start();
+            givenRegistry(RateLimiterMetrics.NONE.withJfrEvents()).getRateLimiter(ID).tryAcquire(1);
+            recording.stop();
+            events = read(recording);
+        }
+        assertTrue(events.stream().noneMatch(event ->
+                event.getEventType().getName().startsWith(PREFIX)));
+    }
+
+    private List<RecordedEvent> record(Runnable runnable) throws IOException {
+        try (Recording recording = new Recording()) {
+            for (String name : new String[]{"PermitsAcquired", "PermitsDenied",
+                    "StoreAccess", "RegistryBuildPhase"}) {
+                recording.enable(PREFIX + name).withoutThreshold();
+            }
+            recording.start();
+            runnable.run();
+            recording.stop();
+            return read(recording);
+        }
+    }
+
+    private List<RecordedEvent> read(Recording recording) throws IOException {
+        final Path file = Files.createTempFile("rate-limiter", ".jfr");
+        try {
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private RecordedEvent single(List<RecordedEvent> events, String name) {
+        final List<RecordedEvent> named = events.stream()
+                .filter(event -> isNamed(event, name)).collect(Collectors.toList());
+        assertEquals(1, named.size(), "Events named: " + name);
+        return named.get(0);
+    }
+
+    private boolean isNamed(RecordedEvent event, String name) {
+        return (PREFIX + name).equals(event.getEventType().getName());
+    }
+
+    private RateLimiterRegistry<String> givenRegistry(RateLimiterMetrics metrics) {
+        final RateLimiterContext<String> context = RateLimiterContext.<String>builder()
+                .rates(Collections.singletonMap(ID, Rates.of(Rate.ofSeconds(1))))
+                .metrics(metrics).build();
+        return RateLimiterRegistries.of(context);
+    }
+}
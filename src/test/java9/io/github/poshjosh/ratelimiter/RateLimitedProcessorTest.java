@@ -0,0 +1,154 @@
+package io.github.poshjosh.ratelimiter;
+
+import io.github.poshjosh.ratelimiter.bandwidths.BandwidthFactories;
+import io.github.poshjosh.ratelimiter.model.Rate;
+import io.github.poshjosh.ratelimiter.util.Tickers;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitedProcessorTest {
+
+    private static final String KEY = "flow";
+
+    @Test
+    void givenBufferPolicy_shouldPassAllItemsAtRate() throws Exception {
+        // Smooth, as the default bandwidth grants all the permits of its window at once.
+        final RateLimitedProcessor<Integer> processor = givenProcessor(
+                Rate.of(10, Duration.ofSeconds(1), "", BandwidthFactories.SmoothBursty.class),
+                RateLimitedProcessor.OverflowPolicy.BUFFER, 8);
+        final RecordingSubscriber<Integer> subscriber = new RecordingSubscriber<>();
+        final long start = System.nanoTime();
+        new ListPublisher<>(1, 2, 3).subscribe(processor);
+        processor.subscribe(subscriber);
+        assertTrue(subscriber.completed.await(2, TimeUnit.SECONDS));
+        final long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertEquals(Arrays.asList(1, 2, 3), subscriber.items);
+        assertTrue(elapsedMillis >= 150, "Elapsed millis: " + elapsedMillis);
+        assertEquals(0, processor.getDroppedCount());
+    }
+
+    @Test
+    void givenDefaultBandwidth_shouldPassAllThePermitsOfTheWindowAtOnce() throws Exception {
+        final RateLimitedProcessor<Integer> processor = RateLimitedProcessor.of(
+                RateLimiterRegistries.of(KEY, Rate.ofSeconds(3)), KEY,
+                RateLimitedProcessor.OverflowPolicy.BUFFER, 8);
+        final RecordingSubscriber<Integer> subscriber = new RecordingSubscriber<>();
+        final long start = System.nanoTime();
+        new ListPublisher<>(1, 2, 3, 4).subscribe(processor);
+        processor.subscribe(subscriber);
+        assertTrue(subscriber.completed.await(3, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList(1, 2, 3, 4), subscriber.items);
+        final long thirdMillis = TimeUnit.NANOSECONDS.toMillis(subscriber.nanos.get(2) - start);
+        final long fourthMillis = TimeUnit.NANOSECONDS.toMillis(subscriber.nanos.get(3) - start);
+        assertTrue(thirdMillis < 500, "Third item after millis: " + thirdMillis);
+        // Passed with the next window, a second after the first.
+        assertTrue(fourthMillis >= 500, "Fourth item after millis: " + fourthMillis);
+    }
+
+    @Test
+    void givenBufferPolicy_shouldBoundUpstreamDemandByBufferSize() throws Exception {
+        final RateLimitedProcessor<Integer> processor = givenProcessor(
+                Rate.ofSeconds(100), RateLimitedProcessor.OverflowPolicy.BUFFER, 2);
+        final ListPublisher<Integer> publisher = new ListPublisher<>(1, 2, 3, 4, 5);
+        publisher.subscribe(processor);
+        final RecordingSubscriber<Integer> subscriber = new RecordingSubscriber<>();
+        processor.subscribe(subscriber);
+        assertTrue(subscriber.completed.await(2, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList(1, 2, 3, 4, 5), subscriber.items);
+        assertEquals(Long.valueOf(2), publisher.requests.get(0));
+        assertTrue(publisher.requests.stream().allMatch(n -> n <= 2), "Requests: " + publisher.requests);
+    }
+
+    @Test
+    void givenDropPolicy_shouldDropItemsArrivingWithoutPermits() throws Exception {
+        final RateLimitedProcessor<Integer> processor = givenProcessor(
+                Rate.ofSeconds(1), RateLimitedProcessor.OverflowPolicy.DROP, 8);
+        final RecordingSubscriber<Integer> subscriber = new RecordingSubscriber<>();
+        processor.subscribe(subscriber);
+        new ListPublisher<>(1, 2, 3, 4, 5).subscribe(processor);
+        assertTrue(subscriber.completed.await(2, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList(1), subscriber.items);
+        assertEquals(4, processor.getDroppedCount());
+    }
+
+    @Test
+    void givenSecondSubscriber_shouldSignalError() {
+        final RateLimitedProcessor<Integer> processor = givenProcessor(
+                Rate.ofSeconds(1), RateLimitedProcessor.OverflowPolicy.BUFFER, 8);
+        processor.subscribe(new RecordingSubscriber<>());
+        final RecordingSubscriber<Integer> second = new RecordingSubscriber<>();
+        processor.subscribe(second);
+        assertTrue(second.error instanceof IllegalStateException);
+    }
+
+    private RateLimitedProcessor<Integer> givenProcessor(
+            Rate rate, RateLimitedProcessor.OverflowPolicy overflowPolicy, int bufferSize) {
+        final RateLimiter rateLimiter = RateLimiterRegistries.<String>of(KEY, rate)
+                .getRateLimiterOrUnlimited(KEY);
+        return RateLimitedProcessor.of(rateLimiter, Tickers.SYSTEM_EPOCH_MILLIS, overflowPolicy, bufferSize);
+    }
+
+    private static final class RecordingSubscriber<T> implements Flow.Subscriber<T> {
+        private final List<T> items = new CopyOnWriteArrayList<>();
+        private final List<Long> nanos = new CopyOnWriteArrayList<>();
+        private final CountDownLatch completed = new CountDownLatch(1);
+        private volatile Throwable error;
+        @Override public void onSubscribe(Flow.Subscription subscription) {
+            subscription.request(Long.MAX_VALUE);
+        }
+        @Override public void onNext(T item) {
+            nanos.add(System.nanoTime());
+            items.add(item);
+        }
+        @Override public void onError(Throwable throwable) { error = throwable; }
+        @Override public void onComplete() { completed.countDown(); }
+    }
+
+    /** Emits its items synchronously, from whichever thread requests them. */
+    private static final class ListPublisher<T> implements Flow.Publisher<T> {
+        private final List<T> items;
+        private final List<Long> requests = new CopyOnWriteArrayList<>();
+        @SafeVarargs
+        private ListPublisher(T... items) {
+            this.items = new ArrayList<>(Arrays.asList(items));
+        }
+        @Override public void subscribe(Flow.Subscriber<? super T> subscriber) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                private int index;
+                private long demand;
+                private boolean emitting;
+                private boolean cancelled;
+                @Override public synchronized void request(long n) {
+                    requests.add(n);
+                    demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+                    if (emitting) {
+                        return;
+                    }
+                    emitting = true;
+                    while (demand > 0 && index < items.size() && !cancelled) {
+                        --demand;
+                        subscriber.onNext(items.get(index++));
+                    }
+                    if (index == items.size() && !cancelled) {
+                        cancelled = true;
+                        subscriber.onComplete();
+                    }
+                    emitting = false;
+                }
+                @Override public synchronized void cancel() {
+                    cancelled = true;
+                }
+            });
+        }
+    }
+}